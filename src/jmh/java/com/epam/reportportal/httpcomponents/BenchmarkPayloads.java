@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpMessage;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import jakarta.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Deterministic request and response payloads for benchmarks. All entities are repeatable, so they are not buffered
+ * again on every invocation and each invocation measures the same amount of work.
+ */
+public class BenchmarkPayloads {
+
+	public enum Body {
+		TEXT, FORM, MULTIPART, BINARY
+	}
+
+	private static final String BOUNDARY = "jmhBoundary7MA4YWxkTrZu0gW";
+	private static final int PART_COUNT = 4;
+
+	private BenchmarkPayloads() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	@Nonnull
+	private static byte[] text(int size) {
+		byte[] result = new byte[size];
+		byte[] pattern = "{\"id\":12345,\"name\":\"benchmark\",\"tags\":[\"a\",\"b\"]},".getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < size; i++) {
+			result[i] = pattern[i % pattern.length];
+		}
+		return result;
+	}
+
+	@Nonnull
+	private static byte[] binary(int size) {
+		byte[] result = new byte[size];
+		new Random(size).nextBytes(result);
+		return result;
+	}
+
+	@Nonnull
+	private static byte[] form(int size) {
+		StringBuilder result = new StringBuilder(size + 32);
+		for (int i = 0; result.length() < size; i++) {
+			if (i > 0) {
+				result.append('&');
+			}
+			result.append("param").append(i).append('=').append("value%20").append(i);
+		}
+		return Arrays.copyOf(result.toString().getBytes(StandardCharsets.US_ASCII), size);
+	}
+
+	@Nonnull
+	private static byte[] multipart(int size) {
+		int partSize = Math.max(size / PART_COUNT, 1);
+		StringBuilder head = new StringBuilder();
+		byte[] result = new byte[0];
+		for (int i = 0; i < PART_COUNT; i++) {
+			boolean binaryPart = i % 2 == 1;
+			head.setLength(0);
+			head.append("--").append(BOUNDARY).append("\r\n")
+					.append("Content-Disposition: form-data; name=\"part").append(i).append('"')
+					.append(binaryPart ? "; filename=\"file" + i + ".bin\"" : "")
+					.append("\r\nContent-Type: ")
+					.append(binaryPart ? ContentType.APPLICATION_OCTET_STREAM.getMimeType() : ContentType.TEXT_PLAIN.getMimeType())
+					.append("\r\n\r\n");
+			byte[] headBytes = head.toString().getBytes(StandardCharsets.US_ASCII);
+			byte[] content = binaryPart ? binary(partSize) : text(partSize);
+			int offset = result.length;
+			result = Arrays.copyOf(result, offset + headBytes.length + content.length + 2);
+			System.arraycopy(headBytes, 0, result, offset, headBytes.length);
+			System.arraycopy(content, 0, result, offset + headBytes.length, content.length);
+			result[result.length - 2] = '\r';
+			result[result.length - 1] = '\n';
+		}
+		byte[] tail = ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		int offset = result.length;
+		result = Arrays.copyOf(result, offset + tail.length);
+		System.arraycopy(tail, 0, result, offset, tail.length);
+		return result;
+	}
+
+	/**
+	 * @param body body type
+	 * @param size approximate body size in bytes
+	 * @return repeatable entity of the given type
+	 */
+	@Nonnull
+	public static HttpEntity entity(@Nonnull Body body, int size) {
+		switch (body) {
+			case TEXT:
+				return new ByteArrayEntity(text(size), ContentType.APPLICATION_JSON);
+			case FORM:
+				return new ByteArrayEntity(form(size), ContentType.APPLICATION_FORM_URLENCODED);
+			case MULTIPART:
+				return new ByteArrayEntity(multipart(size), ContentType.parse("multipart/form-data; boundary=" + BOUNDARY));
+			default:
+				return new ByteArrayEntity(binary(size), ContentType.APPLICATION_OCTET_STREAM);
+		}
+	}
+
+	/**
+	 * Add headers to a message, every fourth header is a cookie.
+	 *
+	 * @param message HTTP message
+	 * @param count   number of headers
+	 * @param cookie  cookie header name, depends on message direction
+	 */
+	public static void addHeaders(@Nonnull HttpMessage message, int count, @Nonnull String cookie) {
+		for (int i = 0; i < count; i++) {
+			if (i % 4 == 3) {
+				message.addHeader(cookie, "session" + i + "=" + Integer.toHexString(i * 7919));
+			} else {
+				message.addHeader("X-Benchmark-Header-" + i, "value-" + i);
+			}
+		}
+	}
+}
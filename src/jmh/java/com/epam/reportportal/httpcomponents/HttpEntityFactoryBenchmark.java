@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.HttpPartFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.converters.DefaultCookieConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultFormParamConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultHttpHeaderConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultUriConverter;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.HttpEntityFactory;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.epam.reportportal.formatting.http.Constants.BODY_TYPE_MAP;
+import static com.epam.reportportal.formatting.http.Constants.DEFAULT_PRETTIFIERS;
+
+/**
+ * Request and response formatting cost by body type, body size and number of headers. A formatter is rendered by its
+ * body type the same way it is done on emission, so the score covers capture, parsing and formatting, but not the
+ * Report Portal client. Run with <code>gradlew jmh</code>, the GC profiler reports bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HttpEntityFactoryBenchmark {
+
+	@Param({ "TEXT", "FORM", "MULTIPART", "BINARY" })
+	public BenchmarkPayloads.Body body;
+
+	@Param({ "1024", "65536", "1048576", "52428800" })
+	public int size;
+
+	@Param({ "5", "50" })
+	public int headers;
+
+	private BasicHttpEntityEnclosingRequest request;
+	private BasicHttpResponse response;
+	private HttpContext context;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new BasicHttpContext();
+		context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("localhost", 8080));
+		request = new BasicHttpEntityEnclosingRequest("POST", "/api/v1/benchmark?query=value", HttpVersion.HTTP_1_1);
+		request.setEntity(BenchmarkPayloads.entity(body, size));
+		BenchmarkPayloads.addHeaders(request, headers, "Cookie");
+		response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+		response.setEntity(BenchmarkPayloads.entity(body, size));
+		BenchmarkPayloads.addHeaders(response, headers, "Set-Cookie");
+	}
+
+	private static void render(HttpFormatter formatter, Blackhole blackhole) {
+		switch (formatter.getType()) {
+			case TEXT:
+			case FORM:
+				blackhole.consume(formatter.formatAsText());
+				break;
+			case MULTIPART:
+				if (formatter instanceof HttpRequestFormatter) {
+					HttpRequestFormatter request = (HttpRequestFormatter) formatter;
+					blackhole.consume(request.formatHeaders() + request.formatCookies());
+					for (HttpPartFormatter part : request.getMultipartBody()) {
+						if (HttpPartFormatter.PartType.TEXT == part.getType()) {
+							blackhole.consume(part.formatAsText());
+						} else {
+							blackhole.consume(part.formatForBinaryDataPrefix());
+							blackhole.consume(part.getBinaryPayload());
+						}
+					}
+				} else {
+					blackhole.consume(formatter.formatHead());
+				}
+				break;
+			case BINARY:
+				blackhole.consume(formatter.getBinaryBody());
+				blackhole.consume(formatter.formatHead());
+				break;
+			default:
+				blackhole.consume(formatter.formatHead());
+		}
+	}
+
+	@Benchmark
+	public void requestFormatter(Blackhole blackhole) {
+		render(
+				HttpEntityFactory.createHttpRequestFormatter(
+						request,
+						context,
+						DefaultUriConverter.INSTANCE,
+						DefaultHttpHeaderConverter.INSTANCE,
+						DefaultCookieConverter.INSTANCE,
+						DefaultFormParamConverter.INSTANCE,
+						DEFAULT_PRETTIFIERS,
+						DefaultHttpHeaderConverter.INSTANCE,
+						BODY_TYPE_MAP,
+						CaptureOptions.DEFAULT
+				), blackhole
+		);
+	}
+
+	@Benchmark
+	public void responseFormatter(Blackhole blackhole) {
+		render(
+				HttpEntityFactory.createHttpResponseFormatter(
+						response,
+						context,
+						DefaultHttpHeaderConverter.INSTANCE,
+						DefaultCookieConverter.INSTANCE,
+						DEFAULT_PRETTIFIERS,
+						BODY_TYPE_MAP,
+						CaptureOptions.DEFAULT
+				), blackhole
+		);
+	}
+}
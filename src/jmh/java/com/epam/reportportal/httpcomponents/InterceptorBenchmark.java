@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.httpcomponents.support.FilterRule;
+import com.epam.reportportal.listeners.LogLevel;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full interceptor round trip, request and response, with a number of filters which do not match, so every filter is
+ * evaluated and the exchange is still logged. Log emission is replaced with a {@link Blackhole}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class InterceptorBenchmark {
+
+	public enum Filters {
+		PREDICATE, RULE
+	}
+
+	@Param({ "0", "10", "100" })
+	public int filterCount;
+
+	@Param({ "PREDICATE", "RULE" })
+	public Filters filters;
+
+	@Param({ "1024", "65536" })
+	public int size;
+
+	private ReportPortalHttpLoggingInterceptor interceptor;
+	private BasicHttpEntityEnclosingRequest request;
+	private BasicHttpResponse response;
+	private HttpContext context;
+
+	private static class BlackholeInterceptor extends ReportPortalHttpLoggingInterceptor {
+		private final Blackhole blackhole;
+
+		private BlackholeInterceptor(Blackhole blackhole) {
+			super(LogLevel.INFO);
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		protected void emitLog(HttpFormatter formatter) {
+			blackhole.consume(formatter.formatAsText());
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp(Blackhole blackhole) {
+		interceptor = new BlackholeInterceptor(blackhole);
+		for (int i = 0; i < filterCount; i++) {
+			String path = "/api/v" + i + "/excluded";
+			if (filters == Filters.PREDICATE) {
+				interceptor.addRequestFilter(r -> r.getRequestLine().getUri().startsWith(path));
+				interceptor.addResponseFilter(r -> r.getStatusLine().getStatusCode() == 590);
+			} else {
+				interceptor.addRequestFilterRule(FilterRule.builder().pathPrefix(path).build());
+				interceptor.addResponseFilterRule(FilterRule.builder().pathPrefix(path).status(590).build());
+			}
+		}
+		context = new BasicHttpContext();
+		context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("localhost", 8080));
+		request = new BasicHttpEntityEnclosingRequest("POST", "/api/v1/benchmark", HttpVersion.HTTP_1_1);
+		request.setEntity(BenchmarkPayloads.entity(BenchmarkPayloads.Body.TEXT, size));
+		BenchmarkPayloads.addHeaders(request, 10, "Cookie");
+		context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+		response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+		response.setEntity(BenchmarkPayloads.entity(BenchmarkPayloads.Body.TEXT, size));
+		BenchmarkPayloads.addHeaders(response, 10, "Set-Cookie");
+	}
+
+	@Benchmark
+	public void exchange() {
+		interceptor.process(request, context);
+		interceptor.process(response, context);
+	}
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents;
+
+import com.epam.reportportal.formatting.AbstractHttpFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.formatting.http.converters.DefaultCookieConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultFormParamConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultHttpHeaderConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultUriConverter;
+import com.epam.reportportal.formatting.http.entities.Cookie;
+import com.epam.reportportal.formatting.http.entities.Header;
+import com.epam.reportportal.formatting.http.entities.Param;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.CapturedBody;
+import com.epam.reportportal.httpcomponents.support.ChunkPool;
+import com.epam.reportportal.httpcomponents.support.HttpEntityFactory;
+import com.epam.reportportal.httpcomponents.support.RedactionRules;
+import com.epam.reportportal.httpcomponents.support.StreamingPrettifier;
+import com.epam.reportportal.httpcomponents.support.TeeRequestProducer;
+import com.epam.reportportal.httpcomponents.support.TeeResponseConsumer;
+import com.epam.reportportal.listeners.LogLevel;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpCoreContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Logging decorator for Apache HttpAsyncClient 4 request producers and response consumers:
+ * <pre>
+ * ReportPortalAsyncLoggingDecorator.DecoratedExchange&lt;T&gt; exchange = logging.decorate(requestProducer, responseConsumer);
+ * client.execute(exchange.getRequestProducer(), exchange.getResponseConsumer(), callback);
+ * </pre>
+ * The request and the response of an exchange are correlated by the decorated pair, so concurrent and pipelined
+ * exchanges of the same thread are logged correctly. A producer or a consumer decorated alone is logged as a separate
+ * request or response entry. Bodies are not buffered:
+ * request bytes are copied while the producer writes them to the content encoder, response bytes while the consumer
+ * reads them from the content decoder. I/O dispatch threads only copy bytes, all formatting happens on the thread which
+ * decorated the exchange, since Report Portal logs are bound to the test thread. Logs of completed exchanges are
+ * emitted in decoration order on the next <code>decorate</code> call of the same thread and on
+ * {@link #flush()}, so call {@link #flush()} at the end of each test item to get all its logs.
+ * <p>
+ * Use this class instead of {@link ReportPortalHttpLoggingInterceptor} with HttpAsyncClient 4: the interceptor buffers
+ * entities, which blocks the I/O dispatch threads.
+ */
+public class ReportPortalAsyncLoggingDecorator extends AbstractHttpFormatter<ReportPortalAsyncLoggingDecorator> {
+
+	private final List<Predicate<HttpRequest>> requestFilters = new CopyOnWriteArrayList<>();
+	private final List<Predicate<HttpResponse>> responseFilters = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Queue<Exchange>> exchanges = ThreadLocal.withInitial(ConcurrentLinkedQueue::new);
+
+	protected final Function<Param, String> paramConverter;
+
+	private volatile CaptureOptions captureOptions = CaptureOptions.DEFAULT;
+
+	/**
+	 * Captured data of a single request-response exchange. Fields are published by I/O dispatch threads and read by the
+	 * decorating thread.
+	 */
+	private static class Exchange {
+		private volatile HttpHost target;
+		private volatile HttpRequest request;
+		private volatile CapturedBody requestBody;
+		private volatile boolean requestSent;
+		private volatile HttpResponse response;
+		private volatile CapturedBody responseBody;
+		private volatile boolean responseReceived;
+		private volatile boolean producerDecorated;
+		private volatile boolean consumerDecorated;
+
+		private boolean isCompleted() {
+			return (!producerDecorated || requestSent) && (!consumerDecorated || responseReceived);
+		}
+	}
+
+	/**
+	 * Decorated request producer and response consumer of a single exchange, which should be passed to the client
+	 * together.
+	 *
+	 * @param <T> response processing result type
+	 */
+	public static class DecoratedExchange<T> {
+		private final HttpAsyncRequestProducer requestProducer;
+		private final HttpAsyncResponseConsumer<T> responseConsumer;
+
+		private DecoratedExchange(@Nonnull HttpAsyncRequestProducer requestProducer,
+				@Nonnull HttpAsyncResponseConsumer<T> responseConsumer) {
+			this.requestProducer = requestProducer;
+			this.responseConsumer = responseConsumer;
+		}
+
+		@Nonnull
+		public HttpAsyncRequestProducer getRequestProducer() {
+			return requestProducer;
+		}
+
+		@Nonnull
+		public HttpAsyncResponseConsumer<T> getResponseConsumer() {
+			return responseConsumer;
+		}
+	}
+
+	/**
+	 * Create a Logging Decorator with the specific log level and converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 * @param cookieConvertFunction     the same as 'headerConvertFunction' param but for Cookies, default function
+	 *                                  formats Cookies with <code>toString</code> method
+	 * @param uriConverterFunction      the same as 'headerConvertFunction' param but for URI, default function returns
+	 *                                  URI "as is"
+	 * @param paramConverter            the same as 'headerConvertFunction' param but for Web Form Params, default function returns
+	 *                                  <code>param.getName() + ": " + param.getValue()</code>
+	 */
+	public ReportPortalAsyncLoggingDecorator(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction, @Nullable Function<Cookie, String> cookieConvertFunction,
+			@Nullable Function<String, String> uriConverterFunction, @Nullable Function<Param, String> paramConverter) {
+		super(defaultLogLevel, headerConvertFunction, partHeaderConvertFunction, cookieConvertFunction, uriConverterFunction);
+		this.paramConverter = paramConverter != null ? paramConverter : DefaultFormParamConverter.INSTANCE;
+	}
+
+	/**
+	 * Create a Logging Decorator with the specific log level and header converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 */
+	public ReportPortalAsyncLoggingDecorator(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction) {
+		this(
+				defaultLogLevel,
+				headerConvertFunction,
+				partHeaderConvertFunction,
+				DefaultCookieConverter.INSTANCE,
+				DefaultUriConverter.INSTANCE,
+				DefaultFormParamConverter.INSTANCE
+		);
+	}
+
+	/**
+	 * Create a Logging Decorator with the specific log level.
+	 *
+	 * @param defaultLogLevel log level on which Apache HttpComponents requests/responses will appear on Report Portal
+	 */
+	public ReportPortalAsyncLoggingDecorator(@Nonnull LogLevel defaultLogLevel) {
+		this(defaultLogLevel, DefaultHttpHeaderConverter.INSTANCE, DefaultHttpHeaderConverter.INSTANCE);
+	}
+
+	@Nonnull
+	private static String getUri(@Nonnull HttpRequest request, @Nullable HttpHost target) {
+		String uri = request.getRequestLine().getUri();
+		return target != null && uri.startsWith("/") ? target.toURI() + uri : uri;
+	}
+
+	@Nullable
+	private Function<Header, String> redact(@Nullable Function<Header, String> converter) {
+		return captureOptions.getRedactionRules().headerConverter(converter);
+	}
+
+	private void emitExchange(@Nonnull Exchange exchange) {
+		Map<String, Function<String, String>> prettifiers = getContentPrettifiers();
+		HttpRequest request = exchange.request;
+		if (request != null) {
+			HttpRequestFormatter.Builder builder = HttpEntityFactory.createRequestBuilder(
+					request,
+					getUri(request, exchange.target),
+					uriConverter,
+					redact(headerConverter),
+					cookieConverter,
+					paramConverter,
+					prettifiers
+			);
+			CapturedBody body = exchange.requestBody;
+			if (body != null && exchange.requestSent) {
+				body.applyTo(builder, prettifiers);
+				emitLog(body.annotate(builder.build()));
+			} else {
+				emitLog(builder.build());
+			}
+		}
+		HttpResponse response = exchange.response;
+		if (response != null) {
+			HttpResponseFormatter.Builder builder = HttpEntityFactory.createResponseBuilder(
+					response,
+					redact(headerConverter),
+					cookieConverter,
+					prettifiers
+			);
+			CapturedBody body = exchange.responseBody;
+			if (body != null && exchange.responseReceived) {
+				body.applyTo(builder, prettifiers);
+				emitLog(body.annotate(builder.build()));
+			} else {
+				emitLog(builder.build());
+			}
+		}
+	}
+
+	private void emitExchanges(boolean all) {
+		Queue<Exchange> queue = exchanges.get();
+		Exchange exchange;
+		while ((exchange = queue.peek()) != null && (all || exchange.isCompleted())) {
+			queue.poll();
+			emitExchange(exchange);
+		}
+	}
+
+	@Nonnull
+	private Exchange startExchange() {
+		Exchange exchange = new Exchange();
+		exchanges.get().add(exchange);
+		return exchange;
+	}
+
+	@Nullable
+	private CapturedBody onRequest(@Nonnull Exchange exchange, @Nonnull HttpRequest request, @Nullable HttpHost target) {
+		if (requestFilters.stream().anyMatch(f -> f.test(request))) {
+			return null;
+		}
+		exchange.target = target;
+		exchange.request = request;
+		if (!(request instanceof HttpEntityEnclosingRequest)) {
+			return null;
+		}
+		CapturedBody body = ofNullable(((HttpEntityEnclosingRequest) request).getEntity()).map(e -> HttpEntityFactory.createRequestBody(
+				e,
+				redact(partHeaderConverter),
+				getBodyTypeMap(),
+				captureOptions
+		)).orElse(null);
+		exchange.requestBody = body;
+		return body;
+	}
+
+	@Nullable
+	private CapturedBody onResponse(@Nonnull Exchange exchange, @Nonnull HttpResponse response) {
+		if (responseFilters.stream().anyMatch(f -> f.test(response))) {
+			return null;
+		}
+		CapturedBody body = ofNullable(response.getEntity()).map(e -> HttpEntityFactory.createResponseBody(
+				e,
+				getBodyTypeMap(),
+				captureOptions
+		)).orElse(null);
+		exchange.responseBody = body;
+		exchange.response = response;
+		return body;
+	}
+
+	@Nonnull
+	private HttpAsyncRequestProducer decorate(@Nonnull Exchange exchange, @Nonnull HttpAsyncRequestProducer producer) {
+		exchange.producerDecorated = true;
+		return new TeeRequestProducer(
+				producer,
+				request -> onRequest(exchange, request, producer.getTarget()),
+				context -> {
+					if (context != null) {
+						// The context holds the request as it was sent, with headers added by protocol interceptors
+						ofNullable(exchange.request).flatMap(r -> ofNullable(HttpCoreContext.adapt(context).getRequest()))
+								.ifPresent(r -> exchange.request = r);
+					}
+					exchange.requestSent = true;
+				}
+		);
+	}
+
+	@Nonnull
+	private <T> HttpAsyncResponseConsumer<T> decorate(@Nonnull Exchange exchange, @Nonnull HttpAsyncResponseConsumer<T> consumer) {
+		exchange.consumerDecorated = true;
+		return new TeeResponseConsumer<>(consumer, response -> onResponse(exchange, response), () -> exchange.responseReceived = true);
+	}
+
+	/**
+	 * Decorate a request producer and a response consumer of the same exchange to log the request and its response.
+	 * Also emits logs of exchanges of the current thread which are completed.
+	 *
+	 * @param producer request producer
+	 * @param consumer response consumer
+	 * @param <T>      response processing result type
+	 * @return logging request producer and response consumer
+	 */
+	@Nonnull
+	public <T> DecoratedExchange<T> decorate(@Nonnull HttpAsyncRequestProducer producer,
+			@Nonnull HttpAsyncResponseConsumer<T> consumer) {
+		emitExchanges(false);
+		Exchange exchange = startExchange();
+		return new DecoratedExchange<>(decorate(exchange, producer), decorate(exchange, consumer));
+	}
+
+	/**
+	 * Decorate a request producer to log the request only. Also emits logs of exchanges of the current thread which are
+	 * completed.
+	 *
+	 * @param producer request producer
+	 * @return logging request producer
+	 */
+	@Nonnull
+	public HttpAsyncRequestProducer decorate(@Nonnull HttpAsyncRequestProducer producer) {
+		emitExchanges(false);
+		return decorate(startExchange(), producer);
+	}
+
+	/**
+	 * Decorate a response consumer to log the response only. Also emits logs of exchanges of the current thread which
+	 * are completed.
+	 *
+	 * @param consumer response consumer
+	 * @param <T>      response processing result type
+	 * @return logging response consumer
+	 */
+	@Nonnull
+	public <T> HttpAsyncResponseConsumer<T> decorate(@Nonnull HttpAsyncResponseConsumer<T> consumer) {
+		emitExchanges(false);
+		return decorate(startExchange(), consumer);
+	}
+
+	public ReportPortalAsyncLoggingDecorator addRequestFilter(@Nonnull Predicate<HttpRequest> requestFilter) {
+		requestFilters.add(requestFilter);
+		return this;
+	}
+
+	public ReportPortalAsyncLoggingDecorator addResponseFilter(@Nonnull Predicate<HttpResponse> responseFilter) {
+		responseFilters.add(responseFilter);
+		return this;
+	}
+
+	/**
+	 * Limit the size of logged request and response bodies. A body longer than <code>headSize + tailSize</code> bytes
+	 * is logged with its first <code>headSize</code> and last <code>tailSize</code> bytes and the elided range is marked
+	 * in the log.
+	 *
+	 * @param headSize number of leading body bytes to log, a negative value turns the limit off
+	 * @param tailSize number of trailing body bytes to log
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingDecorator setBodyCaptureLimit(int headSize, int tailSize) {
+		captureOptions = captureOptions.toBuilder().bodyLimit(headSize, tailSize).build();
+		return this;
+	}
+
+	/**
+	 * Limit decompression of gzip and deflate encoded response bodies. Such bodies are captured compressed and
+	 * decompressed on formatting, a body which decompresses to more bytes than the limit is logged truncated.
+	 *
+	 * @param limit maximum size of a decompressed body in bytes, a negative value means compressed bodies are logged as is
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingDecorator setDecompressionLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().decompressionLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Log text bodies larger than the limit without prettification. Text bodies of a MIME type with a
+	 * {@link StreamingPrettifier} in content prettifiers are reformatted straight from captured bytes, other
+	 * prettifiers get a decoded body.
+	 *
+	 * @param limit maximum size of a body to prettify in bytes, a negative value means no limit
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingDecorator setPrettifyLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().prettifyLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Mask sensitive data in logs: values of headers, JSON fields and form parameters, and whole multipart parts, which
+	 * match the rules, are replaced with {@link RedactionRules#REPLACEMENT}. Bodies are masked in a single pass while
+	 * they are captured.
+	 *
+	 * @param rules compiled redaction rules
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingDecorator setRedactionRules(@Nonnull RedactionRules rules) {
+		captureOptions = captureOptions.toBuilder().redactionRules(rules).build();
+		return this;
+	}
+
+	/**
+	 * Capture bodies into chunks of a bounded pool, which are reused once a body is formatted, instead of allocating new
+	 * buffers for each body. Bodies of known length shorter than a chunk are captured into arrays of their exact size.
+	 *
+	 * @param maxChunks maximum number of retained chunks, zero or a negative value turns pooling off
+	 * @param chunkSize chunk size in bytes, which is also the largest retained buffer size
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingDecorator setBufferPool(int maxChunks, int chunkSize) {
+		captureOptions = captureOptions.toBuilder().bufferPool(new ChunkPool(maxChunks, chunkSize)).build();
+		return this;
+	}
+
+	/**
+	 * Emit logs of all exchanges decorated by the current thread. An exchange which is still in progress is logged with
+	 * the data captured so far: a request body which is not completely sent and a response body which is not completely
+	 * received are omitted.
+	 */
+	public void flush() {
+		emitExchanges(true);
+	}
+}
@@ -17,35 +17,113 @@
 package com.epam.reportportal.httpcomponents;
 
 import com.epam.reportportal.formatting.AbstractHttpFormatter;
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
 import com.epam.reportportal.formatting.http.converters.DefaultCookieConverter;
 import com.epam.reportportal.formatting.http.converters.DefaultFormParamConverter;
 import com.epam.reportportal.formatting.http.converters.DefaultHttpHeaderConverter;
 import com.epam.reportportal.formatting.http.converters.DefaultUriConverter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
 import com.epam.reportportal.formatting.http.entities.Cookie;
 import com.epam.reportportal.formatting.http.entities.Header;
 import com.epam.reportportal.formatting.http.entities.Param;
+import com.epam.reportportal.httpcomponents.support.AsyncLogDispatcher;
+import com.epam.reportportal.httpcomponents.support.BodyDeduplicator;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.ChunkPool;
+import com.epam.reportportal.httpcomponents.support.CombinedHttpFormatter;
+import com.epam.reportportal.httpcomponents.support.ExchangeCorrelator;
+import com.epam.reportportal.httpcomponents.support.FilterIndex;
+import com.epam.reportportal.httpcomponents.support.FilterRule;
+import com.epam.reportportal.httpcomponents.support.LogBatcher;
+import com.epam.reportportal.httpcomponents.support.LoggingMetricsListener;
+import com.epam.reportportal.httpcomponents.support.ReportingState;
+import com.epam.reportportal.httpcomponents.support.RouteTable;
+import com.epam.reportportal.httpcomponents.support.SamplingPolicy;
 import com.epam.reportportal.httpcomponents.support.HttpEntityFactory;
+import com.epam.reportportal.httpcomponents.support.LeveledHttpFormatter;
+import com.epam.reportportal.httpcomponents.support.LoggingPolicy;
+import com.epam.reportportal.httpcomponents.support.OverloadGuard;
+import com.epam.reportportal.httpcomponents.support.RedactionRules;
+import com.epam.reportportal.httpcomponents.support.StreamingPrettifier;
 import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.service.ReportPortal;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.HttpRequestRetryHandler;
 import org.apache.http.protocol.HttpContext;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static java.util.Optional.ofNullable;
 
 public class ReportPortalHttpLoggingInterceptor extends AbstractHttpFormatter<ReportPortalHttpLoggingInterceptor>
 		implements HttpRequestInterceptor, HttpResponseInterceptor {
 
+	private static final String SAMPLED_OUT_REQUEST = ReportPortalHttpLoggingInterceptor.class.getName() + ".sampledOutRequest";
+	private static final String LOGGING_POLICY = ReportPortalHttpLoggingInterceptor.class.getName() + ".loggingPolicy";
+	private static final int ERROR_STATUS = 400;
+	private static final Map<LogLevel, LevelEmitter> LEVEL_EMITTERS = new EnumMap<>(LogLevel.class);
+
+	static {
+		for (LogLevel level : LogLevel.values()) {
+			LEVEL_EMITTERS.put(level, new LevelEmitter(level));
+		}
+	}
+
+	/**
+	 * Emits formatted logs on a log level other than the default one with the logic of the formatting library.
+	 */
+	private static final class LevelEmitter extends AbstractHttpFormatter<LevelEmitter> {
+		private LevelEmitter(@Nonnull LogLevel level) {
+			super(level, null, null, null, null);
+		}
+
+		private void emit(@Nonnull HttpFormatter formatter) {
+			emitLog(formatter);
+		}
+	}
+
 	private final List<Predicate<HttpRequest>> requestFilters = new CopyOnWriteArrayList<>();
 	private final List<Predicate<HttpResponse>> responseFilters = new CopyOnWriteArrayList<>();
+	private final List<FilterRule> requestFilterRules = new ArrayList<>();
+	private final List<FilterRule> responseFilterRules = new ArrayList<>();
+	private volatile FilterIndex requestFilterIndex = FilterIndex.EMPTY;
+	private volatile FilterIndex responseFilterIndex = FilterIndex.EMPTY;
 
 	protected final Function<Param, String> paramConverter;
+	private final LogLevel defaultLogLevel;
+
+	private volatile boolean streamingResponseCapture;
+	private volatile CaptureOptions captureOptions = CaptureOptions.DEFAULT;
+	private volatile AsyncLogDispatcher asyncDispatcher;
+	private volatile SamplingPolicy samplingPolicy;
+	private volatile RouteTable<SamplingPolicy> samplingRoutes = RouteTable.empty();
+	private volatile RouteTable<LoggingPolicy> policyRoutes = RouteTable.empty();
+	private final LongAdder sampledOut = new LongAdder();
+	private final ExchangeCorrelator correlator = new ExchangeCorrelator();
+	private volatile boolean combinedLogging;
+	private volatile LoggingMetricsListener metricsListener = LoggingMetricsListener.NOOP;
+	private volatile boolean skipIfNotReporting;
+	private volatile BodyDeduplicator deduplicator;
+	private volatile LogBatcher logBatcher;
+	private volatile OverloadGuard overloadGuard;
 
 	/**
 	 * Create a Logging Interceptor with the specific log level and converters.
@@ -67,6 +145,7 @@ public class ReportPortalHttpLoggingInterceptor extends AbstractHttpFormatter<Re
 			@Nullable Function<Header, String> partHeaderConvertFunction, @Nullable Function<Cookie, String> cookieConvertFunction,
 			@Nullable Function<String, String> uriConverterFunction, @Nullable Function<Param, String> paramConverter) {
 		super(defaultLogLevel, headerConvertFunction, partHeaderConvertFunction, cookieConvertFunction, uriConverterFunction);
+		this.defaultLogLevel = defaultLogLevel;
 		this.paramConverter = paramConverter != null ? paramConverter : DefaultFormParamConverter.INSTANCE;
 	}
 
@@ -138,37 +217,296 @@ public class ReportPortalHttpLoggingInterceptor extends AbstractHttpFormatter<Re
 		this(defaultLogLevel, DefaultHttpHeaderConverter.INSTANCE, DefaultHttpHeaderConverter.INSTANCE);
 	}
 
-	@Override
-	public void process(HttpRequest request, HttpContext context) {
-		if (requestFilters.stream().anyMatch(f -> f.test(request))) {
-			return;
-		}
-		emitLog(HttpEntityFactory.createHttpRequestFormatter(
+	@Nullable
+	private Function<Header, String> redact(@Nullable Function<Header, String> converter) {
+		return captureOptions.getRedactionRules().headerConverter(converter);
+	}
+
+	@Nonnull
+	private CaptureOptions currentOptions() {
+		OverloadGuard guard = overloadGuard;
+		CaptureOptions options = captureOptions;
+		return guard == null ? options : guard.apply(options);
+	}
+
+	@Nullable
+	private LoggingPolicy degrade(@Nullable LoggingPolicy policy) {
+		OverloadGuard guard = overloadGuard;
+		return guard == null ? policy : guard.apply(policy, defaultLogLevel);
+	}
+
+	@Nonnull
+	private HttpFormatter formatRequest(@Nonnull HttpRequest request, @Nonnull HttpContext context, @Nonnull CaptureOptions options) {
+		long start = System.nanoTime();
+		HttpFormatter formatter = HttpEntityFactory.createHttpRequestFormatter(
 				request,
 				context,
 				uriConverter,
-				headerConverter,
+				redact(headerConverter),
 				cookieConverter,
 				paramConverter,
 				getContentPrettifiers(),
-				partHeaderConverter,
-				getBodyTypeMap()
-		));
+				redact(partHeaderConverter),
+				getBodyTypeMap(),
+				options
+		);
+		options.getMetricsListener().formatTime(System.nanoTime() - start);
+		return formatter;
 	}
 
-	@Override
-	public void process(HttpResponse response, HttpContext context) {
-		if (responseFilters.stream().anyMatch(f -> f.test(response))) {
-			return;
-		}
-		emitLog(HttpEntityFactory.createHttpResponseFormatter(
+	@Nonnull
+	private HttpFormatter formatResponse(@Nonnull HttpResponse response, @Nonnull HttpContext context,
+			@Nonnull CaptureOptions options) {
+		long start = System.nanoTime();
+		HttpFormatter formatter = HttpEntityFactory.createHttpResponseFormatter(
 				response,
 				context,
-				headerConverter,
+				redact(headerConverter),
 				cookieConverter,
 				getContentPrettifiers(),
-				getBodyTypeMap()
-		));
+				getBodyTypeMap(),
+				options
+		);
+		options.getMetricsListener().formatTime(System.nanoTime() - start);
+		return formatter;
+	}
+
+	@Nonnull
+	private static HttpFormatter withLevel(@Nonnull HttpFormatter formatter, @Nullable LoggingPolicy policy) {
+		return policy == null ? formatter : new LeveledHttpFormatter(formatter, policy.getLevel());
+	}
+
+	@Nonnull
+	private Supplier<HttpFormatter> captureRequest(@Nonnull HttpRequest request, @Nonnull HttpContext context,
+			@Nullable LoggingPolicy policy) {
+		if (policy != null && !policy.isBodyLogged()) {
+			HttpFormatter formatter = withLevel(HttpEntityFactory.createHttpRequestHeadFormatter(
+					request,
+					context,
+					uriConverter,
+					redact(headerConverter),
+					cookieConverter,
+					paramConverter,
+					getContentPrettifiers(),
+					LoggingPolicy.Detail.HEADERS == policy.getDetail()
+			), policy);
+			return () -> formatter;
+		}
+		CaptureOptions options = currentOptions();
+		if (asyncDispatcher == null) {
+			HttpFormatter formatter = withLevel(formatRequest(request, context, options), policy);
+			return () -> formatter;
+		}
+		HttpRequest requestCopy = HttpEntityFactory.copyHttpRequest(request, options);
+		HttpContext contextCopy = HttpEntityFactory.copyHttpContext(context);
+		return () -> withLevel(formatRequest(requestCopy, contextCopy, options), policy);
+	}
+
+	private void emitCaptured(@Nonnull Supplier<HttpFormatter> formatter) {
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		if (dispatcher == null) {
+			emitLog(formatter.get());
+		} else {
+			dispatcher.submit(formatter::get, this::emitLog);
+		}
+	}
+
+	private boolean sample(@Nonnull HttpRequest request, @Nonnull HttpContext context) {
+		SamplingPolicy policy = ofNullable(samplingRoutes.find(request, context)).orElse(samplingPolicy);
+		return policy == null || policy.sample(request, context);
+	}
+
+	/**
+	 * Check whether logs emitted on the current thread reach Report Portal. Called before any capture work if
+	 * {@link #setSkipIfNotReporting(boolean)} is on. Override it to add more conditions, e.g. a log level check.
+	 *
+	 * @return <code>true</code> if the exchange should be captured
+	 */
+	protected boolean isReporting() {
+		return ReportingState.isReporting();
+	}
+
+	@Override
+	public void process(HttpRequest request, HttpContext context) {
+		if (skipIfNotReporting && !isReporting()) {
+			return;
+		}
+		if (requestFilterIndex.matches(request, context) || requestFilters.stream().anyMatch(f -> f.test(request))) {
+			metricsListener.filtered();
+			return;
+		}
+		LoggingPolicy policy = degrade(policyRoutes.findCached(request, context));
+		if (policy != null) {
+			context.setAttribute(LOGGING_POLICY, policy);
+		}
+		if (!sample(request, context)) {
+			// Keep the request head in case the response is an error, which is logged regardless of sampling
+			context.setAttribute(SAMPLED_OUT_REQUEST, HttpEntityFactory.copyHttpRequestHead(request));
+			return;
+		}
+		Supplier<HttpFormatter> capturedRequest = captureRequest(request, context, policy);
+		if (combinedLogging) {
+			ofNullable(correlator.begin(context, capturedRequest)).ifPresent(this::emitCaptured);
+		} else {
+			emitCaptured(capturedRequest);
+		}
+	}
+
+	@Override
+	public void process(HttpResponse response, HttpContext context) {
+		Supplier<HttpFormatter> pendingRequest = correlator.take(context);
+		Object sampledOutRequest = context.getAttribute(SAMPLED_OUT_REQUEST);
+		if (sampledOutRequest != null) {
+			context.removeAttribute(SAMPLED_OUT_REQUEST);
+		}
+		LoggingPolicy routePolicy = (LoggingPolicy) context.getAttribute(LOGGING_POLICY);
+		if (routePolicy != null) {
+			context.removeAttribute(LOGGING_POLICY);
+		}
+		LoggingPolicy policy = degrade(routePolicy);
+		if (skipIfNotReporting && !isReporting()) {
+			return;
+		}
+		if (responseFilterIndex.matches(response, context) || responseFilters.stream().anyMatch(f -> f.test(response))) {
+			metricsListener.filtered();
+			ofNullable(pendingRequest).ifPresent(this::emitCaptured);
+			return;
+		}
+		if (sampledOutRequest != null) {
+			boolean error = ofNullable(response.getStatusLine()).map(l -> l.getStatusCode() >= ERROR_STATUS).orElse(false);
+			if (!error) {
+				sampledOut.increment();
+				metricsListener.sampledOut();
+				return;
+			}
+			Supplier<HttpFormatter> capturedRequest = captureRequest((HttpRequest) sampledOutRequest, context, policy);
+			if (combinedLogging) {
+				pendingRequest = capturedRequest;
+			} else {
+				emitCaptured(capturedRequest);
+			}
+		}
+		Supplier<HttpFormatter> request = pendingRequest;
+		UnaryOperator<HttpFormatter> combiner = request == null ? f -> f : f -> new CombinedHttpFormatter(request.get(), f);
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		if (policy != null && !policy.isBodyLogged()) {
+			HttpFormatter formatter = withLevel(HttpEntityFactory.createHttpResponseHeadFormatter(
+					response,
+					redact(headerConverter),
+					cookieConverter,
+					getContentPrettifiers(),
+					LoggingPolicy.Detail.HEADERS == policy.getDetail()
+			), policy);
+			if (dispatcher == null) {
+				emitLog(combiner.apply(formatter));
+			} else {
+				dispatcher.submit(() -> combiner.apply(formatter), this::emitLog);
+			}
+			return;
+		}
+		CaptureOptions options = currentOptions();
+		if (streamingResponseCapture) {
+			HttpEntityFactory.captureHttpResponse(
+					response,
+					context,
+					redact(headerConverter),
+					cookieConverter,
+					getContentPrettifiers(),
+					getBodyTypeMap(),
+					options,
+					dispatcher == null ?
+							formatter -> emitLog(combiner.apply(withLevel(formatter, policy))) :
+							formatter -> dispatcher.submit(() -> combiner.apply(withLevel(formatter, policy)), this::emitLog)
+			);
+			return;
+		}
+		if (dispatcher == null) {
+			emitLog(combiner.apply(withLevel(formatResponse(response, context, options), policy)));
+			return;
+		}
+		HttpResponse responseCopy = HttpEntityFactory.copyHttpResponse(response, options);
+		HttpContext contextCopy = HttpEntityFactory.copyHttpContext(context);
+		dispatcher.submit(
+				() -> combiner.apply(withLevel(formatResponse(responseCopy, contextCopy, options), policy)),
+				this::emitLog
+		);
+	}
+
+	/**
+	 * @param formatter formatter to emit
+	 * @return log text the same as emitted without batching, or <code>null</code> if the log has an attachment or
+	 * nested steps and can't be batched
+	 */
+	@Nullable
+	private static String formatBatchText(@Nonnull HttpFormatter formatter) {
+		BodyType type = formatter.getType();
+		if (BodyType.TEXT == type || BodyType.FORM == type) {
+			return formatter.formatAsText();
+		}
+		if (BodyType.NONE == type || (BodyType.BINARY == type && formatter.getBinaryBody() == null)) {
+			return formatter.formatHead();
+		}
+		return null;
+	}
+
+	private void emitLog(@Nonnull HttpFormatter formatter, @Nullable LogLevel level) {
+		BodyType type = formatter.getType();
+		LogBatcher batcher = logBatcher;
+		if (batcher != null) {
+			String text = formatBatchText(formatter);
+			if (text != null) {
+				batcher.add(text, ofNullable(level).orElse(defaultLogLevel).name(), Instant.now());
+				return;
+			}
+			// Keep emission order: logs which cannot be joined go after the pending batch
+			batcher.flush();
+		}
+		LogLevel emitLevel = ofNullable(level).orElse(defaultLogLevel);
+		// The formatting library reads multipart bodies from the concrete request formatter
+		HttpFormatter target = BodyType.MULTIPART == type ? LeveledHttpFormatter.unwrap(formatter) : formatter;
+		if (BodyType.MULTIPART == type && !(target instanceof HttpRequestFormatter)) {
+			ReportPortal.emitLog(formatter.formatHead(), emitLevel.name(), Instant.now());
+			return;
+		}
+		if (emitLevel == defaultLogLevel) {
+			super.emitLog(target);
+		} else {
+			LEVEL_EMITTERS.get(emitLevel).emit(target);
+		}
+	}
+
+	private void emitMeasured(@Nonnull HttpFormatter formatter) {
+		LoggingMetricsListener metrics = metricsListener;
+		BodyDeduplicator bodyDeduplicator = deduplicator;
+		long start = System.nanoTime();
+		emitLog(
+				bodyDeduplicator == null ? formatter : bodyDeduplicator.deduplicate(formatter),
+				LeveledHttpFormatter.getLevel(formatter)
+		);
+		long emitTime = System.nanoTime() - start;
+		metrics.emitTime(emitTime);
+		metrics.logged();
+		OverloadGuard guard = overloadGuard;
+		if (guard != null) {
+			guard.record(emitTime, getPendingCount());
+		}
+	}
+
+	private int getPendingCount() {
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		LogBatcher batcher = logBatcher;
+		return (dispatcher == null ? 0 : dispatcher.getPendingCount()) + (batcher == null ? 0 : batcher.getPendingCount());
+	}
+
+	@Override
+	protected void emitLog(HttpFormatter formatter) {
+		if (formatter instanceof CombinedHttpFormatter && !((CombinedHttpFormatter) formatter).isCombinable()) {
+			CombinedHttpFormatter combined = (CombinedHttpFormatter) formatter;
+			emitMeasured(combined.getRequest());
+			emitMeasured(combined.getResponse());
+			return;
+		}
+		emitMeasured(formatter);
 	}
 
 	public ReportPortalHttpLoggingInterceptor addRequestFilter(@Nonnull Predicate<HttpRequest> requestFilter) {
@@ -180,4 +518,376 @@ public class ReportPortalHttpLoggingInterceptor extends AbstractHttpFormatter<Re
 		responseFilters.add(responseFilter);
 		return this;
 	}
+
+	/**
+	 * Add a declarative request filter rule, requests which match the rule are not logged. Rules are compiled into an
+	 * index and checked before {@link Predicate} filters, so prefer them for simple host, method, path and content type
+	 * conditions.
+	 *
+	 * @param rule filter rule
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor addRequestFilterRule(@Nonnull FilterRule rule) {
+		synchronized (requestFilterRules) {
+			requestFilterRules.add(rule);
+			requestFilterIndex = new FilterIndex(requestFilterRules);
+		}
+		return this;
+	}
+
+	/**
+	 * Add a declarative response filter rule, responses which match the rule are not logged. Rules are compiled into an
+	 * index and checked before {@link Predicate} filters, so prefer them for simple host, method, path, status code and
+	 * content type conditions.
+	 *
+	 * @param rule filter rule
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor addResponseFilterRule(@Nonnull FilterRule rule) {
+		synchronized (responseFilterRules) {
+			responseFilterRules.add(rule);
+			responseFilterIndex = new FilterIndex(responseFilterRules);
+		}
+		return this;
+	}
+
+	/**
+	 * Set a sampling policy for all exchanges which do not match a route added with
+	 * {@link #addSamplingPolicy(FilterRule, SamplingPolicy)}. Sampling is decided on request, before any entity is
+	 * buffered. Exchanges which end with a 4xx or 5xx response are always logged: the response is logged in full, the
+	 * request without a body if its body was not repeatable. A request of an exchange which failed without a response
+	 * is logged the same way by {@link #failed(HttpContext)}.
+	 *
+	 * @param policy sampling policy, <code>null</code> to log all exchanges
+	 * @return self instance for convenience
+	 * @see com.epam.reportportal.httpcomponents.support.SamplingPolicies
+	 */
+	public ReportPortalHttpLoggingInterceptor setSamplingPolicy(@Nullable SamplingPolicy policy) {
+		samplingPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Set a sampling policy for a route. Host, method and path conditions of the route rule are used, the first added
+	 * route which matches a request wins.
+	 *
+	 * @param route  route description
+	 * @param policy sampling policy
+	 * @return self instance for convenience
+	 */
+	public synchronized ReportPortalHttpLoggingInterceptor addSamplingPolicy(@Nonnull FilterRule route,
+			@Nonnull SamplingPolicy policy) {
+		samplingRoutes = samplingRoutes.with(route, policy);
+		return this;
+	}
+
+	/**
+	 * Set a log level and capture depth for a route. Host, method, path and content type conditions of the route rule
+	 * are used, the first added route which matches a request wins, and the match is cached per route. The policy is
+	 * selected on request, before any entity is buffered, and applies to the response too. Entities of routes which do
+	 * not log bodies are not buffered at all. Exchanges which do not match any route are logged in full with the default
+	 * log level.
+	 *
+	 * @param route  route description
+	 * @param policy logging policy
+	 * @return self instance for convenience
+	 */
+	public synchronized ReportPortalHttpLoggingInterceptor addLoggingPolicy(@Nonnull FilterRule route,
+			@Nonnull LoggingPolicy policy) {
+		policyRoutes = policyRoutes.with(route, policy);
+		return this;
+	}
+
+	/**
+	 * @return number of exchanges which were not logged due to sampling
+	 */
+	public long getSampledOutCount() {
+		return sampledOut.sum();
+	}
+
+	/**
+	 * Switch combined logging on or off. When on, a captured request is kept in the HTTP context and logged together
+	 * with its response as a single entry, which halves the number of log entries. A request with a binary or multipart
+	 * body is still logged as a separate entry. A request which never gets a response, e.g. due to an I/O error, is
+	 * logged alone by {@link #failed(HttpContext)}, or on the next request with the same context.
+	 *
+	 * @param combined <code>true</code> to log requests and responses as single entries
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setCombinedLogging(boolean combined) {
+		combinedLogging = combined;
+		return this;
+	}
+
+	/**
+	 * Set a listener which receives logging overhead metrics: numbers of logged, filtered, sampled out and dropped
+	 * entries, buffered and captured body sizes, truncations, capture, formatting and emission times.
+	 *
+	 * @param listener metrics listener, e.g. {@link com.epam.reportportal.httpcomponents.support.LoggingMetrics} to
+	 *                 expose metrics through JMX
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setMetricsListener(@Nonnull LoggingMetricsListener listener) {
+		metricsListener = listener;
+		captureOptions = captureOptions.toBuilder().metricsListener(listener).build();
+		return this;
+	}
+
+	/**
+	 * Switch streaming capture of non-repeatable response bodies on or off. When on, the response body is not buffered
+	 * before it reaches the caller: bytes are copied into the log as the application reads them, and the response log
+	 * is emitted when the body stream reaches EOF or is closed. A response which body is never read or closed is not
+	 * logged.
+	 *
+	 * @param streamingResponseCapture <code>true</code> to capture response bodies while they are being read
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setStreamingResponseCapture(boolean streamingResponseCapture) {
+		this.streamingResponseCapture = streamingResponseCapture;
+		return this;
+	}
+
+	/**
+	 * Limit the size of logged request and response bodies. A body longer than <code>headSize + tailSize</code> bytes
+	 * is logged with its first <code>headSize</code> and last <code>tailSize</code> bytes and the elided range is marked
+	 * in the log. The complete body is still passed through to the HTTP client or the application.
+	 *
+	 * @param headSize number of leading body bytes to log, a negative value turns the limit off
+	 * @param tailSize number of trailing body bytes to log
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBodyCaptureLimit(int headSize, int tailSize) {
+		captureOptions = captureOptions.toBuilder().bodyLimit(headSize, tailSize).build();
+		return this;
+	}
+
+	/**
+	 * Spill non-repeatable bodies, which the interceptor has to buffer to log them, into temporary files if they are
+	 * larger than the threshold. Spilled bodies are memory-mapped for replay instead of being held in heap arrays, and
+	 * are logged with no more than the threshold bytes unless a body capture limit is set.
+	 *
+	 * @param threshold body size in bytes, a negative value turns spilling off
+	 * @param directory directory for temporary files, <code>null</code> means the default temporary directory
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setSpillThreshold(long threshold, @Nullable Path directory) {
+		captureOptions = captureOptions.toBuilder().spillThreshold(threshold, directory).build();
+		return this;
+	}
+
+	/**
+	 * Spill non-repeatable bodies, which the interceptor has to buffer to log them, into files in the default temporary
+	 * directory if they are larger than the threshold.
+	 *
+	 * @param threshold body size in bytes, a negative value turns spilling off
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setSpillThreshold(long threshold) {
+		return setSpillThreshold(threshold, null);
+	}
+
+	/**
+	 * Log binary multipart parts larger than the threshold as their size and SHA-256 hash instead of attaching them, so
+	 * such parts are not kept in memory while the body is parsed.
+	 *
+	 * @param threshold part size in bytes, a negative value turns summarizing off
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBinaryPartThreshold(long threshold) {
+		captureOptions = captureOptions.toBuilder().binaryPartThreshold(threshold).build();
+		return this;
+	}
+
+	/**
+	 * Limit decompression of gzip and deflate encoded response bodies. Such bodies are captured compressed and
+	 * decompressed on formatting, a body which decompresses to more bytes than the limit is logged truncated.
+	 *
+	 * @param limit maximum size of a decompressed body in bytes, a negative value means compressed bodies are logged as is
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setDecompressionLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().decompressionLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Log text bodies larger than the limit without prettification. Text bodies of a MIME type with a
+	 * {@link StreamingPrettifier} in content prettifiers are reformatted straight from captured bytes, other
+	 * prettifiers get a decoded body.
+	 *
+	 * @param limit maximum size of a body to prettify in bytes, a negative value means no limit
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setPrettifyLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().prettifyLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Mask sensitive data in logs: values of headers, JSON fields and form parameters, and whole multipart parts, which
+	 * match the rules, are replaced with {@link RedactionRules#REPLACEMENT}. Bodies are masked in a single pass while
+	 * they are captured.
+	 *
+	 * @param rules compiled redaction rules
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setRedactionRules(@Nonnull RedactionRules rules) {
+		captureOptions = captureOptions.toBuilder().redactionRules(rules).build();
+		return this;
+	}
+
+	/**
+	 * Capture bodies into chunks of a bounded pool, which are reused once a body is formatted, instead of allocating new
+	 * buffers for each body. Bodies of known length shorter than a chunk are captured into arrays of their exact size.
+	 *
+	 * @param maxChunks maximum number of retained chunks, zero or a negative value turns pooling off
+	 * @param chunkSize chunk size in bytes, which is also the largest retained buffer size
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBufferPool(int maxChunks, int chunkSize) {
+		captureOptions = captureOptions.toBuilder().bufferPool(new ChunkPool(maxChunks, chunkSize)).build();
+		return this;
+	}
+
+	/**
+	 * Log repeated bodies only once: a text, form or binary body which was already logged is replaced with a reference
+	 * to the first entry and the body hash. Useful for polling and retry loops which receive the same body many times.
+	 *
+	 * @param maxEntries  maximum number of remembered body hashes, zero or a negative value turns deduplication off
+	 * @param minBodySize minimum body size in bytes to deduplicate, see {@link BodyDeduplicator#DEFAULT_MIN_BODY_SIZE}
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBodyDeduplication(int maxEntries, int minBodySize) {
+		deduplicator = maxEntries > 0 ? new BodyDeduplicator(maxEntries, minBodySize) : null;
+		return this;
+	}
+
+	/**
+	 * Join consecutive text logs of the current thread into batched Report Portal entries, each log in a batch keeps its
+	 * timestamp as a prefix. Binary and multipart logs are emitted separately, after the pending batch. Each batch goes
+	 * to the test item of its logs, and a background timer emits batches older than the maximum delay, so the last
+	 * batch of a test item is not lost if the thread makes no more calls.
+	 *
+	 * @param maxEntries maximum number of logs in a batch, zero or a negative value turns batching off
+	 * @param maxSize    maximum size of a batch in characters
+	 * @param maxDelay   maximum time a log waits in a batch, zero or a negative value turns the timer off, then call
+	 *                   {@link #flush()} at the end of each test item to emit its last batch
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setLogBatching(int maxEntries, int maxSize, @Nonnull Duration maxDelay) {
+		LogBatcher previous = logBatcher;
+		logBatcher = maxEntries > 0 ? new LogBatcher(maxEntries, maxSize, maxDelay) : null;
+		if (previous != null) {
+			previous.shutdown();
+		}
+		return this;
+	}
+
+	/**
+	 * Degrade logging while Report Portal emission falls behind: as the average log emission time or the number of
+	 * logs pending on the current thread grows, bodies are truncated, then only headers are logged, then only request
+	 * and status lines. Logging recovers automatically once emission catches up. Entities are not buffered on the
+	 * headers and lines levels, and route logging policies with less detail are kept as is.
+	 *
+	 * @param guard overload guard with degradation thresholds, <code>null</code> to always log according to settings
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setOverloadGuard(@Nullable OverloadGuard guard) {
+		overloadGuard = guard;
+		return this;
+	}
+
+	/**
+	 * Skip body buffering and formatting entirely when logs would be discarded anyway: there is no running launch,
+	 * reporting is disabled or no test item is in progress on the current thread, e.g. in setup code or background
+	 * health checks.
+	 *
+	 * @param skipIfNotReporting <code>true</code> to check reporting state before each capture
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setSkipIfNotReporting(boolean skipIfNotReporting) {
+		this.skipIfNotReporting = skipIfNotReporting;
+		return this;
+	}
+
+	/**
+	 * Switch on asynchronous formatting. The interceptor captures request and response data on the calling thread and
+	 * formats it on a pool of worker threads. Formatted logs are emitted on the calling thread, in call order, during
+	 * subsequent calls and on {@link #flush()}, so call {@link #flush()} at the end of each test item to get all its
+	 * logs.
+	 *
+	 * @param workers        number of formatting threads
+	 * @param queueSize      maximum number of not yet emitted logs per calling thread
+	 * @param overflowPolicy what to do with a new log if the queue is full
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setAsyncLogging(int workers, int queueSize,
+			@Nonnull AsyncLogDispatcher.OverflowPolicy overflowPolicy) {
+		AsyncLogDispatcher previous = asyncDispatcher;
+		asyncDispatcher = new AsyncLogDispatcher(workers, queueSize, overflowPolicy, () -> metricsListener.dropped());
+		if (previous != null) {
+			previous.shutdown(this::emitLog);
+		}
+		return this;
+	}
+
+	/**
+	 * Log the request of an exchange which failed without a response, e.g. due to an I/O error: a request kept for
+	 * combined logging is logged alone, a sampled out request is logged regardless of sampling, as for an error
+	 * response. Call it from the failure handling code with the context of the exchange, or
+	 * install {@link #retryHandler(HttpRequestRetryHandler)}, which calls it on each I/O error.
+	 *
+	 * @param context HTTP context of the failed exchange
+	 */
+	public void failed(@Nonnull HttpContext context) {
+		Supplier<HttpFormatter> pendingRequest = correlator.take(context);
+		Object sampledOutRequest = context.removeAttribute(SAMPLED_OUT_REQUEST);
+		LoggingPolicy policy = degrade((LoggingPolicy) context.removeAttribute(LOGGING_POLICY));
+		if (skipIfNotReporting && !isReporting()) {
+			return;
+		}
+		ofNullable(pendingRequest).ifPresent(this::emitCaptured);
+		if (sampledOutRequest != null) {
+			emitCaptured(captureRequest((HttpRequest) sampledOutRequest, context, policy));
+		}
+	}
+
+	/**
+	 * Wrap a retry handler to log requests of failed exchanges, see {@link #failed(HttpContext)}. Apache HttpClient calls
+	 * the retry handler with the context of the exchange on each I/O error, unless automatic retries are disabled.
+	 *
+	 * @param delegate retry handler which decides whether to retry, e.g.
+	 *                 {@link org.apache.http.impl.client.DefaultHttpRequestRetryHandler#INSTANCE}
+	 * @return retry handler to set with <code>HttpClientBuilder.setRetryHandler</code>
+	 */
+	@Nonnull
+	public HttpRequestRetryHandler retryHandler(@Nonnull HttpRequestRetryHandler delegate) {
+		return (exception, executionCount, context) -> {
+			failed(context);
+			return delegate.retryRequest(exception, executionCount, context);
+		};
+	}
+
+	/**
+	 * Emit all pending logs of the current thread: logs which are being formatted in asynchronous mode and the current
+	 * log batch.
+	 */
+	public void flush() {
+		ofNullable(asyncDispatcher).ifPresent(d -> d.flush(this::emitLog));
+		ofNullable(logBatcher).ifPresent(LogBatcher::flush);
+	}
+
+	/**
+	 * Emit all pending logs of the current thread, stop worker threads and switch back to synchronous formatting. Logs
+	 * which are still being formatted for other threads are emitted on the current thread, log batches of other threads
+	 * are emitted to their test items.
+	 */
+	public void shutdown() {
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		asyncDispatcher = null;
+		if (dispatcher != null) {
+			dispatcher.shutdown(this::emitLog);
+		}
+		ofNullable(logBatcher).ifPresent(LogBatcher::shutdown);
+	}
 }
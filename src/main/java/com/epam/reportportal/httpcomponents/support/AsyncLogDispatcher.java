@@ -0,0 +1,296 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Moves HTTP log formatting off the thread which executes HTTP requests. Formatting tasks run on a fixed pool of daemon
+ * worker threads, while finished formatters are emitted on the thread which submitted them, in submission order, because
+ * Report Portal binds logs to the test item of the emitting thread. Completed logs are emitted on each subsequent
+ * submission and on {@link #flush(Consumer)}, which should be called at the end of a test item. Logs which are still
+ * pending on any thread, e.g. on a thread which stopped submitting, are emitted on {@link #shutdown(Consumer)}.
+ * <p>
+ * The number of pending logs per thread is bounded by the queue size, the {@link OverflowPolicy} decides what happens
+ * with a new log if the queue is full.
+ * <p>
+ * Warnings which capture and formatting code reports with {@link #warn(String)} on a worker thread are kept with the log
+ * and emitted right before it, on the submitting thread.
+ */
+public class AsyncLogDispatcher {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	// Warnings of the task which is being formatted on the current thread
+	private static final ThreadLocal<List<String>> WARNINGS = new ThreadLocal<>();
+
+	/**
+	 * What to do with a new log if the pending queue of the current thread is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Wait for the oldest pending log to be formatted and emit it
+		 */
+		BLOCK,
+		/**
+		 * Discard the oldest pending log
+		 */
+		DROP_OLDEST,
+		/**
+		 * Discard the new log
+		 */
+		DROP_NEWEST
+	}
+
+	/**
+	 * Formatting task result: the log and warnings reported while it was formatted.
+	 */
+	private static class Formatted {
+		private final HttpFormatter formatter;
+		private final List<String> warnings;
+
+		private Formatted(@Nonnull HttpFormatter formatter, @Nonnull List<String> warnings) {
+			this.formatter = formatter;
+			this.warnings = warnings;
+		}
+	}
+
+	private final ExecutorService executor;
+	private final int queueSize;
+	private final OverflowPolicy overflowPolicy;
+	private final ThreadLocal<Deque<Future<Formatted>>> pending = ThreadLocal.withInitial(ArrayDeque::new);
+	// Non-empty queues of all submitting threads, each queue is guarded by its own monitor
+	private final Set<Deque<Future<Formatted>>> queues = ConcurrentHashMap.newKeySet();
+	private final LongAdder dropped = new LongAdder();
+	private final Runnable dropCallback;
+
+	/**
+	 * Create a dispatcher.
+	 *
+	 * @param workers        number of formatting threads
+	 * @param queueSize      maximum number of pending logs per submitting thread
+	 * @param overflowPolicy what to do with a new log if the queue is full
+	 */
+	public AsyncLogDispatcher(int workers, int queueSize, @Nonnull OverflowPolicy overflowPolicy) {
+		this(workers, queueSize, overflowPolicy, () -> {
+		});
+	}
+
+	/**
+	 * Create a dispatcher.
+	 *
+	 * @param workers        number of formatting threads
+	 * @param queueSize      maximum number of pending logs per submitting thread
+	 * @param overflowPolicy what to do with a new log if the queue is full
+	 * @param dropCallback   called on the submitting thread every time a log is dropped on overflow
+	 */
+	public AsyncLogDispatcher(int workers, int queueSize, @Nonnull OverflowPolicy overflowPolicy, @Nonnull Runnable dropCallback) {
+		if (workers <= 0 || queueSize <= 0) {
+			throw new IllegalArgumentException("Worker number and queue size should be positive");
+		}
+		this.queueSize = queueSize;
+		this.overflowPolicy = overflowPolicy;
+		this.dropCallback = dropCallback;
+		this.executor = Executors.newFixedThreadPool(workers, r -> {
+			Thread thread = new Thread(r, "rp-http-logger-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Emit a warning about HTTP log capture or formatting. Inside a formatting task the warning is kept with the log and
+	 * emitted before it on the submitting thread, because a worker thread is not bound to any test item. Elsewhere it is
+	 * emitted at once.
+	 *
+	 * @param message warning text
+	 */
+	static void warn(@Nonnull String message) {
+		List<String> warnings = WARNINGS.get();
+		if (warnings == null) {
+			ReportPortal.emitLog(message, LogLevel.WARN.name(), Instant.now());
+		} else {
+			warnings.add(message);
+		}
+	}
+
+	@Nonnull
+	private static Formatted format(@Nonnull Callable<HttpFormatter> task) throws Exception {
+		List<String> warnings = new ArrayList<>();
+		WARNINGS.set(warnings);
+		try {
+			return new Formatted(task.call(), warnings);
+		} finally {
+			WARNINGS.remove();
+		}
+	}
+
+	private static void emit(@Nonnull Future<Formatted> future, @Nonnull Consumer<HttpFormatter> emitter) {
+		try {
+			Formatted formatted = future.get();
+			formatted.warnings.forEach(AsyncLogDispatcher::warn);
+			emitter.accept(formatted.formatter);
+		} catch (CancellationException ignore) {
+			// The log was dropped on overflow
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			ReportPortal.emitLog(
+					"Unable to format HTTP log: " + ExceptionUtils.getStackTrace(e.getCause()),
+					LogLevel.WARN.name(),
+					Instant.now()
+			);
+		}
+	}
+
+	@Nullable
+	private Future<Formatted> poll(@Nonnull Deque<Future<Formatted>> queue, boolean completedOnly) {
+		synchronized (queue) {
+			Future<Formatted> future = queue.peekFirst();
+			if (future == null || (completedOnly && !future.isDone())) {
+				return null;
+			}
+			queue.pollFirst();
+			if (queue.isEmpty()) {
+				queues.remove(queue);
+			}
+			return future;
+		}
+	}
+
+	private void emitCompleted(@Nonnull Deque<Future<Formatted>> queue, @Nonnull Consumer<HttpFormatter> emitter) {
+		Future<Formatted> future;
+		while ((future = poll(queue, true)) != null) {
+			emit(future, emitter);
+		}
+	}
+
+	private void emitAll(@Nonnull Deque<Future<Formatted>> queue, @Nonnull Consumer<HttpFormatter> emitter) {
+		Future<Formatted> future;
+		while ((future = poll(queue, false)) != null) {
+			emit(future, emitter);
+		}
+	}
+
+	private static int size(@Nonnull Deque<Future<Formatted>> queue) {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	private void add(@Nonnull Deque<Future<Formatted>> queue, @Nonnull Future<Formatted> future) {
+		synchronized (queue) {
+			queue.addLast(future);
+			queues.add(queue);
+		}
+	}
+
+	/**
+	 * Submit a formatting task. Logs of the current thread which are already formatted are emitted before the task is
+	 * queued.
+	 *
+	 * @param task    task which formats captured HTTP data
+	 * @param emitter log emitter, called on the current thread
+	 */
+	public void submit(@Nonnull Callable<HttpFormatter> task, @Nonnull Consumer<HttpFormatter> emitter) {
+		Deque<Future<Formatted>> queue = pending.get();
+		emitCompleted(queue, emitter);
+		if (size(queue) >= queueSize) {
+			if (OverflowPolicy.DROP_NEWEST == overflowPolicy) {
+				dropped.increment();
+				dropCallback.run();
+				return;
+			}
+			Future<Formatted> oldest = poll(queue, false);
+			if (oldest != null) {
+				// A log which is already formatted is emitted rather than dropped
+				if (OverflowPolicy.DROP_OLDEST == overflowPolicy && !oldest.isDone() && oldest.cancel(false)) {
+					dropped.increment();
+					dropCallback.run();
+				} else {
+					emit(oldest, emitter);
+				}
+			}
+		}
+		try {
+			add(queue, executor.submit(() -> format(task)));
+		} catch (RejectedExecutionException e) {
+			// The dispatcher is shut down, format in place
+			add(queue, CompletableFuture.supplyAsync(() -> {
+				try {
+					return format(task);
+				} catch (Exception ex) {
+					throw new CompletionException(ex);
+				}
+			}, Runnable::run));
+		}
+	}
+
+	/**
+	 * Wait for all pending logs of the current thread and emit them.
+	 *
+	 * @param emitter log emitter, called on the current thread
+	 */
+	public void flush(@Nonnull Consumer<HttpFormatter> emitter) {
+		emitAll(pending.get(), emitter);
+	}
+
+	/**
+	 * @return number of logs of the current thread which are not emitted yet
+	 */
+	public int getPendingCount() {
+		return size(pending.get());
+	}
+
+	/**
+	 * @return number of logs discarded due to queue overflow
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Flush pending logs of the current thread, then pending logs of all other threads, and stop worker threads. Logs
+	 * of other threads are emitted on the current thread, so call {@link #flush(Consumer)} on each submitting thread
+	 * before to get the logs bound to their test items. Logs submitted after shutdown are formatted on the submitting
+	 * thread.
+	 *
+	 * @param emitter log emitter, called on the current thread
+	 */
+	public void shutdown(@Nonnull Consumer<HttpFormatter> emitter) {
+		executor.shutdown();
+		flush(emitter);
+		for (Deque<Future<Formatted>> queue : queues) {
+			emitAll(queue, emitter);
+		}
+	}
+}
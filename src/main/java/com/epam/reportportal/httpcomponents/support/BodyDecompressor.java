@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompressor of captured bodies with <code>gzip</code> and <code>deflate</code> content codings. Output is bounded
+ * by a limit, so a small compressed body can not expand into an unbounded amount of memory.
+ */
+class BodyDecompressor {
+
+	private static final String GZIP = "gzip";
+	private static final String X_GZIP = "x-gzip";
+	private static final String DEFLATE = "deflate";
+	private static final int CHUNK_SIZE = 8192;
+
+	/**
+	 * Decompression outcome.
+	 */
+	enum Result {
+		/**
+		 * The whole body was decompressed.
+		 */
+		COMPLETE,
+		/**
+		 * Decompressed output reached the limit, the rest was not decompressed.
+		 */
+		LIMIT_EXCEEDED,
+		/**
+		 * The compressed input ended unexpectedly, e.g. because it was truncated, all available output was decompressed.
+		 */
+		INCOMPLETE,
+		/**
+		 * The input is not a valid compressed stream, nothing was decompressed.
+		 */
+		FAILED
+	}
+
+	private BodyDecompressor() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	/**
+	 * @param contentEncoding Content-Encoding header value
+	 * @return normalized content coding if it is supported, <code>null</code> otherwise
+	 */
+	@Nullable
+	static String getSupportedEncoding(@Nullable String contentEncoding) {
+		if (contentEncoding == null) {
+			return null;
+		}
+		String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+		if (GZIP.equals(encoding) || X_GZIP.equals(encoding)) {
+			return GZIP;
+		}
+		return DEFLATE.equals(encoding) ? DEFLATE : null;
+	}
+
+	@Nonnull
+	private static InputStream open(@Nonnull byte[] data, @Nonnull String encoding, boolean raw) throws IOException {
+		ByteArrayInputStream input = new ByteArrayInputStream(data);
+		return GZIP.equals(encoding) ? new GZIPInputStream(input) : new InflaterInputStream(input, new Inflater(raw));
+	}
+
+	@Nonnull
+	private static Result decompress(@Nonnull byte[] data, @Nonnull String encoding, boolean raw, long limit,
+			@Nonnull OutputStream output) {
+		long total = 0;
+		try (InputStream input = open(data, encoding, raw)) {
+			byte[] chunk = new byte[CHUNK_SIZE];
+			int read;
+			while ((read = input.read(chunk)) >= 0) {
+				if (total + read > limit) {
+					output.write(chunk, 0, (int) (limit - total));
+					return Result.LIMIT_EXCEEDED;
+				}
+				output.write(chunk, 0, read);
+				total += read;
+			}
+			return Result.COMPLETE;
+		} catch (EOFException e) {
+			return Result.INCOMPLETE;
+		} catch (IOException e) {
+			return total == 0 ? Result.FAILED : Result.INCOMPLETE;
+		}
+	}
+
+	/**
+	 * Decompress a body.
+	 *
+	 * @param data     compressed bytes
+	 * @param encoding supported content coding, see {@link #getSupportedEncoding(String)}
+	 * @param limit    maximum number of decompressed bytes to write
+	 * @param output   decompressed bytes receiver
+	 * @return decompression outcome
+	 */
+	@Nonnull
+	static Result decompress(@Nonnull byte[] data, @Nonnull String encoding, long limit, @Nonnull OutputStream output) {
+		Result result = decompress(data, encoding, false, limit, output);
+		if (result == Result.FAILED && DEFLATE.equals(encoding)) {
+			// Some servers send raw deflate data without zlib wrapper
+			return decompress(data, encoding, true, limit, output);
+		}
+		return result;
+	}
+}
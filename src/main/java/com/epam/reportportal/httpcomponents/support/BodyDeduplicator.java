@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.service.LoggingContext;
+
+import jakarta.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Bounded cache of logged body hashes, which replaces repeated bodies with short references to their first occurrence.
+ * Polling and retry loops produce the same bodies over and over, so only the first one is logged in full. Text, form
+ * and binary bodies are deduplicated, multipart bodies are always logged as is. Hashes are remembered per test item,
+ * i.e. per {@link LoggingContext} of the emitting thread, so a reference always points to an entry of the same test
+ * item. The least recently seen hash of a test item is evicted when its cache is full.
+ */
+public class BodyDeduplicator {
+
+	/**
+	 * Default minimum body size to deduplicate, shorter bodies are not worth a reference.
+	 */
+	public static final int DEFAULT_MIN_BODY_SIZE = 256;
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final String REFERENCE = "[Same body as in the entry logged at %s, %d bytes, " + DIGEST_ALGORITHM + ": %s]";
+	private static final String TEXT_PLAIN = "text/plain";
+
+	private final int maxEntries;
+	private final int minBodySize;
+	// Caches of disposed logging contexts are dropped with them
+	private final Map<LoggingContext, Map<String, Instant>> entries = new WeakHashMap<>();
+
+	/**
+	 * Create a deduplicator.
+	 *
+	 * @param maxEntries  maximum number of remembered body hashes per test item
+	 * @param minBodySize minimum body size in bytes to deduplicate
+	 */
+	public BodyDeduplicator(int maxEntries, int minBodySize) {
+		this.maxEntries = maxEntries;
+		this.minBodySize = minBodySize;
+	}
+
+	@Nonnull
+	private Map<String, Instant> newCache() {
+		return new LinkedHashMap<String, Instant>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	@Nonnull
+	private static String hash(@Nonnull byte[] body) {
+		try {
+			return MultipartCaptureStream.toHex(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Check the body of a formatter against previously logged bodies.
+	 *
+	 * @param formatter formatter to emit
+	 * @return the same formatter if its body is logged for the first time or is not deduplicated, a formatter with a
+	 * reference to the first occurrence instead of the body otherwise
+	 */
+	@Nonnull
+	public HttpFormatter deduplicate(@Nonnull HttpFormatter formatter) {
+		BodyType type = formatter.getType();
+		if (type == null || BodyType.NONE == type || BodyType.MULTIPART == type) {
+			return formatter;
+		}
+		byte[] body;
+		if (BodyType.TEXT == type || BodyType.FORM == type) {
+			String head = formatter.formatHead();
+			String text = formatter.formatAsText();
+			if (head == null || text == null || !text.startsWith(head)) {
+				return formatter;
+			}
+			body = text.substring(head.length()).getBytes(StandardCharsets.UTF_8);
+		} else {
+			body = formatter.getBinaryBody();
+		}
+		if (body == null || body.length < minBodySize) {
+			return formatter;
+		}
+		String hash = hash(body);
+		Instant first;
+		synchronized (entries) {
+			first = entries.computeIfAbsent(LoggingContext.context(), c -> newCache()).putIfAbsent(hash, Instant.now());
+		}
+		return first == null ? formatter : new Reference(formatter, String.format(REFERENCE, first, body.length, hash));
+	}
+
+	private static class Reference implements HttpFormatter {
+
+		private static final String SEPARATOR = "\n\n";
+
+		private final HttpFormatter formatter;
+		private final String reference;
+
+		private Reference(@Nonnull HttpFormatter formatter, @Nonnull String reference) {
+			this.formatter = formatter;
+			this.reference = reference;
+		}
+
+		@Override
+		public String formatHead() {
+			return formatter.formatHead();
+		}
+
+		@Override
+		public String formatTitle() {
+			return formatter.formatTitle();
+		}
+
+		@Override
+		public String formatAsText() {
+			return formatter.formatHead() + SEPARATOR + reference;
+		}
+
+		@Override
+		public BodyType getType() {
+			return BodyType.TEXT;
+		}
+
+		@Override
+		public String getMimeType() {
+			return TEXT_PLAIN;
+		}
+
+		@Override
+		public byte[] getBinaryBody() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link OutputStream} which captures HTTP body bytes for logging. If a head limit is set the buffer keeps only the
+ * first <code>headLimit</code> and the last <code>tailLimit</code> bytes of the body and counts the bytes in between,
+ * so the memory it holds does not depend on the body size.
+ * <p>
+ * Head bytes are kept in chunks taken from a {@link ChunkPool}, so the buffer grows without copying. Call
+ * {@link #release()} once the captured bytes are not needed to return the chunks to the pool.
+ */
+public class CaptureBuffer extends OutputStream {
+
+	private static final ChunkPool NO_POOL = new ChunkPool(0, ChunkPool.DEFAULT_CHUNK_SIZE);
+
+	private final int headLimit;
+	private final int tailLimit;
+	private final ChunkPool pool;
+	private final long expectedHead;
+	private final byte[] singleByte = new byte[1];
+
+	private final List<byte[]> chunks;
+	private byte[] current;
+	private int currentCount;
+	private int headCount;
+	private byte[] tail;
+	private int tailPosition;
+	private int tailCount;
+	private long size;
+
+	/**
+	 * Create a capture buffer presized for a body of known length. Bodies shorter than a pool chunk are captured into an
+	 * array of their exact size.
+	 *
+	 * @param headLimit     number of leading bytes to keep, a negative value means no limit
+	 * @param tailLimit     number of trailing bytes to keep if the body does not fit into the head limit
+	 * @param contentLength expected body length, a negative value if unknown
+	 * @param pool          pool of chunks for head bytes
+	 */
+	public CaptureBuffer(int headLimit, int tailLimit, long contentLength, @Nonnull ChunkPool pool) {
+		this.headLimit = headLimit;
+		this.tailLimit = headLimit < 0 ? 0 : Math.max(tailLimit, 0);
+		this.pool = pool;
+		if (contentLength >= 0) {
+			expectedHead = headLimit < 0 ? contentLength : Math.min(contentLength, headLimit);
+		} else {
+			expectedHead = headLimit;
+		}
+		this.chunks = new ArrayList<>(expectedHead > 0 ? (int) Math.min(expectedHead / pool.getChunkSize() + 1, 1024) : 4);
+		this.tail = new byte[0];
+	}
+
+	/**
+	 * Create a capture buffer presized for a body of known length, with chunks of the default pool.
+	 *
+	 * @param headLimit     number of leading bytes to keep, a negative value means no limit
+	 * @param tailLimit     number of trailing bytes to keep if the body does not fit into the head limit
+	 * @param contentLength expected body length, a negative value if unknown
+	 */
+	public CaptureBuffer(int headLimit, int tailLimit, long contentLength) {
+		this(headLimit, tailLimit, contentLength, ChunkPool.DEFAULT);
+	}
+
+	/**
+	 * Create a capture buffer.
+	 *
+	 * @param headLimit number of leading bytes to keep, a negative value means no limit
+	 * @param tailLimit number of trailing bytes to keep if the body does not fit into the head limit
+	 */
+	public CaptureBuffer(int headLimit, int tailLimit) {
+		this(headLimit, tailLimit, -1);
+	}
+
+	/**
+	 * Create an unbounded capture buffer.
+	 */
+	public CaptureBuffer() {
+		this(-1, 0);
+	}
+
+	/**
+	 * Create a read-only view of a body which is already in memory, according to the limits. Head bytes are not copied,
+	 * so the array should not be modified while the view is in use.
+	 *
+	 * @param data      body bytes
+	 * @param length    body length
+	 * @param headLimit number of leading bytes to keep, a negative value means no limit
+	 * @param tailLimit number of trailing bytes to keep if the body does not fit into the head limit
+	 * @return capture buffer backed by the array
+	 */
+	@Nonnull
+	static CaptureBuffer wrap(@Nonnull byte[] data, int length, int headLimit, int tailLimit) {
+		CaptureBuffer buffer = new CaptureBuffer(headLimit, tailLimit, 0, NO_POOL);
+		int headCount = headLimit < 0 ? length : Math.min(length, headLimit);
+		buffer.current = data;
+		buffer.currentCount = headCount;
+		buffer.headCount = headCount;
+		buffer.chunks.add(data);
+		if (length > headCount && buffer.tailLimit > 0) {
+			buffer.writeTail(data, headCount, length - headCount);
+		}
+		buffer.size = length;
+		return buffer;
+	}
+
+	/**
+	 * Create a read-only view of a body from its kept bytes, e.g. read from a file without reading the bytes in between.
+	 * The arrays are not copied, so they should not be modified while the view is in use.
+	 *
+	 * @param head leading bytes of the body
+	 * @param tail trailing bytes of the body
+	 * @param size body length
+	 * @return capture buffer backed by the arrays
+	 */
+	@Nonnull
+	static CaptureBuffer wrap(@Nonnull byte[] head, @Nonnull byte[] tail, long size) {
+		CaptureBuffer buffer = new CaptureBuffer(head.length, tail.length, 0, NO_POOL);
+		buffer.current = head;
+		buffer.currentCount = head.length;
+		buffer.headCount = head.length;
+		buffer.chunks.add(head);
+		if (tail.length > 0) {
+			buffer.writeTail(tail, 0, tail.length);
+		}
+		buffer.size = size;
+		return buffer;
+	}
+
+	private void nextChunk() {
+		long remaining = expectedHead - headCount;
+		current = remaining > 0 && remaining < pool.getChunkSize() ? new byte[(int) remaining] : pool.acquire();
+		currentCount = 0;
+		chunks.add(current);
+	}
+
+	private void writeHead(@Nonnull byte[] b, int off, int len) {
+		while (len > 0) {
+			if (current == null || currentCount == current.length) {
+				nextChunk();
+			}
+			int count = Math.min(len, current.length - currentCount);
+			System.arraycopy(b, off, current, currentCount, count);
+			currentCount += count;
+			headCount += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	private void copyHead(@Nonnull byte[] destination) {
+		int position = 0;
+		for (byte[] chunk : chunks) {
+			int count = chunk == current ? currentCount : chunk.length;
+			System.arraycopy(chunk, 0, destination, position, count);
+			position += count;
+		}
+	}
+
+	private void writeTail(@Nonnull byte[] b, int off, int len) {
+		if (tail.length < tailLimit) {
+			tail = new byte[tailLimit];
+		}
+		if (len >= tailLimit) {
+			System.arraycopy(b, off + len - tailLimit, tail, 0, tailLimit);
+			tailPosition = 0;
+			tailCount = tailLimit;
+			return;
+		}
+		int first = Math.min(len, tailLimit - tailPosition);
+		System.arraycopy(b, off, tail, tailPosition, first);
+		System.arraycopy(b, off + first, tail, 0, len - first);
+		tailPosition = (tailPosition + len) % tailLimit;
+		tailCount = Math.min(tailCount + len, tailLimit);
+	}
+
+	@Override
+	public void write(int b) {
+		singleByte[0] = (byte) b;
+		write(singleByte, 0, 1);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off + len > b.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		size += len;
+		int toHead = headLimit < 0 ? len : Math.min(len, headLimit - headCount);
+		if (toHead > 0) {
+			writeHead(b, off, toHead);
+		}
+		int toTail = len - toHead;
+		if (toTail > 0 && tailLimit > 0) {
+			writeTail(b, off + toHead, toTail);
+		}
+	}
+
+	/**
+	 * @return total number of bytes written into the buffer
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return <code>true</code> if some bytes were written into the buffer but not kept
+	 */
+	public boolean isTruncated() {
+		return size > headCount + tailCount;
+	}
+
+	/**
+	 * @return number of written bytes which were not kept
+	 */
+	public long getSkipped() {
+		return size - headCount - tailCount;
+	}
+
+	/**
+	 * @return kept leading bytes of the body, an array which is not pooled is returned without copying if it is filled
+	 * exactly
+	 */
+	@Nonnull
+	public byte[] getHead() {
+		if (chunks.size() == 1 && headCount == current.length && !pool.retains(current)) {
+			return current;
+		}
+		byte[] result = new byte[headCount];
+		copyHead(result);
+		return result;
+	}
+
+	/**
+	 * Decode kept leading bytes of the body. Bytes kept in a single chunk are decoded in place.
+	 *
+	 * @param charset body charset
+	 * @return decoded head bytes
+	 */
+	@Nonnull
+	String getHeadString(@Nonnull Charset charset) {
+		if (chunks.size() == 1) {
+			return TextDecoder.decode(current, 0, headCount, charset);
+		}
+		return TextDecoder.decode(getHead(), charset);
+	}
+
+	/**
+	 * @return stream of kept leading bytes of the body, which reads head chunks in place
+	 */
+	@Nonnull
+	InputStream getHeadStream() {
+		List<InputStream> streams = new ArrayList<>(chunks.size());
+		for (byte[] chunk : chunks) {
+			streams.add(new ByteArrayInputStream(chunk, 0, chunk == current ? currentCount : chunk.length));
+		}
+		return new SequenceInputStream(Collections.enumeration(streams));
+	}
+
+	/**
+	 * @return kept trailing bytes of the body
+	 */
+	@Nonnull
+	public byte[] getTail() {
+		byte[] result = new byte[tailCount];
+		if (tailCount < tailLimit) {
+			System.arraycopy(tail, 0, result, 0, tailCount);
+		} else {
+			System.arraycopy(tail, tailPosition, result, 0, tailLimit - tailPosition);
+			System.arraycopy(tail, 0, result, tailLimit - tailPosition, tailPosition);
+		}
+		return result;
+	}
+
+	/**
+	 * @return all kept bytes: the whole body if the buffer is not truncated, head and tail bytes joined otherwise
+	 */
+	@Nonnull
+	public byte[] toByteArray() {
+		if (tailCount == 0) {
+			return getHead();
+		}
+		byte[] result = new byte[headCount + tailCount];
+		copyHead(result);
+		System.arraycopy(getTail(), 0, result, headCount, tailCount);
+		return result;
+	}
+
+	/**
+	 * Decode all kept bytes, like {@link #toByteArray()} does, but bytes kept in a single chunk are decoded in place.
+	 *
+	 * @param charset body charset
+	 * @return decoded bytes
+	 */
+	@Nonnull
+	String toString(@Nonnull Charset charset) {
+		return tailCount == 0 ? getHeadString(charset) : TextDecoder.decode(toByteArray(), charset);
+	}
+
+	/**
+	 * Return head chunks to the pool and drop all kept bytes. The buffer is empty after the call.
+	 */
+	public void release() {
+		chunks.forEach(pool::release);
+		chunks.clear();
+		current = null;
+		currentCount = 0;
+		headCount = 0;
+		tailCount = 0;
+		tailPosition = 0;
+		size = 0;
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable set of settings which control how {@link HttpEntityFactory} captures HTTP bodies.
+ */
+public class CaptureOptions {
+
+	/**
+	 * Default maximum size of a decompressed body, 16 MiB.
+	 */
+	public static final long DEFAULT_DECOMPRESSION_LIMIT = 16L * 1024 * 1024;
+
+	/**
+	 * Capture whole bodies, the behavior by default.
+	 */
+	public static final CaptureOptions DEFAULT = new Builder().build();
+
+	private final int bodyHeadLimit;
+	private final int bodyTailLimit;
+	private final long spillThreshold;
+	private final Path spillDirectory;
+	private final long binaryPartThreshold;
+	private final LoggingMetricsListener metricsListener;
+	private final long decompressionLimit;
+	private final ChunkPool bufferPool;
+	private final long prettifyLimit;
+	private final RedactionRules redactionRules;
+	// Prettifier maps without one content type by source map, a source map belongs to a formatter and lives as long as it
+	private final Map<Map<String, Function<String, String>>, Map<String, Map<String, Function<String, String>>>> prettifiersWithout =
+			Collections.synchronizedMap(new WeakHashMap<>());
+
+	private CaptureOptions(@Nonnull Builder builder) {
+		bodyHeadLimit = builder.bodyHeadLimit;
+		bodyTailLimit = builder.bodyTailLimit;
+		spillThreshold = builder.spillThreshold;
+		spillDirectory = builder.spillDirectory;
+		binaryPartThreshold = builder.binaryPartThreshold;
+		metricsListener = builder.metricsListener;
+		decompressionLimit = builder.decompressionLimit;
+		bufferPool = builder.bufferPool;
+		prettifyLimit = builder.prettifyLimit;
+		redactionRules = builder.redactionRules;
+	}
+
+	/**
+	 * @return number of leading body bytes to log, a negative value means the whole body is logged
+	 */
+	public int getBodyHeadLimit() {
+		return bodyHeadLimit;
+	}
+
+	/**
+	 * @return number of trailing body bytes to log if a body does not fit into the head limit
+	 */
+	public int getBodyTailLimit() {
+		return bodyTailLimit;
+	}
+
+	/**
+	 * @return size in bytes above which a buffered non-repeatable body is spilled to a temporary file, a negative value
+	 * means bodies are always buffered in heap
+	 */
+	public long getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * @return directory for spilled bodies, <code>null</code> means the default temporary directory
+	 */
+	@Nullable
+	public Path getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * @return size in bytes above which a binary multipart part is logged as its size and hash instead of content, a
+	 * negative value means binary parts are always logged with content
+	 */
+	public long getBinaryPartThreshold() {
+		return binaryPartThreshold;
+	}
+
+	/**
+	 * @return maximum size of a decompressed body, a negative value means compressed bodies are logged as is
+	 */
+	public long getDecompressionLimit() {
+		return decompressionLimit;
+	}
+
+	/**
+	 * @return maximum size of a text body to prettify, a negative value means no limit
+	 */
+	public long getPrettifyLimit() {
+		return prettifyLimit;
+	}
+
+	/**
+	 * @return rules which mask sensitive data in captured bodies
+	 */
+	@Nonnull
+	public RedactionRules getRedactionRules() {
+		return redactionRules;
+	}
+
+	/**
+	 * @return listener which receives body capture metrics
+	 */
+	@Nonnull
+	public LoggingMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * @return pool of chunks for capture buffers
+	 */
+	@Nonnull
+	public ChunkPool getBufferPool() {
+		return bufferPool;
+	}
+
+	/**
+	 * Get content prettifiers without the one of a content type, e.g. when a body of the type is already prettified. The
+	 * result is computed once per prettifiers map and type.
+	 *
+	 * @param prettifiers content prettifiers map
+	 * @param type        content type to remove
+	 * @return unmodifiable prettifiers map without the type
+	 */
+	@Nonnull
+	public Map<String, Function<String, String>> getPrettifiersWithout(@Nonnull Map<String, Function<String, String>> prettifiers,
+			@Nonnull String type) {
+		return prettifiersWithout.computeIfAbsent(prettifiers, k -> new ConcurrentHashMap<>()).computeIfAbsent(type, t -> {
+			Map<String, Function<String, String>> result = new HashMap<>(prettifiers);
+			result.remove(t);
+			return Collections.unmodifiableMap(result);
+		});
+	}
+
+	/**
+	 * @return new capture buffer configured according to the options
+	 */
+	@Nonnull
+	public CaptureBuffer createBuffer() {
+		return createBuffer(-1);
+	}
+
+	/**
+	 * Create a capture buffer presized for a body of known length.
+	 *
+	 * @param contentLength body length, a negative value if unknown
+	 * @return new capture buffer configured according to the options
+	 */
+	@Nonnull
+	public CaptureBuffer createBuffer(long contentLength) {
+		return new CaptureBuffer(bodyHeadLimit, bodyTailLimit, contentLength, bufferPool);
+	}
+
+	/**
+	 * @return builder initialized with the values of the options
+	 */
+	@Nonnull
+	public Builder toBuilder() {
+		return new Builder().bodyLimit(bodyHeadLimit, bodyTailLimit).spillThreshold(spillThreshold, spillDirectory)
+				.binaryPartThreshold(binaryPartThreshold)
+				.metricsListener(metricsListener)
+				.decompressionLimit(decompressionLimit)
+				.bufferPool(bufferPool)
+				.prettifyLimit(prettifyLimit)
+				.redactionRules(redactionRules);
+	}
+
+	public static class Builder {
+		private int bodyHeadLimit = -1;
+		private int bodyTailLimit;
+		private long spillThreshold = -1;
+		private Path spillDirectory;
+		private long binaryPartThreshold = -1;
+		private LoggingMetricsListener metricsListener = LoggingMetricsListener.NOOP;
+		private long decompressionLimit = DEFAULT_DECOMPRESSION_LIMIT;
+		private ChunkPool bufferPool = ChunkPool.DEFAULT;
+		private long prettifyLimit = -1;
+		private RedactionRules redactionRules = RedactionRules.EMPTY;
+
+		/**
+		 * Limit logged body size. A body longer than <code>headLimit + tailLimit</code> is logged with its first
+		 * <code>headLimit</code> and last <code>tailLimit</code> bytes, and the elided range is marked in the log.
+		 *
+		 * @param headLimit number of leading bytes to log, a negative value turns the limit off
+		 * @param tailLimit number of trailing bytes to log
+		 * @return self instance for convenience
+		 */
+		public Builder bodyLimit(int headLimit, int tailLimit) {
+			bodyHeadLimit = headLimit;
+			bodyTailLimit = tailLimit;
+			return this;
+		}
+
+		/**
+		 * Spill buffered non-repeatable bodies larger than the threshold to temporary files instead of heap arrays.
+		 *
+		 * @param threshold size in bytes, a negative value turns spilling off
+		 * @param directory directory for temporary files, <code>null</code> means the default temporary directory
+		 * @return self instance for convenience
+		 */
+		public Builder spillThreshold(long threshold, @Nullable Path directory) {
+			spillThreshold = threshold;
+			spillDirectory = directory;
+			return this;
+		}
+
+		/**
+		 * Log binary multipart parts larger than the threshold as their size and SHA-256 hash, so their content is not
+		 * kept in memory.
+		 *
+		 * @param threshold size in bytes, a negative value turns summarizing off
+		 * @return self instance for convenience
+		 */
+		public Builder binaryPartThreshold(long threshold) {
+			binaryPartThreshold = threshold;
+			return this;
+		}
+
+		/**
+		 * @param listener listener which receives body capture metrics
+		 * @return self instance for convenience
+		 */
+		public Builder metricsListener(@Nonnull LoggingMetricsListener listener) {
+			metricsListener = listener;
+			return this;
+		}
+
+		/**
+		 * Decompress gzip and deflate encoded bodies on formatting, but not more than the limit, to guard against
+		 * decompression bombs.
+		 *
+		 * @param limit maximum size of a decompressed body in bytes, a negative value turns decompression off
+		 * @return self instance for convenience
+		 */
+		public Builder decompressionLimit(long limit) {
+			decompressionLimit = limit;
+			return this;
+		}
+
+		/**
+		 * @param pool pool of chunks for capture buffers, chunks are returned to it once a body is formatted
+		 * @return self instance for convenience
+		 */
+		public Builder bufferPool(@Nonnull ChunkPool pool) {
+			bufferPool = pool;
+			return this;
+		}
+
+		/**
+		 * Log text bodies larger than the limit as is, without prettification, so large bodies are not reformatted.
+		 *
+		 * @param limit maximum size of a body to prettify in bytes, a negative value turns the limit off
+		 * @return self instance for convenience
+		 */
+		public Builder prettifyLimit(long limit) {
+			prettifyLimit = limit;
+			return this;
+		}
+
+		/**
+		 * @param rules rules which mask sensitive data in captured bodies
+		 * @return self instance for convenience
+		 */
+		public Builder redactionRules(@Nonnull RedactionRules rules) {
+			redactionRules = rules;
+			return this;
+		}
+
+		public CaptureOptions build() {
+			return new CaptureOptions(this);
+		}
+	}
+}
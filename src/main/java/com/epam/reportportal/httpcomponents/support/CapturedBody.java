@@ -0,0 +1,543 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.formatting.http.entities.Header;
+import com.epam.reportportal.formatting.http.entities.Param;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * HTTP body captured for logging, independent of HTTP client version. Body bytes are written into it as they are read
+ * from an entity or a data stream, then the body is applied to a formatter builder according to its body type: text
+ * is decoded, form is parsed into parameters, multipart is parsed on the fly and binary is passed as is. Body capture
+ * limits of {@link CaptureOptions} are respected.
+ */
+public class CapturedBody extends OutputStream {
+
+	private static final String TRUNCATION_MARKER = "\n\n[... %d bytes elided, offsets %d-%d ...]\n\n";
+	private static final String BINARY_TRUNCATION_MARKER = "[Binary body of %d bytes (%s) exceeds the capture limit, bytes %d-%d elided]";
+	private static final String BINARY_TRUNCATION_NOTE = "[Binary body of %d bytes exceeds the capture limit, bytes %d-%d are elided from the attachment]";
+	private static final String BINARY_INCOMPLETE_NOTE = "[Binary body stream was closed after %d bytes, the rest is not attached]";
+	private static final String INCOMPLETE_COMPRESSED_MARKER = "\n\n[... compressed body is incomplete, the rest can not be decompressed ...]";
+	private static final String DECOMPRESSION_LIMIT_MARKER = "\n\n[... decompressed body exceeds %d bytes, the rest is elided ...]";
+	private static final String INCOMPLETE_MARKER = "\n\n[... body stream was closed after %d bytes, the rest is not captured ...]";
+	private static final int CHUNK_SIZE = 8192;
+
+	private final ContentTypeCache.Descriptor descriptor;
+	private final BodyType bodyType;
+	private final MultipartCaptureStream multipart;
+	private final String encoding;
+	private final CaptureOptions options;
+	private CaptureBuffer buffer;
+	private RedactingStream redactor;
+	private long size;
+	private boolean reported;
+	private boolean decoded;
+	private boolean incomplete;
+	private String decodingMarker;
+	private String binaryNote;
+
+	private CapturedBody(@Nullable String contentType, @Nullable String contentEncoding, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nullable CaptureBuffer buffer, @Nullable MultipartCaptureStream multipart, @Nonnull CaptureOptions options) {
+		this.encoding = BodyDecompressor.getSupportedEncoding(contentEncoding);
+		this.options = options;
+		this.descriptor = ContentTypeCache.get(contentType);
+		this.bodyType = descriptor.getBodyType(bodyTypeMap);
+		this.buffer = buffer;
+		this.multipart = multipart;
+		if (buffer != null && encoding == null) {
+			redactor = options.getRedactionRules().wrap(descriptor.getMimeType(), bodyType, buffer);
+		}
+	}
+
+	/**
+	 * Create a request body capture. Multipart bodies are parsed while they are written.
+	 *
+	 * @param contentType         Content-Type header value
+	 * @param contentLength       body length, a negative value if unknown
+	 * @param bodyTypeMap         MIME type to body type map
+	 * @param partHeaderConverter multipart part header converter
+	 * @param options             body capture options
+	 * @return body capture
+	 */
+	@Nonnull
+	public static CapturedBody forRequest(@Nullable String contentType, long contentLength, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nullable Function<Header, String> partHeaderConverter, @Nonnull CaptureOptions options) {
+		ContentTypeCache.Descriptor descriptor = ContentTypeCache.get(contentType);
+		String boundary = descriptor.getBoundary();
+		if (BodyType.MULTIPART == descriptor.getBodyType(bodyTypeMap)) {
+			return new CapturedBody(
+					contentType,
+					null,
+					bodyTypeMap,
+					null,
+					boundary == null ? null : new MultipartCaptureStream(boundary, options, bodyTypeMap, partHeaderConverter),
+					options
+			);
+		}
+		return new CapturedBody(contentType, null, bodyTypeMap, options.createBuffer(contentLength), null, options);
+	}
+
+	/**
+	 * Create a response body capture. A body with gzip or deflate content coding is captured compressed and decompressed
+	 * on formatting.
+	 *
+	 * @param contentType     Content-Type header value
+	 * @param contentEncoding Content-Encoding header value
+	 * @param contentLength   body length, a negative value if unknown
+	 * @param bodyTypeMap     MIME type to body type map
+	 * @param options         body capture options
+	 * @return body capture
+	 */
+	@Nonnull
+	public static CapturedBody forResponse(@Nullable String contentType, @Nullable String contentEncoding, long contentLength,
+			@Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions options) {
+		return new CapturedBody(contentType, contentEncoding, bodyTypeMap, options.createBuffer(contentLength), null, options);
+	}
+
+	/**
+	 * Wrap an already filled capture buffer as a response body. The bytes are used as they are, so body redaction rules
+	 * are applied only if the body is compressed.
+	 *
+	 * @param contentType     Content-Type header value
+	 * @param contentEncoding Content-Encoding header value
+	 * @param buffer          captured bytes
+	 * @param bodyTypeMap     MIME type to body type map
+	 * @param options         body capture options
+	 * @return body capture
+	 */
+	@Nonnull
+	public static CapturedBody forResponse(@Nullable String contentType, @Nullable String contentEncoding,
+			@Nonnull CaptureBuffer buffer, @Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions options) {
+		CapturedBody body = new CapturedBody(contentType, contentEncoding, bodyTypeMap, buffer, null, options);
+		body.size = buffer.size();
+		return body;
+	}
+
+	@Nonnull
+	static String getTruncationMarker(@Nonnull CaptureBuffer body) {
+		long from = body.getHead().length;
+		return String.format(TRUNCATION_MARKER, body.getSkipped(), from, from + body.getSkipped() - 1);
+	}
+
+	@Nonnull
+	static String getBinaryTruncationMarker(@Nonnull CaptureBuffer body, @Nonnull String mimeType) {
+		long from = body.getHead().length;
+		return String.format(BINARY_TRUNCATION_MARKER, body.size(), mimeType, from, from + body.getSkipped() - 1);
+	}
+
+	@Nullable
+	static String toString(@Nullable CaptureBuffer body, @Nonnull Charset charset) {
+		if (body == null) {
+			return null;
+		}
+		if (!body.isTruncated()) {
+			return body.toString(charset);
+		}
+		return body.getHeadString(charset) + getTruncationMarker(body) + TextDecoder.decode(body.getTail(), charset);
+	}
+
+	@Nonnull
+	private static List<Param> toParams(@Nonnull CaptureBuffer body, @Nonnull Charset charset) {
+		byte[] bytes = body.getHead();
+		return TextDecoder.decodeForm(bytes, bytes.length, charset);
+	}
+
+	@Override
+	public void write(int b) {
+		size++;
+		if (multipart != null) {
+			multipart.write(b);
+		} else if (redactor != null) {
+			redactor.write(b);
+		} else if (buffer != null) {
+			buffer.write(b);
+		}
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		size += len;
+		if (multipart != null) {
+			multipart.write(b, off, len);
+		} else if (redactor != null) {
+			redactor.write(b, off, len);
+		} else if (buffer != null) {
+			buffer.write(b, off, len);
+		}
+	}
+
+	/**
+	 * Copy remaining bytes of the buffer, the buffer position is not changed.
+	 *
+	 * @param src source buffer
+	 */
+	public void write(@Nonnull ByteBuffer src) {
+		ByteBuffer data = src.duplicate();
+		if (data.hasArray()) {
+			write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+			return;
+		}
+		byte[] chunk = new byte[Math.min(data.remaining(), CHUNK_SIZE)];
+		while (data.hasRemaining()) {
+			int size = Math.min(chunk.length, data.remaining());
+			data.get(chunk, 0, size);
+			write(chunk, 0, size);
+		}
+	}
+
+	/**
+	 * Copy a region of a file, e.g. after an HTTP client transferred body bytes to or from the file directly. The
+	 * channel position is not changed.
+	 *
+	 * @param channel  source file channel
+	 * @param position position of the region in the file
+	 * @param count    region size in bytes
+	 * @throws IOException if the file can not be read
+	 */
+	public void write(@Nonnull FileChannel channel, long position, long count) throws IOException {
+		if (count <= 0) {
+			return;
+		}
+		ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(count, CHUNK_SIZE));
+		long offset = 0;
+		while (offset < count) {
+			chunk.clear();
+			chunk.limit((int) Math.min(chunk.capacity(), count - offset));
+			int read = channel.read(chunk, position + offset);
+			if (read <= 0) {
+				return;
+			}
+			chunk.flip();
+			write(chunk);
+			offset += read;
+		}
+	}
+
+	/**
+	 * Use bytes already kept in memory instead of writing them into the body. Multipart bodies are parsed on write and
+	 * redacted bodies are masked on write, so they can not use a buffer.
+	 *
+	 * @param captured captured body bytes
+	 * @return <code>true</code> if the buffer is used, <code>false</code> if the bytes should be written
+	 */
+	boolean use(@Nonnull CaptureBuffer captured) {
+		if (multipart != null || redactor != null || buffer == null) {
+			return false;
+		}
+		buffer.release();
+		buffer = captured;
+		size = captured.size();
+		return true;
+	}
+
+	/**
+	 * Mark the body as not readable: log a warning and drop captured bytes, so the body is logged as absent.
+	 *
+	 * @param cause read error
+	 */
+	public void fail(@Nonnull Exception cause) {
+		AsyncLogDispatcher.warn("Unable to read HTTP entity: " + ExceptionUtils.getStackTrace(cause));
+		release();
+	}
+
+	/**
+	 * Mark the body as read only partially, e.g. if its stream was closed before EOF. Captured bytes are logged with a
+	 * truncation note.
+	 */
+	public void markIncomplete() {
+		incomplete = true;
+	}
+
+	/**
+	 * @return body type of the captured content
+	 */
+	@Nonnull
+	public BodyType getBodyType() {
+		return bodyType;
+	}
+
+	private void release() {
+		if (buffer != null) {
+			buffer.release();
+			buffer = null;
+		}
+	}
+
+	private void report() {
+		if (!reported) {
+			reported = true;
+			options.getMetricsListener().captured(size, incomplete || (buffer != null && buffer.isTruncated()));
+		}
+	}
+
+	/**
+	 * Replace compressed bytes with decompressed ones. If the compressed body was truncated, only its leading bytes are
+	 * decompressed. The body is left as is if it is not a valid compressed stream.
+	 */
+	private void decode() {
+		if (decoded || encoding == null || buffer == null || buffer.size() == 0 || options.getDecompressionLimit() < 0) {
+			return;
+		}
+		decoded = true;
+		CaptureBuffer output = options.createBuffer();
+		RedactingStream outputRedactor = options.getRedactionRules().wrap(descriptor.getMimeType(), bodyType, output);
+		BodyDecompressor.Result result = BodyDecompressor.decompress(
+				buffer.isTruncated() ? buffer.getHead() : buffer.toByteArray(),
+				encoding,
+				options.getDecompressionLimit(),
+				outputRedactor == null ? output : outputRedactor
+		);
+		switch (result) {
+			case FAILED:
+				output.release();
+				return;
+			case LIMIT_EXCEEDED:
+				decodingMarker = String.format(DECOMPRESSION_LIMIT_MARKER, options.getDecompressionLimit());
+				break;
+			case INCOMPLETE:
+				decodingMarker = INCOMPLETE_COMPRESSED_MARKER;
+				break;
+			default:
+		}
+		buffer.release();
+		buffer = output;
+	}
+
+	@Nullable
+	private String toText(@Nonnull Charset charset) {
+		String text = toString(buffer, charset);
+		if (text == null) {
+			return null;
+		}
+		if (decodingMarker != null) {
+			text += decodingMarker;
+		}
+		return incomplete ? text + String.format(INCOMPLETE_MARKER, size) : text;
+	}
+
+	/**
+	 * Get kept bytes of a binary body. A body which is not captured as a whole is attached as far as it is kept, the
+	 * note which tells what is missing is added to the log message by {@link #annotate(HttpFormatter)}.
+	 */
+	@Nullable
+	private byte[] toBinary() {
+		if (buffer == null) {
+			return null;
+		}
+		StringBuilder note = new StringBuilder();
+		if (buffer.isTruncated()) {
+			long from = buffer.getHead().length;
+			note.append(String.format(BINARY_TRUNCATION_NOTE, buffer.size(), from, from + buffer.getSkipped() - 1));
+		}
+		if (decodingMarker != null) {
+			note.append(note.length() > 0 ? "\n" : "").append(decodingMarker.trim());
+		}
+		if (incomplete) {
+			note.append(note.length() > 0 ? "\n" : "").append(String.format(BINARY_INCOMPLETE_NOTE, size));
+		}
+		binaryNote = note.length() > 0 ? note.toString() : null;
+		return buffer.toByteArray();
+	}
+
+	@Nullable
+	private String prettify(@Nonnull StreamingPrettifier prettifier, @Nonnull Charset charset) {
+		// Prettified body is usually larger than the original, so it is not limited by the head limit
+		CaptureBuffer output = new CaptureBuffer(-1, 0, -1, options.getBufferPool());
+		try {
+			return prettifier.prettify(buffer.getHeadStream(), charset, output) ? output.toString(charset) : null;
+		} catch (IOException e) {
+			return null;
+		} finally {
+			output.release();
+		}
+	}
+
+	/**
+	 * Set a text body. If the body is larger than {@link CaptureOptions#getPrettifyLimit()} it is set without
+	 * prettification. A body with a {@link StreamingPrettifier} registered for its type is reformatted from captured
+	 * bytes, and the prettifier is dropped from the builder, so the text is not prettified again. A body which the
+	 * streaming prettifier can not reformat is set as is.
+	 */
+	private void applyText(@Nonnull String type, @Nullable Map<String, Function<String, String>> prettifiers,
+			@Nonnull BiConsumer<String, String> bodySetter, @Nonnull Consumer<Map<String, Function<String, String>>> prettifierSetter) {
+		Charset charset = descriptor.getCharset();
+		Function<String, String> prettifier = prettifiers == null ? null : prettifiers.get(type);
+		if (prettifier == null || buffer == null) {
+			bodySetter.accept(type, toText(charset));
+			return;
+		}
+		long limit = options.getPrettifyLimit();
+		String text = null;
+		if (limit < 0 || buffer.size() <= limit) {
+			if (!(prettifier instanceof StreamingPrettifier) || buffer.isTruncated() || decodingMarker != null || incomplete) {
+				bodySetter.accept(type, toText(charset));
+				return;
+			}
+			text = prettify((StreamingPrettifier) prettifier, charset);
+		}
+		bodySetter.accept(type, text == null ? toText(charset) : text);
+		prettifierSetter.accept(options.getPrettifiersWithout(prettifiers, type));
+	}
+
+	/**
+	 * Set the captured body to a request formatter builder. Captured bytes are released to the buffer pool after that.
+	 *
+	 * @param builder request formatter builder
+	 */
+	public void applyTo(@Nonnull HttpRequestFormatter.Builder builder) {
+		applyTo(builder, null);
+	}
+
+	/**
+	 * Set the captured body to a request formatter builder, prettify text bodies with streaming prettifiers and apply
+	 * the prettification size limit. Captured bytes are released to the buffer pool after that.
+	 *
+	 * @param builder     request formatter builder
+	 * @param prettifiers content prettifiers map which is set to the builder
+	 */
+	public void applyTo(@Nonnull HttpRequestFormatter.Builder builder, @Nullable Map<String, Function<String, String>> prettifiers) {
+		report();
+		decode();
+		String type = descriptor.getMimeType();
+		switch (bodyType) {
+			case TEXT:
+				applyText(type, prettifiers, builder::bodyText, builder::prettifiers);
+				break;
+			case FORM:
+				if (buffer == null) {
+					builder.bodyParams(Collections.emptyList());
+				} else if (buffer.isTruncated() || decodingMarker != null || incomplete) {
+					builder.bodyText(type, toText(descriptor.getCharset()));
+				} else {
+					builder.bodyParams(toParams(buffer, descriptor.getCharset()));
+				}
+				break;
+			case MULTIPART:
+				if (multipart != null) {
+					multipart.getParts().forEach(builder::addBodyPart);
+				}
+				break;
+			default:
+				builder.bodyBytes(type, toBinary());
+		}
+		release();
+	}
+
+	/**
+	 * Add the note about a binary body which is not captured as a whole to the log message of a formatter, since the
+	 * attachment itself can not carry it. Call it on a formatter built after the body is applied.
+	 *
+	 * @param formatter formatter built with the body
+	 * @return the same formatter if the body is captured as a whole, a formatter with the note otherwise
+	 */
+	@Nonnull
+	public HttpFormatter annotate(@Nonnull HttpFormatter formatter) {
+		String note = binaryNote;
+		return note == null ? formatter : new Annotated(formatter, note);
+	}
+
+	/**
+	 * Set the captured body to a response formatter builder. Captured bytes are released to the buffer pool after that.
+	 *
+	 * @param builder response formatter builder
+	 */
+	public void applyTo(@Nonnull HttpResponseFormatter.Builder builder) {
+		applyTo(builder, null);
+	}
+
+	/**
+	 * Set the captured body to a response formatter builder, prettify text bodies with streaming prettifiers and apply
+	 * the prettification size limit. Captured bytes are released to the buffer pool after that.
+	 *
+	 * @param builder     response formatter builder
+	 * @param prettifiers content prettifiers map which is set to the builder
+	 */
+	public void applyTo(@Nonnull HttpResponseFormatter.Builder builder, @Nullable Map<String, Function<String, String>> prettifiers) {
+		report();
+		decode();
+		String type = descriptor.getMimeType();
+		if (BodyType.TEXT == bodyType) {
+			applyText(type, prettifiers, builder::bodyText, builder::prettifiers);
+		} else {
+			builder.bodyBytes(type, toBinary());
+		}
+		release();
+	}
+
+	private static class Annotated implements HttpFormatter {
+
+		private static final String SEPARATOR = "\n\n";
+
+		private final HttpFormatter formatter;
+		private final String note;
+
+		private Annotated(@Nonnull HttpFormatter formatter, @Nonnull String note) {
+			this.formatter = formatter;
+			this.note = note;
+		}
+
+		@Override
+		public String formatHead() {
+			return formatter.formatHead() + SEPARATOR + note;
+		}
+
+		@Override
+		public String formatTitle() {
+			return formatter.formatTitle();
+		}
+
+		@Override
+		public String formatAsText() {
+			return formatter.formatAsText() + SEPARATOR + note;
+		}
+
+		@Override
+		public BodyType getType() {
+			return formatter.getType();
+		}
+
+		@Override
+		public String getMimeType() {
+			return formatter.getMimeType();
+		}
+
+		@Override
+		public byte[] getBinaryBody() {
+			return formatter.getBinaryBody();
+		}
+	}
+}
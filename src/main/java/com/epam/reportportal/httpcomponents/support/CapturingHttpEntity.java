@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import jakarta.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A repeatable copy of a non-repeatable {@link HttpEntity}, like {@link org.apache.http.entity.BufferedHttpEntity}, but
+ * its single backing array serves both the replayed content and the logged body: {@link #view(CaptureOptions)} wraps
+ * the array without copying, so the body is materialized once per exchange. A body of known length is read straight
+ * into an array of its exact size.
+ */
+class CapturingHttpEntity extends AbstractHttpEntity {
+
+	private static final int INITIAL_CAPACITY = 8192;
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+	private final byte[] data;
+	private final int length;
+
+	private CapturingHttpEntity(@Nonnull HttpEntity entity, @Nonnull byte[] data, int length) {
+		this.data = data;
+		this.length = length;
+		setContentType(entity.getContentType());
+		setContentEncoding(entity.getContentEncoding());
+		setChunked(entity.isChunked());
+	}
+
+	/**
+	 * Read the entity content into memory.
+	 *
+	 * @param entity entity to buffer
+	 * @return repeatable entity with the same content
+	 * @throws IOException in case of read error
+	 */
+	@Nonnull
+	static CapturingHttpEntity buffer(@Nonnull HttpEntity entity) throws IOException {
+		InputStream content = entity.getContent();
+		if (content == null) {
+			return new CapturingHttpEntity(entity, new byte[0], 0);
+		}
+		try (InputStream is = content) {
+			CapturingHttpEntity result = read(entity, is, MAX_ARRAY_SIZE - 1);
+			if (result.length > MAX_ARRAY_SIZE - 1) {
+				throw new IOException("HTTP entity is too large to be buffered");
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Read the entity content into memory until the end of the stream or until more than <code>limit</code> bytes are
+	 * read. In the latter case the result holds the bytes read so far, so the caller can buffer the rest elsewhere.
+	 *
+	 * @param entity entity to buffer
+	 * @param is     entity content
+	 * @param limit  maximum number of bytes to keep in memory
+	 * @return repeatable entity with the content read, its length is greater than the limit if the stream is not over
+	 * @throws IOException in case of read error
+	 */
+	@Nonnull
+	static CapturingHttpEntity read(@Nonnull HttpEntity entity, @Nonnull InputStream is, int limit) throws IOException {
+		long contentLength = entity.getContentLength();
+		byte[] data = new byte[contentLength >= 0 && contentLength <= limit ?
+				(int) contentLength :
+				Math.min(INITIAL_CAPACITY, limit + 1)];
+		int length = 0;
+		while (length <= limit) {
+			if (length == data.length) {
+				// The array is full: either the body is over or its length is unknown, so probe for one more byte
+				int next = is.read();
+				if (next == -1) {
+					break;
+				}
+				data = Arrays.copyOf(data, (int) Math.min(Math.max((long) data.length << 1, INITIAL_CAPACITY), limit + 1L));
+				data[length++] = (byte) next;
+				continue;
+			}
+			int read = is.read(data, length, data.length - length);
+			if (read == -1) {
+				break;
+			}
+			length += read;
+		}
+		return new CapturingHttpEntity(entity, data, length);
+	}
+
+	/**
+	 * Create a view of the content for logging, the content is not copied.
+	 *
+	 * @param options body capture options
+	 * @return capture buffer backed by the entity content
+	 */
+	@Nonnull
+	CaptureBuffer view(@Nonnull CaptureOptions options) {
+		return CaptureBuffer.wrap(data, length, options.getBodyHeadLimit(), options.getBodyTailLimit());
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return length;
+	}
+
+	@Override
+	public InputStream getContent() {
+		return new ByteArrayInputStream(data, 0, length);
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		outStream.write(data, 0, length);
+		outStream.flush();
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of fixed size byte arrays which back {@link CaptureBuffer} instances. Chunks are returned to the pool
+ * once a captured body is formatted, so bodies of a busy client are captured into the same memory over and over instead
+ * of allocating and growing a new array for each body. A chunk is dropped if the pool is full.
+ */
+public class ChunkPool {
+
+	/**
+	 * Default chunk size, 8 KiB.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+
+	/**
+	 * Default maximum number of retained chunks, which makes 512 KiB of retained memory with the default chunk size.
+	 */
+	public static final int DEFAULT_MAX_CHUNKS = 64;
+
+	/**
+	 * Pool shared by default capture options.
+	 */
+	public static final ChunkPool DEFAULT = new ChunkPool(DEFAULT_MAX_CHUNKS, DEFAULT_CHUNK_SIZE);
+
+	private final int chunkSize;
+	private final BlockingQueue<byte[]> chunks;
+
+	/**
+	 * Create a chunk pool.
+	 *
+	 * @param maxChunks maximum number of retained chunks, zero or a negative value turns pooling off
+	 * @param chunkSize chunk size in bytes
+	 */
+	public ChunkPool(int maxChunks, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size should be positive: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.chunks = maxChunks > 0 ? new ArrayBlockingQueue<>(maxChunks) : null;
+	}
+
+	/**
+	 * @return size of pooled chunks in bytes
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @return number of chunks currently retained by the pool
+	 */
+	public int size() {
+		return chunks == null ? 0 : chunks.size();
+	}
+
+	/**
+	 * @return a pooled chunk or a new one if the pool is empty, the chunk content is undefined
+	 */
+	@Nonnull
+	byte[] acquire() {
+		byte[] chunk = chunks == null ? null : chunks.poll();
+		return chunk != null ? chunk : new byte[chunkSize];
+	}
+
+	/**
+	 * @param chunk an array
+	 * @return <code>true</code> if the array would be retained by the pool on release, so it can be reused
+	 */
+	boolean retains(@Nonnull byte[] chunk) {
+		return chunks != null && chunk.length == chunkSize;
+	}
+
+	/**
+	 * Return a chunk to the pool. Arrays of other than pool chunk size are ignored.
+	 *
+	 * @param chunk chunk to return
+	 */
+	void release(@Nonnull byte[] chunk) {
+		if (retains(chunk)) {
+			chunks.offer(chunk);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+
+import jakarta.annotation.Nonnull;
+import java.util.Locale;
+
+/**
+ * A request and its response formatted as a single log entry: the request is rendered as text in front of the
+ * response, and the response body, if binary, becomes the attachment of the entry. A request with a binary or multipart
+ * body can't be rendered this way, check {@link #isCombinable()} before emitting and emit the parts separately if it
+ * returns <code>false</code>.
+ */
+public class CombinedHttpFormatter implements HttpFormatter {
+
+	private static final String SEPARATOR = "\n\n";
+	private static final String BODY_PLACEHOLDER = "[%s body, not rendered as text]";
+
+	private final HttpFormatter request;
+	private final HttpFormatter response;
+
+	public CombinedHttpFormatter(@Nonnull HttpFormatter request, @Nonnull HttpFormatter response) {
+		this.request = request;
+		this.response = response;
+	}
+
+	private static boolean isText(@Nonnull HttpFormatter formatter) {
+		BodyType type = formatter.getType();
+		return type == null || BodyType.NONE == type || BodyType.TEXT == type || BodyType.FORM == type;
+	}
+
+	/**
+	 * @return <code>true</code> if the request and the response fit into a single log entry
+	 */
+	public boolean isCombinable() {
+		return isText(request) && BodyType.MULTIPART != response.getType();
+	}
+
+	@Nonnull
+	public HttpFormatter getRequest() {
+		return request;
+	}
+
+	@Nonnull
+	public HttpFormatter getResponse() {
+		return response;
+	}
+
+	/**
+	 * Render a part of the exchange as text: its head only if it has no body, the body is included only if it is text.
+	 * A binary or multipart body is replaced with a placeholder, since only the response body can be attached.
+	 *
+	 * @param formatter request or response formatter
+	 * @return text of the part
+	 */
+	@Nonnull
+	private static String render(@Nonnull HttpFormatter formatter) {
+		BodyType type = formatter.getType();
+		if (type == null || BodyType.NONE == type) {
+			return formatter.formatHead();
+		}
+		if (BodyType.TEXT == type || BodyType.FORM == type) {
+			return formatter.formatAsText();
+		}
+		return formatter.formatHead() + SEPARATOR + String.format(BODY_PLACEHOLDER, type.name().toLowerCase(Locale.ROOT));
+	}
+
+	@Override
+	public String formatHead() {
+		return render(request) + SEPARATOR + response.formatHead();
+	}
+
+	@Override
+	public String formatTitle() {
+		return request.formatTitle();
+	}
+
+	@Override
+	public String formatAsText() {
+		return render(request) + SEPARATOR + render(response);
+	}
+
+	@Override
+	public BodyType getType() {
+		return response.getType();
+	}
+
+	@Override
+	public String getMimeType() {
+		return response.getMimeType();
+	}
+
+	@Override
+	public byte[] getBinaryBody() {
+		return response.getBinaryBody();
+	}
+}
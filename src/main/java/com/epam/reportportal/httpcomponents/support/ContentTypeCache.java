@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatUtils;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.utils.http.ContentType;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of parsed Content-Type header values. The number of distinct header values in a test run is small, so a
+ * value is resolved once and reused by all subsequent requests, responses and multipart parts, a cache hit is a single
+ * lookup by the raw header value. Values with a multipart boundary, which is unique per body, are parsed each time and
+ * not cached. If the cache reaches its bound it is cleared, so lookups never take a lock.
+ * <p>
+ * Descriptors do not depend on a body type map, so formatters with different maps share them.
+ */
+class ContentTypeCache {
+
+	static final int MAX_SIZE = 256;
+	private static final String CHARSET = "charset";
+	private static final String BOUNDARY = "boundary";
+	private static final Descriptor NO_CONTENT_TYPE = new Descriptor(null, null, null);
+	private static final Map<String, Descriptor> CACHE = new ConcurrentHashMap<>();
+
+	private ContentTypeCache() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	/**
+	 * Resolved Content-Type header value.
+	 */
+	static class Descriptor {
+		private final String key;
+		private final Charset charset;
+		private final String mimeType;
+		private final String mediaType;
+		private final String boundary;
+
+		private Descriptor(@Nullable String key, @Nullable String charset, @Nullable String boundary) {
+			this.key = key;
+			this.charset = toCharset(charset);
+			mimeType = HttpFormatUtils.getMimeType(key);
+			mediaType = key == null || key.isEmpty() ? null : ContentType.stripMediaType(key);
+			this.boundary = boundary;
+		}
+
+		@Nonnull
+		private static Charset toCharset(@Nullable String name) {
+			if (name == null) {
+				return StandardCharsets.UTF_8;
+			}
+			try {
+				return Charset.forName(name);
+			} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+				return StandardCharsets.UTF_8;
+			}
+		}
+
+		/**
+		 * @return charset from the header value or UTF-8 if there is no one
+		 */
+		@Nonnull
+		Charset getCharset() {
+			return charset;
+		}
+
+		/**
+		 * @return MIME type without parameters
+		 */
+		String getMimeType() {
+			return mimeType;
+		}
+
+		/**
+		 * @return multipart boundary or <code>null</code> if there is no one
+		 */
+		@Nullable
+		String getBoundary() {
+			return boundary;
+		}
+
+		/**
+		 * Resolve the body type the same way {@link HttpFormatUtils#getBodyType(String, Map)} does, but without parsing
+		 * the header value again.
+		 *
+		 * @param bodyTypeMap body type map of the formatter
+		 * @return body type of the content
+		 */
+		@Nonnull
+		BodyType getBodyType(@Nonnull Map<String, BodyType> bodyTypeMap) {
+			if (key == null || key.isEmpty()) {
+				return BodyType.NONE;
+			}
+			BodyType type = mediaType == null ? null : bodyTypeMap.get(mediaType);
+			return type == null ? BodyType.BINARY : type;
+		}
+	}
+
+	@Nonnull
+	private static String unquote(@Nonnull String value) {
+		return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+	}
+
+	/**
+	 * Get a resolved Content-Type descriptor, parsing the header value only if it was not seen before.
+	 *
+	 * @param contentType Content-Type header value
+	 * @return resolved descriptor
+	 */
+	@Nonnull
+	static Descriptor get(@Nullable String contentType) {
+		if (contentType == null) {
+			return NO_CONTENT_TYPE;
+		}
+		Descriptor descriptor = CACHE.get(contentType);
+		if (descriptor != null) {
+			return descriptor;
+		}
+		descriptor = parse(contentType);
+		if (descriptor.getBoundary() == null) {
+			if (CACHE.size() >= MAX_SIZE) {
+				// Distinct values are few, so a full cache means unusual traffic: start over rather than track usage
+				CACHE.clear();
+			}
+			CACHE.put(contentType, descriptor);
+		}
+		return descriptor;
+	}
+
+	@Nonnull
+	private static Descriptor parse(@Nonnull String contentType) {
+		String[] parts = contentType.split(";");
+		String mimeType = parts[0].trim().toLowerCase(Locale.ROOT);
+		String charset = null;
+		String boundary = null;
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i];
+			int separator = parameter.indexOf('=');
+			if (separator < 0) {
+				continue;
+			}
+			String name = parameter.substring(0, separator).trim();
+			if (CHARSET.equalsIgnoreCase(name)) {
+				charset = unquote(parameter.substring(separator + 1).trim());
+			} else if (BOUNDARY.equalsIgnoreCase(name)) {
+				boundary = unquote(parameter.substring(separator + 1).trim());
+			}
+		}
+		String key = charset == null ? mimeType : mimeType + "; " + CHARSET + "=" + charset.toLowerCase(Locale.ROOT);
+		return new Descriptor(key, charset, boundary);
+	}
+
+	/**
+	 * @return number of cached descriptors
+	 */
+	static int size() {
+		return CACHE.size();
+	}
+}
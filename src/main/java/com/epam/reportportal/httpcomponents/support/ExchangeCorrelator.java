@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import org.apache.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Keeps captured requests in {@link HttpContext} until their responses arrive, so a request and its response can be
+ * logged as a single entry. Each exchange has its own pending request, so overlapping exchanges of one thread are
+ * combined independently. A request which never got a response, e.g. due to an I/O error, is taken from the context of
+ * the failed exchange, or handed back when the next exchange reuses the same context, to be logged alone.
+ */
+public class ExchangeCorrelator {
+
+	private static final String PENDING_REQUEST = ExchangeCorrelator.class.getName() + ".pendingRequest";
+
+	/**
+	 * Store a captured request.
+	 *
+	 * @param context HTTP context of the exchange
+	 * @param request captured request formatter supplier
+	 * @return a previous request of the same context which never got a response, or <code>null</code>
+	 */
+	@Nullable
+	public Supplier<HttpFormatter> begin(@Nonnull HttpContext context, @Nonnull Supplier<HttpFormatter> request) {
+		Supplier<HttpFormatter> orphan = take(context);
+		context.setAttribute(PENDING_REQUEST, request);
+		return orphan;
+	}
+
+	/**
+	 * Take the captured request of the exchange, either when its response arrives or when the exchange fails.
+	 *
+	 * @param context HTTP context of the exchange
+	 * @return captured request formatter supplier, or <code>null</code> if the request was not captured or was already
+	 * taken
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public Supplier<HttpFormatter> take(@Nonnull HttpContext context) {
+		Object attribute = context.removeAttribute(PENDING_REQUEST);
+		return attribute instanceof Supplier ? (Supplier<HttpFormatter>) attribute : null;
+	}
+}
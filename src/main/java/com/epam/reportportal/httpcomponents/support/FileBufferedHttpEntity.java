@@ -0,0 +1,244 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A repeatable copy of a non-repeatable {@link HttpEntity}, like {@link org.apache.http.entity.BufferedHttpEntity}, but
+ * a body larger than the threshold is spilled into a temporary file instead of a heap byte array. A smaller body is
+ * buffered by {@link CapturingHttpEntity}, which shares its array with the logged body. The file is memory-mapped for
+ * replay and deleted on close, so it does not outlive the mapping. A spilled body is logged from the mapping: only its
+ * head and tail within the capture limits are read, and no more than the threshold if there are no limits.
+ */
+public class FileBufferedHttpEntity extends AbstractHttpEntity {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	private static final String TEMP_FILE_PREFIX = "rp-http-";
+	private static final String TEMP_FILE_SUFFIX = ".body";
+
+	private final ByteBuffer[] regions;
+	private final long length;
+	private final long threshold;
+
+	private FileBufferedHttpEntity(@Nonnull HttpEntity entity, @Nonnull ByteBuffer[] regions, long length, long threshold) {
+		this.regions = regions;
+		this.length = length;
+		this.threshold = threshold;
+		setContentType(entity.getContentType());
+		setContentEncoding(entity.getContentEncoding());
+		setChunked(entity.isChunked());
+	}
+
+	/**
+	 * Read the entity content into a heap buffer, or into a memory-mapped temporary file if the content is larger than
+	 * the threshold.
+	 *
+	 * @param entity    entity to buffer
+	 * @param threshold maximum body size which is kept in heap
+	 * @param directory directory for temporary files, <code>null</code> means the default one
+	 * @return repeatable entity with the same content
+	 * @throws IOException in case of read or write error
+	 */
+	@Nonnull
+	public static HttpEntity buffer(@Nonnull HttpEntity entity, long threshold, @Nullable Path directory) throws IOException {
+		if (entity.getContentLength() <= threshold) {
+			InputStream content = entity.getContent();
+			if (content == null) {
+				return CapturingHttpEntity.buffer(entity);
+			}
+			try (InputStream is = content) {
+				CapturingHttpEntity inMemory = CapturingHttpEntity.read(entity, is, (int) Math.min(threshold, MAX_ARRAY_SIZE - 1));
+				if (inMemory.getContentLength() <= threshold) {
+					return inMemory;
+				}
+				return spill(entity, inMemory, is, threshold, directory);
+			}
+		}
+		// The body is known to be larger than the threshold, do not read it into heap at all
+		try (InputStream is = entity.getContent()) {
+			return spill(entity, null, is, threshold, directory);
+		}
+	}
+
+	@Nonnull
+	private static HttpEntity spill(@Nonnull HttpEntity entity, @Nullable HttpEntity head, @Nullable InputStream rest,
+			long threshold, @Nullable Path directory) throws IOException {
+		Path file = directory == null ?
+				Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX) :
+				Files.createTempFile(directory, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+		try {
+			long length;
+			List<ByteBuffer> regions = new ArrayList<>();
+			// A mapped file can not be deleted on some platforms, there it is deleted once the mapping is released
+			try (FileChannel channel = FileChannel.open(
+					file,
+					StandardOpenOption.READ,
+					StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE
+			)) {
+				OutputStream os = Channels.newOutputStream(channel);
+				if (head != null) {
+					head.writeTo(os);
+				}
+				if (rest != null) {
+					byte[] buffer = new byte[BUFFER_SIZE];
+					int read;
+					while ((read = rest.read(buffer)) != -1) {
+						os.write(buffer, 0, read);
+					}
+				}
+				length = channel.size();
+				for (long position = 0; position < length; position += Integer.MAX_VALUE) {
+					MappedByteBuffer region = channel.map(
+							FileChannel.MapMode.READ_ONLY,
+							position,
+							Math.min(Integer.MAX_VALUE, length - position)
+					);
+					regions.add(region);
+				}
+			}
+			return new FileBufferedHttpEntity(entity, regions.toArray(new ByteBuffer[0]), length, threshold);
+		} finally {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException ignore) {
+				// The file is deleted on close of the mapping
+			}
+		}
+	}
+
+	private void read(long position, @Nonnull byte[] destination) {
+		int offset = 0;
+		while (offset < destination.length) {
+			ByteBuffer region = regions[(int) (position / Integer.MAX_VALUE)].duplicate();
+			region.position((int) (position % Integer.MAX_VALUE));
+			int size = Math.min(destination.length - offset, region.remaining());
+			region.get(destination, offset, size);
+			offset += size;
+			position += size;
+		}
+	}
+
+	/**
+	 * Create a view of the content for logging. Only the head and the tail of the body within the capture limits are
+	 * read from the mapping, without the bytes in between. If there are no limits, no more than the threshold is read,
+	 * since the body was spilled to keep it out of heap.
+	 *
+	 * @param options body capture options
+	 * @return capture buffer with the kept body bytes
+	 */
+	@Nonnull
+	CaptureBuffer view(@Nonnull CaptureOptions options) {
+		long headLimit = options.getBodyHeadLimit();
+		long tailLimit = options.getBodyTailLimit();
+		if (headLimit < 0) {
+			headLimit = threshold;
+			tailLimit = 0;
+		}
+		byte[] head = new byte[(int) Math.min(Math.min(length, headLimit), MAX_ARRAY_SIZE)];
+		byte[] tail = new byte[(int) Math.min(length - head.length, Math.max(tailLimit, 0))];
+		read(0, head);
+		read(length - tail.length, tail);
+		return CaptureBuffer.wrap(head, tail, length);
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return length;
+	}
+
+	@Override
+	public InputStream getContent() {
+		return new RegionInputStream();
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		for (ByteBuffer region : regions) {
+			ByteBuffer view = region.duplicate();
+			while (view.hasRemaining()) {
+				int size = Math.min(buffer.length, view.remaining());
+				view.get(buffer, 0, size);
+				outStream.write(buffer, 0, size);
+			}
+		}
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+
+	private class RegionInputStream extends InputStream {
+		private int regionIndex;
+		private ByteBuffer current = regions.length > 0 ? regions[0].duplicate() : null;
+
+		private boolean nextRegion() {
+			while (current != null && !current.hasRemaining()) {
+				current = ++regionIndex < regions.length ? regions[regionIndex].duplicate() : null;
+			}
+			return current != null;
+		}
+
+		@Override
+		public int read() {
+			return nextRegion() ? current.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(@Nonnull byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!nextRegion()) {
+				return -1;
+			}
+			int size = Math.min(len, current.remaining());
+			current.get(b, off, size);
+			return size;
+		}
+
+		@Override
+		public int available() {
+			return nextRegion() ? current.remaining() : 0;
+		}
+	}
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.*;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.*;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Immutable lookup structure compiled from a list of {@link FilterRule}s. Every rule gets a bit, and every condition
+ * type is indexed separately: host, method and content type by hash maps, status codes by a precomputed bitset per
+ * standard code, paths by a trie of path segments. Non-standard status codes above 599 are rare, so rules which match
+ * them are checked by their ranges. A lookup intersects the bitsets of all condition types, so its time depends
+ * on the path length, but not on the number of rules.
+ */
+public class FilterIndex {
+
+	/**
+	 * An index without rules, matches nothing.
+	 */
+	public static final FilterIndex EMPTY = new FilterIndex(Collections.emptyList());
+
+	private static final int MAX_STATUS = 599;
+
+	private final int words;
+	private final boolean empty;
+	private final Dimension hosts;
+	private final Dimension methods;
+	private final Dimension mimeTypes;
+	private final long[] anyStatus;
+	private final long[][] statuses = new long[MAX_STATUS + 1][];
+	// Rules with status ranges which end above MAX_STATUS
+	private final List<FilterRule> highStatusRules = new ArrayList<>();
+	private final List<Integer> highStatusIndexes = new ArrayList<>();
+	private final PathNode paths = new PathNode();
+	private final long[] anyPath;
+
+	/**
+	 * Rule bitsets of one condition type.
+	 */
+	private static class Dimension {
+		private final Map<String, long[]> values = new HashMap<>();
+		private final long[] any;
+		private final int words;
+
+		private Dimension(int words) {
+			this.words = words;
+			any = new long[words];
+		}
+
+		private void add(@Nullable String value, int rule) {
+			if (value == null) {
+				set(any, rule);
+			} else {
+				set(values.computeIfAbsent(value, v -> new long[words]), rule);
+			}
+		}
+
+		private void complete() {
+			values.values().forEach(bits -> or(bits, any));
+		}
+
+		@Nonnull
+		private long[] get(@Nullable String value) {
+			return value == null ? any : values.getOrDefault(value, any);
+		}
+	}
+
+	/**
+	 * Path trie node, segment by segment.
+	 */
+	private static class PathNode {
+		private final Map<String, PathNode> children = new HashMap<>();
+		private PathNode wildcard;
+		private long[] exact;
+		private long[] prefix;
+	}
+
+	/**
+	 * Compile rules into an index.
+	 *
+	 * @param rules filter rules
+	 */
+	public FilterIndex(@Nonnull List<FilterRule> rules) {
+		empty = rules.isEmpty();
+		words = Math.max((rules.size() + 63) / 64, 1);
+		hosts = new Dimension(words);
+		methods = new Dimension(words);
+		mimeTypes = new Dimension(words);
+		anyStatus = new long[words];
+		anyPath = new long[words];
+		for (int i = 0; i < rules.size(); i++) {
+			FilterRule rule = rules.get(i);
+			hosts.add(rule.getHost(), i);
+			methods.add(rule.getMethod(), i);
+			mimeTypes.add(rule.getMimeType(), i);
+			if (rule.getStatusFrom() < 0) {
+				set(anyStatus, i);
+			} else {
+				for (int status = rule.getStatusFrom(); status <= Math.min(rule.getStatusTo(), MAX_STATUS); status++) {
+					if (statuses[status] == null) {
+						statuses[status] = new long[words];
+					}
+					set(statuses[status], i);
+				}
+				if (rule.getStatusTo() > MAX_STATUS) {
+					highStatusRules.add(rule);
+					highStatusIndexes.add(i);
+				}
+			}
+			if (rule.getPathPrefix() != null) {
+				addPath(rule.getPathPrefix(), i, true);
+			} else if (rule.getPathGlob() != null) {
+				addPath(rule.getPathGlob(), i, false);
+			} else {
+				set(anyPath, i);
+			}
+		}
+		hosts.complete();
+		methods.complete();
+		mimeTypes.complete();
+		for (long[] bits : statuses) {
+			if (bits != null) {
+				or(bits, anyStatus);
+			}
+		}
+	}
+
+	private static void set(@Nonnull long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	private static void or(@Nonnull long[] target, @Nonnull long[] source) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] |= source[i];
+		}
+	}
+
+	@Nonnull
+	private static List<String> toSegments(@Nonnull String path) {
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			if (i == path.length() || path.charAt(i) == '/') {
+				if (i > start) {
+					segments.add(path.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		return segments;
+	}
+
+	private void addPath(@Nonnull String pattern, int rule, boolean prefix) {
+		List<String> segments = toSegments(pattern);
+		PathNode node = paths;
+		for (int i = 0; i < segments.size(); i++) {
+			String segment = segments.get(i);
+			if (!prefix && "**".equals(segment) && i == segments.size() - 1) {
+				prefix = true;
+				break;
+			}
+			if (!prefix && "*".equals(segment)) {
+				if (node.wildcard == null) {
+					node.wildcard = new PathNode();
+				}
+				node = node.wildcard;
+			} else {
+				node = node.children.computeIfAbsent(segment, s -> new PathNode());
+			}
+		}
+		if (prefix) {
+			if (node.prefix == null) {
+				node.prefix = new long[words];
+			}
+			set(node.prefix, rule);
+		} else {
+			if (node.exact == null) {
+				node.exact = new long[words];
+			}
+			set(node.exact, rule);
+		}
+	}
+
+	private static void matchPath(@Nonnull PathNode node, @Nonnull List<String> segments, int index, @Nonnull long[] result) {
+		if (node.prefix != null) {
+			or(result, node.prefix);
+		}
+		if (index == segments.size()) {
+			if (node.exact != null) {
+				or(result, node.exact);
+			}
+			return;
+		}
+		PathNode child = node.children.get(segments.get(index));
+		if (child != null) {
+			matchPath(child, segments, index + 1, result);
+		}
+		if (node.wildcard != null) {
+			matchPath(node.wildcard, segments, index + 1, result);
+		}
+	}
+
+	@Nonnull
+	private long[] highStatusBits(int status) {
+		if (highStatusRules.isEmpty()) {
+			return anyStatus;
+		}
+		long[] bits = Arrays.copyOf(anyStatus, words);
+		for (int i = 0; i < highStatusRules.size(); i++) {
+			FilterRule rule = highStatusRules.get(i);
+			if (rule.getStatusFrom() <= status && status <= rule.getStatusTo()) {
+				set(bits, highStatusIndexes.get(i));
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * @return <code>true</code> if the index has no rules
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Find the first rule which matches the given exchange attributes.
+	 *
+	 * @param host     lower-case host name, <code>null</code> or an empty string if unknown
+	 * @param method   upper-case HTTP method, <code>null</code> if unknown
+	 * @param path     request path without query, <code>null</code> if unknown
+	 * @param status   response status code, a negative value for requests
+	 * @param mimeType lower-case MIME type, <code>null</code> if there is no body
+	 * @return index of the first matching rule in the list the index was compiled from, or -1 if no rule matches
+	 */
+	public int firstMatch(@Nullable String host, @Nullable String method, @Nullable String path, int status,
+			@Nullable String mimeType) {
+		if (empty) {
+			return -1;
+		}
+		long[] result = new long[words];
+		if (path != null) {
+			matchPath(paths, toSegments(path), 0, result);
+		}
+		or(result, anyPath);
+		long[] statusBits = status > MAX_STATUS ?
+				highStatusBits(status) :
+				status >= 0 && statuses[status] != null ? statuses[status] : anyStatus;
+		long[] hostBits = hosts.get(host);
+		long[] methodBits = methods.get(method);
+		long[] mimeTypeBits = mimeTypes.get(mimeType);
+		for (int i = 0; i < words; i++) {
+			long matched = result[i] & statusBits[i] & hostBits[i] & methodBits[i] & mimeTypeBits[i];
+			if (matched != 0) {
+				return (i << 6) + Long.numberOfTrailingZeros(matched);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Check if any rule matches the given exchange attributes.
+	 *
+	 * @param host     lower-case host name, <code>null</code> or an empty string if unknown
+	 * @param method   upper-case HTTP method, <code>null</code> if unknown
+	 * @param path     request path without query, <code>null</code> if unknown
+	 * @param status   response status code, a negative value for requests
+	 * @param mimeType lower-case MIME type, <code>null</code> if there is no body
+	 * @return <code>true</code> if at least one rule matches
+	 */
+	public boolean matches(@Nullable String host, @Nullable String method, @Nullable String path, int status,
+			@Nullable String mimeType) {
+		return firstMatch(host, method, path, status, mimeType) >= 0;
+	}
+
+	@Nonnull
+	private static String getHostName(@Nonnull String target) {
+		int scheme = target.indexOf("://");
+		int start = scheme < 0 ? 0 : scheme + 3;
+		if (start < target.length() && target.charAt(start) == '[') {
+			int end = target.indexOf(']', start);
+			return end < 0 ? target.substring(start) : target.substring(start, end + 1);
+		}
+		int end = target.length();
+		for (int i = start; i < target.length(); i++) {
+			char c = target.charAt(i);
+			if (c == ':' || c == '/' || c == '?' || c == '#') {
+				end = i;
+				break;
+			}
+		}
+		return target.substring(start, end);
+	}
+
+	/**
+	 * Get the target host name of an exchange. The target host attribute is usually an {@link HttpHost}, but can be a
+	 * URI string if it was set by the application.
+	 *
+	 * @param context HTTP context
+	 * @return lower-case host name, or an empty string if the host is unknown
+	 */
+	@Nonnull
+	static String getHost(@Nonnull HttpContext context) {
+		Object target = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+		String host;
+		if (target instanceof HttpHost) {
+			host = ((HttpHost) target).getHostName();
+		} else if (target instanceof String) {
+			host = getHostName((String) target);
+		} else {
+			return "";
+		}
+		return host == null ? "" : host.toLowerCase(Locale.ROOT);
+	}
+
+	@Nonnull
+	static String getPath(@Nonnull RequestLine requestLine) {
+		String uri = requestLine.getUri();
+		int start = 0;
+		int scheme = uri.indexOf("://");
+		if (scheme >= 0) {
+			start = uri.indexOf('/', scheme + 3);
+			if (start < 0) {
+				return "/";
+			}
+		}
+		int end = uri.length();
+		for (int i = start; i < uri.length(); i++) {
+			char c = uri.charAt(i);
+			if (c == '?' || c == '#') {
+				end = i;
+				break;
+			}
+		}
+		return uri.substring(start, end);
+	}
+
+	@Nullable
+	static String getMimeType(@Nullable HttpEntity entity) {
+		return ofNullable(entity).map(HttpEntity::getContentType)
+				.map(NameValuePair::getValue)
+				.map(ContentTypeCache::get)
+				.map(ContentTypeCache.Descriptor::getMimeType)
+				.map(t -> t.toLowerCase(Locale.ROOT))
+				.orElse(null);
+	}
+
+	/**
+	 * Find the first rule which matches a request.
+	 *
+	 * @param request HTTP request
+	 * @param context HTTP context
+	 * @return index of the first matching rule, or -1 if no rule matches
+	 */
+	public int firstMatch(@Nonnull HttpRequest request, @Nonnull HttpContext context) {
+		if (empty) {
+			return -1;
+		}
+		RequestLine requestLine = request.getRequestLine();
+		return firstMatch(
+				getHost(context),
+				requestLine.getMethod().toUpperCase(Locale.ROOT),
+				getPath(requestLine),
+				-1,
+				request instanceof HttpEntityEnclosingRequest ? getMimeType(((HttpEntityEnclosingRequest) request).getEntity()) : null
+		);
+	}
+
+	/**
+	 * Check if any rule matches a request.
+	 *
+	 * @param request HTTP request
+	 * @param context HTTP context
+	 * @return <code>true</code> if at least one rule matches
+	 */
+	public boolean matches(@Nonnull HttpRequest request, @Nonnull HttpContext context) {
+		return firstMatch(request, context) >= 0;
+	}
+
+	/**
+	 * Find the first rule which matches a response. Method and path are taken from the request stored in the context.
+	 *
+	 * @param response HTTP response
+	 * @param context  HTTP context
+	 * @return index of the first matching rule, or -1 if no rule matches
+	 */
+	public int firstMatch(@Nonnull HttpResponse response, @Nonnull HttpContext context) {
+		if (empty) {
+			return -1;
+		}
+		RequestLine requestLine = ofNullable(HttpCoreContext.adapt(context).getRequest()).map(HttpRequest::getRequestLine)
+				.orElse(null);
+		return firstMatch(
+				getHost(context),
+				ofNullable(requestLine).map(RequestLine::getMethod).map(m -> m.toUpperCase(Locale.ROOT)).orElse(null),
+				ofNullable(requestLine).map(FilterIndex::getPath).orElse(null),
+				ofNullable(response.getStatusLine()).map(StatusLine::getStatusCode).orElse(-1),
+				getMimeType(response.getEntity())
+		);
+	}
+
+	/**
+	 * Check if any rule matches a response. Method and path are taken from the request stored in the context.
+	 *
+	 * @param response HTTP response
+	 * @param context  HTTP context
+	 * @return <code>true</code> if at least one rule matches
+	 */
+	public boolean matches(@Nonnull HttpResponse response, @Nonnull HttpContext context) {
+		return firstMatch(response, context) >= 0;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * Declarative log filter rule. A rule matches an HTTP exchange if all its conditions match, a condition which is not
+ * set matches anything. Unlike opaque {@link java.util.function.Predicate} filters, rules are compiled into a
+ * {@link FilterIndex}, so the number of rules does not affect filtering time.
+ * <p>
+ * Path patterns are matched by path segments, a query string is ignored:
+ * <ul>
+ *     <li>a prefix <code>/api/health</code> matches <code>/api/health</code> and <code>/api/health/db</code>, but not
+ *     <code>/api/healthz</code></li>
+ *     <li>a glob <code>/api/&#42;/status</code> matches exactly one segment in place of <code>&#42;</code>, a glob
+ *     <code>/static/&#42;&#42;</code> matches any number of trailing segments</li>
+ * </ul>
+ */
+public class FilterRule {
+
+	private final String host;
+	private final String method;
+	private final String pathPrefix;
+	private final String pathGlob;
+	private final int statusFrom;
+	private final int statusTo;
+	private final String mimeType;
+
+	private FilterRule(@Nonnull Builder builder) {
+		host = builder.host;
+		method = builder.method;
+		pathPrefix = builder.pathPrefix;
+		pathGlob = builder.pathGlob;
+		statusFrom = builder.statusFrom;
+		statusTo = builder.statusTo;
+		mimeType = builder.mimeType;
+	}
+
+	/**
+	 * @return lower-case host name or <code>null</code> if any host matches
+	 */
+	@Nullable
+	public String getHost() {
+		return host;
+	}
+
+	/**
+	 * @return upper-case HTTP method or <code>null</code> if any method matches
+	 */
+	@Nullable
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return path prefix or <code>null</code> if not set
+	 */
+	@Nullable
+	public String getPathPrefix() {
+		return pathPrefix;
+	}
+
+	/**
+	 * @return path glob or <code>null</code> if not set
+	 */
+	@Nullable
+	public String getPathGlob() {
+		return pathGlob;
+	}
+
+	/**
+	 * @return the first status code of the matching range, a negative value if any status matches
+	 */
+	public int getStatusFrom() {
+		return statusFrom;
+	}
+
+	/**
+	 * @return the last status code of the matching range, inclusive
+	 */
+	public int getStatusTo() {
+		return statusTo;
+	}
+
+	/**
+	 * @return lower-case MIME type without parameters or <code>null</code> if any content type matches
+	 */
+	@Nullable
+	public String getMimeType() {
+		return mimeType;
+	}
+
+	@Nonnull
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+		private String host;
+		private String method;
+		private String pathPrefix;
+		private String pathGlob;
+		private int statusFrom = -1;
+		private int statusTo = -1;
+		private String mimeType;
+
+		/**
+		 * @param host host name to match, case-insensitive
+		 * @return self instance for convenience
+		 */
+		public Builder host(@Nonnull String host) {
+			this.host = host.toLowerCase(Locale.ROOT);
+			return this;
+		}
+
+		/**
+		 * @param method HTTP method to match, case-insensitive
+		 * @return self instance for convenience
+		 */
+		public Builder method(@Nonnull String method) {
+			this.method = method.toUpperCase(Locale.ROOT);
+			return this;
+		}
+
+		/**
+		 * Match paths which start with the given segments. Replaces a glob set before.
+		 *
+		 * @param prefix path prefix
+		 * @return self instance for convenience
+		 */
+		public Builder pathPrefix(@Nonnull String prefix) {
+			pathPrefix = prefix;
+			pathGlob = null;
+			return this;
+		}
+
+		/**
+		 * Match paths by a glob, where <code>&#42;</code> stands for a single segment and a trailing
+		 * <code>&#42;&#42;</code> stands for any number of segments. Replaces a prefix set before.
+		 *
+		 * @param glob path glob
+		 * @return self instance for convenience
+		 */
+		public Builder pathGlob(@Nonnull String glob) {
+			pathGlob = glob;
+			pathPrefix = null;
+			return this;
+		}
+
+		/**
+		 * @param status response status code to match
+		 * @return self instance for convenience
+		 */
+		public Builder status(int status) {
+			return statusRange(status, status);
+		}
+
+		/**
+		 * @param from the first status code to match
+		 * @param to   the last status code to match, inclusive
+		 * @return self instance for convenience
+		 */
+		public Builder statusRange(int from, int to) {
+			if (from < 0 || to < from) {
+				throw new IllegalArgumentException("Invalid status range: " + from + "-" + to);
+			}
+			statusFrom = from;
+			statusTo = to;
+			return this;
+		}
+
+		/**
+		 * @param mimeType MIME type to match, case-insensitive, without parameters
+		 * @return self instance for convenience
+		 */
+		public Builder contentType(@Nonnull String mimeType) {
+			this.mimeType = mimeType.toLowerCase(Locale.ROOT);
+			return this;
+		}
+
+		public FilterRule build() {
+			return new FilterRule(this);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Masks values of <code>application/x-www-form-urlencoded</code> parameters with redacted names. Names are matched by
+ * their raw, URL-encoded bytes.
+ */
+class FormRedactingStream extends RedactingStream {
+
+	private final NameTrie<Boolean> names;
+	private NameTrie.Node<Boolean> cursor;
+	private boolean name = true;
+	private boolean skip;
+
+	FormRedactingStream(@Nonnull NameTrie<Boolean> names, @Nonnull CaptureBuffer target) {
+		super(target);
+		this.names = names;
+		this.cursor = names.getRoot();
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		int end = off + len;
+		int runStart = off;
+		for (int i = off; i < end; i++) {
+			byte c = b[i];
+			if (c == '&') {
+				if (skip) {
+					skip = false;
+					runStart = i;
+				}
+				name = true;
+				cursor = names.getRoot();
+			} else if (name) {
+				if (c == '=') {
+					name = false;
+					if (cursor != null && cursor.getValue() != null) {
+						target.write(b, runStart, i + 1 - runStart);
+						target.write(REPLACEMENT, 0, REPLACEMENT.length);
+						skip = true;
+					}
+				} else if (cursor != null) {
+					cursor = cursor.next(c);
+				}
+			}
+		}
+		if (!skip) {
+			target.write(b, runStart, end - runStart);
+		}
+	}
+}
@@ -21,24 +21,21 @@ import com.epam.reportportal.formatting.http.entities.BodyType;
 import com.epam.reportportal.formatting.http.entities.Cookie;
 import com.epam.reportportal.formatting.http.entities.Header;
 import com.epam.reportportal.formatting.http.entities.Param;
-import com.epam.reportportal.listeners.LogLevel;
-import com.epam.reportportal.service.ReportPortal;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.*;
-import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpCoreContext;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static com.epam.reportportal.formatting.http.HttpFormatUtils.*;
 import static java.util.Optional.ofNullable;
@@ -46,180 +43,173 @@ import static java.util.Optional.ofNullable;
 public class HttpEntityFactory {
 
 	@Nonnull
-	private static Charset getCharset(@Nullable String contentTypeValue) {
-		return ofNullable(contentTypeValue).flatMap(h -> toKeyValue(h).filter(p -> "charset".equalsIgnoreCase(p.getKey())).findAny())
-				.map(Pair::getValue)
-				.map(Charset::forName)
-				.orElse(StandardCharsets.UTF_8);
-	}
-
-	@Nonnull
-	private static Charset getCharset(@Nonnull HttpEntity httpEntity) {
-		return ofNullable(httpEntity.getContentType()).map(h -> getCharset(h.getValue())).orElse(StandardCharsets.UTF_8);
+	private static CapturedBody capture(@Nonnull HttpEntity httpEntity, @Nonnull CapturedBody body,
+			@Nonnull CaptureOptions options) {
+		long start = System.nanoTime();
+		CaptureBuffer view = null;
+		if (httpEntity instanceof CapturingHttpEntity) {
+			view = ((CapturingHttpEntity) httpEntity).view(options);
+		} else if (httpEntity instanceof FileBufferedHttpEntity) {
+			view = ((FileBufferedHttpEntity) httpEntity).view(options);
+		}
+		if (view == null || !body.use(view)) {
+			try {
+				httpEntity.writeTo(body);
+			} catch (IOException e) {
+				body.fail(e);
+			}
+		}
+		options.getMetricsListener().captureTime(System.nanoTime() - start);
+		return body;
 	}
 
 	@Nullable
-	private static byte[] toBytes(@Nonnull HttpEntity httpEntity) {
-		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			httpEntity.writeTo(baos);
-			return baos.toByteArray();
-		} catch (IOException e) {
-			ReportPortal.emitLog(
-					"Unable to read HTTP entity: " + ExceptionUtils.getStackTrace(e),
-					LogLevel.WARN.name(),
-					java.time.Instant.now()
-			);
+	private static HttpEntity cacheEntity(@Nullable HttpEntity httpEntity, @Nonnull CaptureOptions options) {
+		if (httpEntity == null) {
 			return null;
 		}
+		if (!httpEntity.isRepeatable()) {
+			try {
+				HttpEntity buffered = options.getSpillThreshold() >= 0 ?
+						FileBufferedHttpEntity.buffer(httpEntity, options.getSpillThreshold(), options.getSpillDirectory()) :
+						CapturingHttpEntity.buffer(httpEntity);
+				options.getMetricsListener().buffered(buffered.getContentLength());
+				return buffered;
+			} catch (IOException e) {
+				AsyncLogDispatcher.warn("Unable to read HTTP entity: " + ExceptionUtils.getStackTrace(e));
+				return null;
+			}
+		}
+		return httpEntity;
 	}
 
-	@Nullable
-	private static String toString(@Nonnull HttpEntity httpEntity, @Nonnull Charset charset) {
-		return ofNullable(toBytes(httpEntity)).map(b -> new String(b, charset)).orElse(null);
-	}
-
-	@Nullable
-	private static String toString(@Nonnull HttpEntity httpEntity) {
-		Charset charset = getCharset(httpEntity);
-		return toString(httpEntity, charset);
+	@Nonnull
+	private static HttpResponse cacheEntity(@Nonnull HttpResponse response, @Nonnull CaptureOptions options) {
+		response.setEntity(cacheEntity(response.getEntity(), options));
+		return response;
 	}
 
 	@Nonnull
-	private static List<Param> toParams(@Nonnull HttpEntity httpEntity) {
-		String body = toString(httpEntity, StandardCharsets.ISO_8859_1);
-		return HttpFormatUtils.toForm(body, ofNullable(httpEntity.getContentType()).map(NameValuePair::getValue).orElse(null));
+	private static HttpEntityEnclosingRequest cacheEntity(@Nonnull HttpEntityEnclosingRequest request,
+			@Nonnull CaptureOptions options) {
+		request.setEntity(cacheEntity(request.getEntity(), options));
+		return request;
 	}
 
 	@Nullable
-	private static String getBoundary(@Nonnull HttpEntity httpEntity) {
-		return ofNullable(httpEntity.getContentType()).flatMap(h -> toKeyValue(h.getValue()).filter(p -> "boundary".equalsIgnoreCase(p.getKey()))
-				.findAny()).map(Pair::getValue).orElse(null);
+	private static String getContentType(@Nonnull HttpEntity httpEntity) {
+		return ofNullable(httpEntity.getContentType()).map(NameValuePair::getValue).orElse(null);
 	}
 
-	private static boolean isMatch(@Nonnull byte[] pattern, @Nonnull byte[] input, int pos) {
-		for (int i = 0; i < pattern.length; i++) {
-			if (pattern[i] != input[pos + i]) {
-				return false;
-			}
-		}
-		return true;
+	@Nullable
+	private static String getContentEncoding(@Nonnull HttpEntity httpEntity) {
+		return ofNullable(httpEntity.getContentEncoding()).map(NameValuePair::getValue).orElse(null);
 	}
 
-	private static List<byte[]> split(byte[] pattern, byte[] input, int limit) {
-		List<byte[]> result = new ArrayList<>();
-		if (limit == 0) {
-			return result;
-		}
-		int blockStart = 0;
-		int matchCount = 0;
-		for (int i = 0; i < input.length; i++) {
-			if (isMatch(pattern, input, i)) {
-				result.add(Arrays.copyOfRange(input, blockStart, i));
-				blockStart = i + pattern.length;
-				i = blockStart;
-				if (limit > 0) {
-					if (++matchCount >= limit) {
-						break;
-					}
-				}
-			}
-		}
-		result.add(Arrays.copyOfRange(input, blockStart, input.length));
-		return result;
+	@Nonnull
+	private static CapturedBody setRequestBody(@Nonnull HttpRequestFormatter.Builder builder, @Nonnull HttpEntity httpEntity,
+			@Nullable Function<Header, String> partHeaderConverter, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nonnull CaptureOptions options, @Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		CapturedBody body = capture(httpEntity, createRequestBody(httpEntity, partHeaderConverter, bodyTypeMap, options), options);
+		body.applyTo(builder, contentPrettifiers);
+		return body;
 	}
 
+	/**
+	 * Copy an HTTP request, so it can be formatted later on a different thread. A non-repeatable entity of the original
+	 * request is buffered and replaced with a repeatable one, which is shared with the copy.
+	 *
+	 * @param request        HTTP request
+	 * @param captureOptions body capture options
+	 * @return request copy
+	 */
 	@Nonnull
-	private static List<HttpPartFormatter> toParts(@Nonnull HttpEntity httpEntity, @Nonnull Map<String, BodyType> bodyTypeMap,
-			@Nullable Function<Header, String> partHeaderConverter) {
-		return ofNullable(getBoundary(httpEntity)).map(boundary -> {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			try {
-				httpEntity.writeTo(baos);
-			} catch (IOException ignore) {
-				// The entity should be already cached at this point
-			}
-			List<byte[]> parts = split(("--" + boundary).getBytes(Charset.defaultCharset()), baos.toByteArray(), -1);
-			if (Arrays.equals(parts.get(parts.size() - 1), new byte[] { '-', '-', '\r', '\n' })) {
-				parts = parts.subList(0, parts.size() - 1);
-			}
-			return parts.stream().skip(1).map(bytes -> Arrays.copyOfRange(bytes, 2, bytes.length - 2)).map(bytes -> {
-				List<byte[]> headerBody = split("\r\n\r\n".getBytes(Charset.defaultCharset()), bytes, 1);
-				List<Header> headers = split("\r\n".getBytes(Charset.defaultCharset()), headerBody.get(0), -1).stream()
-						.map(headerBytes -> new String(headerBytes, StandardCharsets.ISO_8859_1))
-						.map(HttpFormatUtils::toHeader)
-						.collect(Collectors.toList());
-				return Pair.of(headers, headerBody.get(1));
-			}).map(part -> {
-				String contentType = part.getKey()
-						.stream()
-						.filter(h -> HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(h.getName()))
-						.findAny()
-						.map(Header::getValue)
-						.orElse(null);
-				Charset charset = getCharset(contentType);
-				String mimeType = getMimeType(contentType);
-				BodyType bodyType = getBodyType(contentType, bodyTypeMap);
-				HttpPartFormatter.Builder partBuilder;
-				if (BodyType.TEXT == bodyType) {
-					partBuilder = new HttpPartFormatter.Builder(
-							HttpPartFormatter.PartType.TEXT,
-							mimeType,
-							new String(part.getValue(), charset)
-					);
-				} else {
-					partBuilder = new HttpPartFormatter.Builder(HttpPartFormatter.PartType.BINARY, mimeType, part.getValue());
-				}
-				part.getKey().forEach(partBuilder::addHeader);
-				partBuilder.charset(charset.name());
-				partBuilder.headerConverter(partHeaderConverter);
-				return partBuilder.build();
-			}).collect(Collectors.toList());
-		}).orElse(Collections.emptyList());
+	public static HttpRequest copyHttpRequest(@Nonnull HttpRequest request, @Nonnull CaptureOptions captureOptions) {
+		HttpRequest copy;
+		if (request instanceof HttpEntityEnclosingRequest) {
+			BasicHttpEntityEnclosingRequest enclosingCopy = new BasicHttpEntityEnclosingRequest(request.getRequestLine());
+			enclosingCopy.setEntity(cacheEntity((HttpEntityEnclosingRequest) request, captureOptions).getEntity());
+			copy = enclosingCopy;
+		} else {
+			copy = new BasicHttpRequest(request.getRequestLine());
+		}
+		copy.setHeaders(request.getAllHeaders());
+		return copy;
 	}
 
-	@Nullable
-	private static HttpEntity cacheEntity(@Nullable HttpEntity httpEntity) {
-		if (httpEntity == null) {
-			return null;
-		}
-		if (!httpEntity.isRepeatable()) {
-			try {
-				return new BufferedHttpEntity(httpEntity);
-			} catch (IOException e) {
-				ReportPortal.emitLog(
-						"Unable to read HTTP entity: " + ExceptionUtils.getStackTrace(e),
-						LogLevel.WARN.name(),
-						java.time.Instant.now()
-				);
-				return null;
-			}
+	/**
+	 * Copy an HTTP request without buffering its entity, so it can be logged later without additional memory cost. A
+	 * repeatable entity is shared with the copy, a non-repeatable one is omitted, because it is consumed by the time the
+	 * copy is logged.
+	 *
+	 * @param request HTTP request
+	 * @return request copy
+	 */
+	@Nonnull
+	public static HttpRequest copyHttpRequestHead(@Nonnull HttpRequest request) {
+		HttpRequest copy;
+		if (request instanceof HttpEntityEnclosingRequest) {
+			BasicHttpEntityEnclosingRequest enclosingCopy = new BasicHttpEntityEnclosingRequest(request.getRequestLine());
+			ofNullable(((HttpEntityEnclosingRequest) request).getEntity()).filter(HttpEntity::isRepeatable)
+					.ifPresent(enclosingCopy::setEntity);
+			copy = enclosingCopy;
+		} else {
+			copy = new BasicHttpRequest(request.getRequestLine());
 		}
-		return httpEntity;
+		copy.setHeaders(request.getAllHeaders());
+		return copy;
 	}
 
+	/**
+	 * Copy an HTTP response, so it can be formatted later on a different thread. A non-repeatable entity of the original
+	 * response is buffered and replaced with a repeatable one, which is shared with the copy.
+	 *
+	 * @param response       HTTP response
+	 * @param captureOptions body capture options
+	 * @return response copy
+	 */
 	@Nonnull
-	private static HttpResponse cacheEntity(@Nonnull HttpResponse response) {
-		response.setEntity(cacheEntity(response.getEntity()));
-		return response;
+	public static HttpResponse copyHttpResponse(@Nonnull HttpResponse response, @Nonnull CaptureOptions captureOptions) {
+		BasicHttpResponse copy = new BasicHttpResponse(response.getStatusLine());
+		copy.setHeaders(response.getAllHeaders());
+		copy.setEntity(cacheEntity(response, captureOptions).getEntity());
+		return copy;
 	}
 
+	/**
+	 * Copy HTTP context attributes which are used in logs.
+	 *
+	 * @param context HTTP context
+	 * @return context copy
+	 */
 	@Nonnull
-	private static HttpEntityEnclosingRequest cacheEntity(@Nonnull HttpEntityEnclosingRequest request) {
-		request.setEntity(cacheEntity(request.getEntity()));
-		return request;
+	public static HttpContext copyHttpContext(@Nonnull HttpContext context) {
+		HttpContext copy = new BasicHttpContext();
+		ofNullable(context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST)).ifPresent(host -> copy.setAttribute(
+				HttpCoreContext.HTTP_TARGET_HOST,
+				host
+		));
+		return copy;
 	}
 
+	/**
+	 * Create a request formatter builder with request line, headers and cookies, but without a body.
+	 *
+	 * @param request            HTTP request
+	 * @param uri                request URI to log
+	 * @param uriConverter       URI converter
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param paramConverter     form parameter converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @return request formatter builder
+	 */
 	@Nonnull
-	public static HttpFormatter createHttpRequestFormatter(@Nonnull HttpRequest request, @Nonnull HttpContext context,
+	public static HttpRequestFormatter.Builder createRequestBuilder(@Nonnull HttpRequest request, @Nonnull String uri,
 			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
 			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
-			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nullable Function<Header, String> partHeaderConverter,
-			@Nonnull Map<String, BodyType> bodyTypeMap) {
-		HttpRequestFormatter.Builder builder = new HttpRequestFormatter.Builder(
-				request.getRequestLine().getMethod(),
-				ofNullable(context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST)).orElse("") + request.getRequestLine().getUri()
-		);
+			@Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		HttpRequestFormatter.Builder builder = new HttpRequestFormatter.Builder(request.getRequestLine().getMethod(), uri);
 		ofNullable(request.getAllHeaders()).ifPresent(headers -> Arrays.stream(headers)
 				.filter(h -> !isCookie(h.getName()))
 				.forEach(h -> builder.addHeader(h.getName(), h.getValue())));
@@ -232,45 +222,135 @@ public class HttpEntityFactory {
 				.cookieConverter(cookieConverter)
 				.paramConverter(paramConverter)
 				.prettifiers(contentPrettifiers);
+		return builder;
+	}
+
+	/**
+	 * Create a request formatter without a body. The entity is neither read nor buffered.
+	 *
+	 * @param request            HTTP request
+	 * @param context            HTTP context
+	 * @param uriConverter       URI converter
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param paramConverter     form parameter converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @param headers            <code>true</code> to log headers and cookies, <code>false</code> to log the request line
+	 *                           only
+	 * @return request formatter
+	 */
+	@Nonnull
+	public static HttpFormatter createHttpRequestHeadFormatter(@Nonnull HttpRequest request, @Nonnull HttpContext context,
+			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
+			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, boolean headers) {
+		String uri = ofNullable(context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST)).orElse("") + request.getRequestLine().getUri();
+		if (headers) {
+			return createRequestBuilder(
+					request,
+					uri,
+					uriConverter,
+					headerConverter,
+					cookieConverter,
+					paramConverter,
+					contentPrettifiers
+			).build();
+		}
+		return new HttpRequestFormatter.Builder(request.getRequestLine().getMethod(), uri).uriConverter(uriConverter).build();
+	}
+
+	/**
+	 * Create an empty request body capture target for an entity. The entity itself is not read.
+	 *
+	 * @param httpEntity          request entity
+	 * @param partHeaderConverter multipart part header converter
+	 * @param bodyTypeMap         MIME type to body type map
+	 * @param captureOptions      body capture options
+	 * @return body capture target
+	 */
+	@Nonnull
+	public static CapturedBody createRequestBody(@Nonnull HttpEntity httpEntity, @Nullable Function<Header, String> partHeaderConverter,
+			@Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions captureOptions) {
+		return CapturedBody.forRequest(
+				getContentType(httpEntity),
+				httpEntity.getContentLength(),
+				bodyTypeMap,
+				partHeaderConverter,
+				captureOptions
+		);
+	}
+
+	@Nonnull
+	public static HttpFormatter createHttpRequestFormatter(@Nonnull HttpRequest request, @Nonnull HttpContext context,
+			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
+			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nullable Function<Header, String> partHeaderConverter,
+			@Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions captureOptions) {
+		HttpRequestFormatter.Builder builder = createRequestBuilder(
+				request,
+				ofNullable(context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST)).orElse("") + request.getRequestLine().getUri(),
+				uriConverter,
+				headerConverter,
+				cookieConverter,
+				paramConverter,
+				contentPrettifiers
+		);
 
 		if (!(request instanceof HttpEntityEnclosingRequest)) {
 			return builder.build();
 		}
 
-		HttpEntity httpEntity = cacheEntity(((HttpEntityEnclosingRequest) request)).getEntity();
+		HttpEntity httpEntity = cacheEntity((HttpEntityEnclosingRequest) request, captureOptions).getEntity();
 		if (httpEntity == null) {
 			return builder.build();
 		}
 
-		String contentType = ofNullable(httpEntity.getContentType()).map(NameValuePair::getValue).orElse(null);
-		String type = getMimeType(contentType);
-		BodyType bodyType = getBodyType(contentType, bodyTypeMap);
-		switch (bodyType) {
-			case TEXT:
-				builder.bodyText(type, toString(httpEntity));
-				break;
-			case FORM:
-				builder.bodyParams(toParams(httpEntity));
-				break;
-			case MULTIPART:
-				toParts(httpEntity, bodyTypeMap, partHeaderConverter).forEach(builder::addBodyPart);
-				break;
-			default:
-				builder.bodyBytes(type, toBytes(httpEntity));
-		}
-		return builder.build();
+		return setRequestBody(builder, httpEntity, partHeaderConverter, bodyTypeMap, captureOptions, contentPrettifiers).annotate(
+				builder.build());
 	}
 
 	@Nonnull
-	@SuppressWarnings("unused")
-	public static HttpFormatter createHttpResponseFormatter(@Nonnull HttpResponse response, @Nonnull HttpContext context,
-			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
-			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nonnull Map<String, BodyType> bodyTypeMap) {
-		StatusLine statusLine = response.getStatusLine();
-		HttpResponseFormatter.Builder builder = new HttpResponseFormatter.Builder(
+	public static HttpFormatter createHttpRequestFormatter(@Nonnull HttpRequest request, @Nonnull HttpContext context,
+			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
+			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nullable Function<Header, String> partHeaderConverter,
+			@Nonnull Map<String, BodyType> bodyTypeMap) {
+		return createHttpRequestFormatter(
+				request,
+				context,
+				uriConverter,
+				headerConverter,
+				cookieConverter,
+				paramConverter,
+				contentPrettifiers,
+				partHeaderConverter,
+				bodyTypeMap,
+				CaptureOptions.DEFAULT
+		);
+	}
+
+	@Nonnull
+	private static HttpResponseFormatter.Builder createStatusLineBuilder(@Nonnull StatusLine statusLine) {
+		return new HttpResponseFormatter.Builder(
 				statusLine.getStatusCode(),
 				statusLine.getProtocolVersion().toString() + " " + statusLine.getStatusCode() + " " + statusLine.getReasonPhrase()
 		);
+	}
+
+	/**
+	 * Create a response formatter builder with status line, headers and cookies, but without a body.
+	 *
+	 * @param response           HTTP response
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @return response formatter builder
+	 */
+	@Nonnull
+	public static HttpResponseFormatter.Builder createResponseBuilder(@Nonnull HttpResponse response,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		HttpResponseFormatter.Builder builder = createStatusLineBuilder(response.getStatusLine());
 		ofNullable(response.getAllHeaders()).ifPresent(headers -> Arrays.stream(headers)
 				.filter(h -> !isSetCookie(h.getName()))
 				.forEach(h -> builder.addHeader(h.getName(), h.getValue())));
@@ -278,20 +358,131 @@ public class HttpEntityFactory {
 				.filter(h -> isSetCookie(h.getName()))
 				.forEach(h -> builder.addCookie(toCookie(h.getValue()))));
 		builder.headerConverter(headerConverter).cookieConverter(cookieConverter).prettifiers(contentPrettifiers);
+		return builder;
+	}
 
-		HttpEntity httpEntity = cacheEntity(response).getEntity();
+	/**
+	 * Create a response formatter without a body. The entity is neither read nor buffered.
+	 *
+	 * @param response           HTTP response
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @param headers            <code>true</code> to log headers and cookies, <code>false</code> to log the status line
+	 *                           only
+	 * @return response formatter
+	 */
+	@Nonnull
+	public static HttpFormatter createHttpResponseHeadFormatter(@Nonnull HttpResponse response,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, boolean headers) {
+		if (headers) {
+			return createResponseBuilder(response, headerConverter, cookieConverter, contentPrettifiers).build();
+		}
+		return createStatusLineBuilder(response.getStatusLine()).build();
+	}
+
+	/**
+	 * Create an empty response body capture target for an entity. The entity itself is not read.
+	 *
+	 * @param httpEntity     response entity
+	 * @param bodyTypeMap    MIME type to body type map
+	 * @param captureOptions body capture options
+	 * @return body capture target
+	 */
+	@Nonnull
+	public static CapturedBody createResponseBody(@Nonnull HttpEntity httpEntity, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nonnull CaptureOptions captureOptions) {
+		return CapturedBody.forResponse(
+				getContentType(httpEntity),
+				getContentEncoding(httpEntity),
+				httpEntity.getContentLength(),
+				bodyTypeMap,
+				captureOptions
+		);
+	}
+
+	@Nonnull
+	private static CapturedBody setResponseBody(@Nonnull HttpResponseFormatter.Builder builder, @Nonnull HttpEntity httpEntity,
+			@Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions options,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		CapturedBody body = capture(httpEntity, createResponseBody(httpEntity, bodyTypeMap, options), options);
+		body.applyTo(builder, contentPrettifiers);
+		return body;
+	}
+
+	@Nonnull
+	public static HttpFormatter createHttpResponseFormatter(@Nonnull HttpResponse response, @Nonnull HttpContext context,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nonnull CaptureOptions captureOptions) {
+		HttpResponseFormatter.Builder builder = createResponseBuilder(response, headerConverter, cookieConverter, contentPrettifiers);
+		HttpEntity httpEntity = cacheEntity(response, captureOptions).getEntity();
 		if (httpEntity == null) {
 			return builder.build();
 		}
+		return setResponseBody(builder, httpEntity, bodyTypeMap, captureOptions, contentPrettifiers).annotate(builder.build());
+	}
 
-		String contentType = ofNullable(httpEntity.getContentType()).map(NameValuePair::getValue).orElse(null);
-		String type = getMimeType(contentType);
-		BodyType bodyType = getBodyType(contentType, bodyTypeMap);
-		if (BodyType.TEXT == bodyType) {
-			builder.bodyText(type, toString(httpEntity));
-		} else {
-			builder.bodyBytes(type, toBytes(httpEntity));
+	@Nonnull
+	@SuppressWarnings("unused")
+	public static HttpFormatter createHttpResponseFormatter(@Nonnull HttpResponse response, @Nonnull HttpContext context,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nonnull Map<String, BodyType> bodyTypeMap) {
+		return createHttpResponseFormatter(
+				response,
+				context,
+				headerConverter,
+				cookieConverter,
+				contentPrettifiers,
+				bodyTypeMap,
+				CaptureOptions.DEFAULT
+		);
+	}
+
+	/**
+	 * Capture an HTTP response without buffering its body up-front. Responses with no entity or with a repeatable entity
+	 * are formatted immediately. A non-repeatable entity is replaced with a {@link TeeHttpEntity}, which copies the body
+	 * while the application reads it, and the formatter is passed to the consumer once the body stream reaches EOF or is
+	 * closed. A body which is closed before EOF is logged as far as it was read, with a truncation note.
+	 *
+	 * @param response           HTTP response
+	 * @param context            HTTP context
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @param bodyTypeMap        MIME type to body type map
+	 * @param captureOptions     body capture options
+	 * @param formatterConsumer  consumer which receives the formatter when the response body is captured
+	 */
+	@SuppressWarnings("unused")
+	public static void captureHttpResponse(@Nonnull HttpResponse response, @Nonnull HttpContext context,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nonnull CaptureOptions captureOptions, @Nonnull Consumer<HttpFormatter> formatterConsumer) {
+		HttpResponseFormatter.Builder builder = createResponseBuilder(response, headerConverter, cookieConverter, contentPrettifiers);
+		HttpEntity httpEntity = response.getEntity();
+		if (httpEntity == null) {
+			formatterConsumer.accept(builder.build());
+			return;
+		}
+		if (httpEntity.isRepeatable()) {
+			formatterConsumer.accept(setResponseBody(
+					builder,
+					httpEntity,
+					bodyTypeMap,
+					captureOptions,
+					contentPrettifiers
+			).annotate(builder.build()));
+			return;
 		}
-		return builder.build();
+		CapturedBody body = createResponseBody(httpEntity, bodyTypeMap, captureOptions);
+		response.setEntity(new TeeHttpEntity<>(httpEntity, body, (captured, eof) -> {
+			if (!eof) {
+				captured.markIncomplete();
+			}
+			captured.applyTo(builder, contentPrettifiers);
+			formatterConsumer.accept(captured.annotate(builder.build()));
+		}));
 	}
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Masks JSON values of fields with redacted paths. The stream tracks JSON nesting and matches each field name against
+ * path tries of the current object while the name is read, so the cost per byte depends on the depth of rule paths
+ * only, not on the number of rules. Array elements share the path of their array. Field names are matched by their raw
+ * bytes, a name with escape sequences matches only a rule with the same escape sequences.
+ * <p>
+ * A masked value of any type, including objects and arrays, is replaced with a string. The stream does not validate
+ * JSON: a malformed body is passed as is as far as it can not be parsed.
+ */
+class JsonRedactingStream extends RedactingStream {
+
+	private static final byte[] QUOTED_REPLACEMENT = ("\"" + RedactionRules.REPLACEMENT + "\"").getBytes(StandardCharsets.US_ASCII);
+
+	private enum Skip {
+		NONE, STRING, SCALAR, CONTAINER
+	}
+
+	private final RedactionRules.JsonPath anywhere;
+
+	// Container stack: kind of each level and path nodes which apply to objects at the level
+	private boolean[] objects = new boolean[16];
+	private RedactionRules.JsonPath[][] levelPaths = new RedactionRules.JsonPath[16][];
+	private int[] levelPathCounts = new int[16];
+	private int depth;
+
+	private boolean expectKey;
+	private boolean expectValue = true;
+	private boolean string;
+	private boolean key;
+	private boolean escape;
+
+	// Field name matching: one trie cursor per path node of the current object
+	@SuppressWarnings("unchecked")
+	private NameTrie.Node<RedactionRules.JsonPath>[] cursors = (NameTrie.Node<RedactionRules.JsonPath>[]) new NameTrie.Node<?>[4];
+	private int cursorCount;
+
+	// Path nodes of the value of the last field name
+	private RedactionRules.JsonPath[] valuePaths = new RedactionRules.JsonPath[4];
+	private int valuePathCount;
+	private boolean redactValue;
+
+	private Skip skip = Skip.NONE;
+	private int skipDepth;
+	private boolean skipString;
+	private boolean skipEscape;
+
+	JsonRedactingStream(@Nonnull RedactionRules.JsonPath root, @Nonnull RedactionRules.JsonPath anywhere, @Nonnull CaptureBuffer target) {
+		super(target);
+		this.anywhere = anywhere;
+		// A top-level object is matched against paths from the root
+		valuePaths[valuePathCount++] = root;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	private void push(boolean object) {
+		if (depth == objects.length) {
+			objects = Arrays.copyOf(objects, depth * 2);
+			levelPaths = Arrays.copyOf(levelPaths, depth * 2);
+			levelPathCounts = Arrays.copyOf(levelPathCounts, depth * 2);
+		}
+		// Objects inside an array get the paths of the array, other containers get the paths of their field
+		RedactionRules.JsonPath[] source = valuePaths;
+		int count = valuePathCount;
+		if (depth > 0 && !objects[depth - 1]) {
+			source = levelPaths[depth - 1];
+			count = levelPathCounts[depth - 1];
+		}
+		int size = object ? count + 1 : count;
+		RedactionRules.JsonPath[] paths = levelPaths[depth];
+		if (paths == null || paths.length < size) {
+			paths = new RedactionRules.JsonPath[Math.max(size, 4)];
+			levelPaths[depth] = paths;
+		}
+		System.arraycopy(source, 0, paths, 0, count);
+		if (object) {
+			paths[count] = anywhere;
+		}
+		objects[depth] = object;
+		levelPathCounts[depth] = size;
+		depth++;
+		valuePathCount = 0;
+	}
+
+	private void startKey() {
+		RedactionRules.JsonPath[] paths = levelPaths[depth - 1];
+		int count = levelPathCounts[depth - 1];
+		if (cursors.length < count) {
+			cursors = Arrays.copyOf(cursors, count);
+		}
+		cursorCount = 0;
+		for (int i = 0; i < count; i++) {
+			cursors[cursorCount++] = paths[i].getNames().getRoot();
+		}
+	}
+
+	private void advanceKey(byte c) {
+		int count = 0;
+		for (int i = 0; i < cursorCount; i++) {
+			NameTrie.Node<RedactionRules.JsonPath> next = cursors[i].next(c);
+			if (next != null) {
+				cursors[count++] = next;
+			}
+		}
+		cursorCount = count;
+	}
+
+	private void finishKey() {
+		valuePathCount = 0;
+		redactValue = false;
+		for (int i = 0; i < cursorCount; i++) {
+			RedactionRules.JsonPath path = cursors[i].getValue();
+			if (path == null) {
+				continue;
+			}
+			if (path.isRedacted()) {
+				redactValue = true;
+			}
+			if (valuePathCount == valuePaths.length) {
+				valuePaths = Arrays.copyOf(valuePaths, valuePathCount * 2);
+			}
+			valuePaths[valuePathCount++] = path;
+		}
+		cursorCount = 0;
+	}
+
+	/**
+	 * Process a byte which is not a part of a masked value.
+	 *
+	 * @param c next byte
+	 * @return <code>true</code> if the byte starts a value which should be masked
+	 */
+	private boolean process(byte c) {
+		if (string) {
+			if (escape) {
+				escape = false;
+			} else if (c == '\\') {
+				escape = true;
+			} else if (c == '"') {
+				string = false;
+				if (key) {
+					key = false;
+					finishKey();
+				}
+				return false;
+			}
+			if (key) {
+				advanceKey(c);
+			}
+			return false;
+		}
+		if (isWhitespace(c)) {
+			return false;
+		}
+		if (expectValue && c != ']' && c != '}') {
+			expectValue = false;
+			if (redactValue) {
+				redactValue = false;
+				valuePathCount = 0;
+				return true;
+			}
+			if (c == '{') {
+				push(true);
+				expectKey = true;
+			} else if (c == '[') {
+				push(false);
+				expectValue = true;
+			} else {
+				string = c == '"';
+				valuePathCount = 0;
+			}
+			return false;
+		}
+		if (expectKey && c == '"') {
+			expectKey = false;
+			string = true;
+			key = true;
+			startKey();
+			return false;
+		}
+		switch (c) {
+			case '}':
+			case ']':
+				expectKey = false;
+				expectValue = false;
+				if (depth > 0) {
+					depth--;
+				}
+				break;
+			case ',':
+				if (depth > 0 && objects[depth - 1]) {
+					expectKey = true;
+				} else {
+					expectValue = true;
+				}
+				break;
+			case ':':
+				expectValue = true;
+				break;
+			default:
+				// Malformed input, pass it as is
+		}
+		return false;
+	}
+
+	private void startSkip(byte c) {
+		if (c == '"') {
+			skip = Skip.STRING;
+			skipEscape = false;
+		} else if (c == '{' || c == '[') {
+			skip = Skip.CONTAINER;
+			skipDepth = 1;
+			skipString = false;
+			skipEscape = false;
+		} else {
+			skip = Skip.SCALAR;
+		}
+	}
+
+	/**
+	 * Skip a byte of a masked value.
+	 *
+	 * @param c next byte
+	 * @return <code>true</code> if the value is over: the byte is the last byte of the value or, for scalars, the first
+	 * byte after it
+	 */
+	private boolean skipEnds(byte c) {
+		switch (skip) {
+			case STRING:
+				if (skipEscape) {
+					skipEscape = false;
+				} else if (c == '\\') {
+					skipEscape = true;
+				} else {
+					return c == '"';
+				}
+				return false;
+			case CONTAINER:
+				if (skipString) {
+					if (skipEscape) {
+						skipEscape = false;
+					} else if (c == '\\') {
+						skipEscape = true;
+					} else if (c == '"') {
+						skipString = false;
+					}
+				} else if (c == '"') {
+					skipString = true;
+				} else if (c == '{' || c == '[') {
+					skipDepth++;
+				} else if (c == '}' || c == ']') {
+					return --skipDepth == 0;
+				}
+				return false;
+			default:
+				return c == ',' || c == '}' || c == ']' || isWhitespace(c);
+		}
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		int end = off + len;
+		int runStart = off;
+		for (int i = off; i < end; i++) {
+			byte c = b[i];
+			if (skip != Skip.NONE) {
+				if (!skipEnds(c)) {
+					continue;
+				}
+				boolean scalar = skip == Skip.SCALAR;
+				skip = Skip.NONE;
+				if (!scalar) {
+					runStart = i + 1;
+					continue;
+				}
+				// The byte after a scalar belongs to the enclosing structure
+				runStart = i;
+			}
+			if (process(c)) {
+				target.write(b, runStart, i - runStart);
+				target.write(QUOTED_REPLACEMENT, 0, QUOTED_REPLACEMENT.length);
+				startSkip(c);
+			}
+		}
+		if (skip == Skip.NONE) {
+			target.write(b, runStart, end - runStart);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.listeners.LogLevel;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * A formatter which should be emitted with a log level other than the default one of the interceptor, e.g. selected
+ * by a {@link LoggingPolicy} of the exchange route.
+ */
+public class LeveledHttpFormatter implements HttpFormatter {
+
+	private final HttpFormatter formatter;
+	private final LogLevel level;
+
+	public LeveledHttpFormatter(@Nonnull HttpFormatter formatter, @Nonnull LogLevel level) {
+		this.formatter = formatter;
+		this.level = level;
+	}
+
+	/**
+	 * Get the level a formatter should be emitted with. A combined request and response entry gets the level of its
+	 * response.
+	 *
+	 * @param formatter formatter to emit
+	 * @return log level, or <code>null</code> if the default one should be used
+	 */
+	@Nullable
+	public static LogLevel getLevel(@Nonnull HttpFormatter formatter) {
+		if (formatter instanceof LeveledHttpFormatter) {
+			return ((LeveledHttpFormatter) formatter).level;
+		}
+		if (formatter instanceof CombinedHttpFormatter) {
+			CombinedHttpFormatter combined = (CombinedHttpFormatter) formatter;
+			LogLevel level = getLevel(combined.getResponse());
+			return level != null ? level : getLevel(combined.getRequest());
+		}
+		return null;
+	}
+
+	/**
+	 * Strip level wrappers from a formatter, e.g. to pass a multipart request to the formatting library, which needs
+	 * the concrete formatter to read parts.
+	 *
+	 * @param formatter formatter to emit
+	 * @return the wrapped formatter
+	 */
+	@Nonnull
+	public static HttpFormatter unwrap(@Nonnull HttpFormatter formatter) {
+		HttpFormatter result = formatter;
+		while (result instanceof LeveledHttpFormatter) {
+			result = ((LeveledHttpFormatter) result).formatter;
+		}
+		return result;
+	}
+
+	@Nonnull
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	@Nonnull
+	public HttpFormatter getFormatter() {
+		return formatter;
+	}
+
+	@Override
+	public String formatHead() {
+		return formatter.formatHead();
+	}
+
+	@Override
+	public String formatTitle() {
+		return formatter.formatTitle();
+	}
+
+	@Override
+	public String formatAsText() {
+		return formatter.formatAsText();
+	}
+
+	@Override
+	public BodyType getType() {
+		return formatter.getType();
+	}
+
+	@Override
+	public String getMimeType() {
+		return formatter.getMimeType();
+	}
+
+	@Override
+	public byte[] getBinaryBody() {
+		return formatter.getBinaryBody();
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.service.LoggingContext;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Joins consecutive text logs of the current thread into a single Report Portal entry, so a test which makes many HTTP
+ * calls produces a few log items instead of one per call. A batch is emitted with the timestamp of its first log, and
+ * each log in it is prefixed with its own timestamp, in emission order.
+ * <p>
+ * A batch is emitted once it reaches the maximum number of logs or the maximum size, when a log with another level or
+ * from another test item comes, on {@link #flush()} and on {@link #shutdown()}. A timer thread emits batches whose first
+ * log is older than the maximum delay, so the last batch of a test item is emitted even if its thread never logs again.
+ * Each batch is emitted through the {@link LoggingContext} which was current when its first log was added, so it is
+ * bound to the test item of its logs, whichever thread emits it and whichever test item is running at that moment.
+ */
+public class LogBatcher {
+
+	private static final String ENTRY_SEPARATOR = "\n\n";
+	private static final long MIN_CHECK_PERIOD_MS = 10;
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	// Fields are guarded by the batch monitor, since expired batches are emitted by the timer thread
+	private static class Batch {
+		private final StringBuilder text = new StringBuilder();
+		private int count;
+		private int size;
+		private String firstText;
+		private Instant firstTime;
+		private String level;
+		private LoggingContext context;
+
+		private void reset() {
+			text.setLength(0);
+			count = 0;
+			size = 0;
+			firstText = null;
+			firstTime = null;
+			level = null;
+			context = null;
+		}
+	}
+
+	private static class Entry {
+		private final String text;
+		private final String level;
+		private final Instant time;
+		private final LoggingContext context;
+
+		private Entry(@Nonnull String text, @Nonnull String level, @Nonnull Instant time, @Nullable LoggingContext context) {
+			this.text = text;
+			this.level = level;
+			this.time = time;
+			this.context = context;
+		}
+	}
+
+	private final int maxEntries;
+	private final int maxSize;
+	private final Duration maxDelay;
+	private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+	// Non-empty batches of all threads
+	private final Set<Batch> pending = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService timer;
+
+	/**
+	 * Create a batcher.
+	 *
+	 * @param maxEntries maximum number of logs in a batch
+	 * @param maxSize    maximum size of a batch in characters, a single larger log is emitted as is
+	 * @param maxDelay   maximum time a log waits in a batch, a zero or negative value means batches are emitted only
+	 *                   when they are full, on flush or on shutdown
+	 */
+	public LogBatcher(int maxEntries, int maxSize, @Nonnull Duration maxDelay) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Maximum number of entries should be positive: " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.maxSize = maxSize;
+		this.maxDelay = maxDelay;
+		if (maxDelay.isNegative() || maxDelay.isZero()) {
+			timer = null;
+			return;
+		}
+		timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "rp-http-log-batcher-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(maxDelay.toMillis() / 2, MIN_CHECK_PERIOD_MS);
+		timer.scheduleWithFixedDelay(() -> emitExpired(Instant.now()), period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private static void appendEntry(@Nonnull StringBuilder builder, @Nonnull String text, @Nonnull Instant time) {
+		if (builder.length() > 0) {
+			builder.append(ENTRY_SEPARATOR);
+		}
+		builder.append('[').append(time).append("]\n").append(text);
+	}
+
+	private static void emit(@Nullable Entry entry) {
+		if (entry == null) {
+			return;
+		}
+		if (entry.context == null) {
+			// No test item was running when the batch started, the log goes wherever the current thread logs
+			ReportPortal.emitLog(entry.text, entry.level, entry.time);
+			return;
+		}
+		entry.context.emit(itemUuid -> {
+			SaveLogRQ rq = new SaveLogRQ();
+			rq.setLevel(entry.level);
+			rq.setLogTime(entry.time);
+			rq.setItemUuid(itemUuid);
+			rq.setMessage(entry.text);
+			return rq;
+		});
+	}
+
+	/**
+	 * Take the batch content for emission and reset the batch. Should be called under the batch monitor.
+	 */
+	@Nullable
+	private Entry take(@Nonnull Batch batch) {
+		if (batch.count == 0) {
+			return null;
+		}
+		Entry entry = new Entry(
+				batch.count == 1 ? batch.firstText : batch.text.toString(),
+				batch.level,
+				batch.firstTime,
+				batch.context
+		);
+		batch.reset();
+		pending.remove(batch);
+		return entry;
+	}
+
+	/**
+	 * Add a text log to the batch of the current thread, the batch is emitted if it is full afterwards.
+	 *
+	 * @param text  log text
+	 * @param level log level
+	 * @param time  log timestamp
+	 */
+	public void add(@Nonnull String text, @Nonnull String level, @Nonnull Instant time) {
+		Batch batch = batches.get();
+		LoggingContext context = LoggingContext.context();
+		Entry previous;
+		Entry full = null;
+		synchronized (batch) {
+			previous = batch.count > 0 && (!level.equals(batch.level) || context != batch.context
+					|| batch.size + text.length() > maxSize || isExpired(batch, time)) ? take(batch) : null;
+			if (batch.count == 0) {
+				// A single log is emitted without a timestamp prefix, so keep it aside until the second one comes
+				batch.firstText = text;
+				batch.firstTime = time;
+				batch.level = level;
+				batch.context = context;
+				pending.add(batch);
+			} else {
+				if (batch.count == 1) {
+					appendEntry(batch.text, batch.firstText, batch.firstTime);
+				}
+				appendEntry(batch.text, text, time);
+			}
+			batch.count++;
+			batch.size += text.length();
+			if (batch.count >= maxEntries || batch.size >= maxSize) {
+				full = take(batch);
+			}
+		}
+		emit(previous);
+		emit(full);
+	}
+
+	private boolean isExpired(@Nonnull Batch batch, @Nonnull Instant now) {
+		return timer != null && !now.isBefore(batch.firstTime.plus(maxDelay));
+	}
+
+	private void emitExpired(@Nonnull Instant now) {
+		for (Batch batch : pending) {
+			Entry entry;
+			synchronized (batch) {
+				entry = batch.count > 0 && isExpired(batch, now) ? take(batch) : null;
+			}
+			emit(entry);
+		}
+	}
+
+	/**
+	 * @return number of logs pending in the batch of the current thread
+	 */
+	public int getPendingCount() {
+		Batch batch = batches.get();
+		synchronized (batch) {
+			return batch.count;
+		}
+	}
+
+	/**
+	 * Emit the batch of the current thread.
+	 */
+	public void flush() {
+		Batch batch = batches.get();
+		Entry entry;
+		synchronized (batch) {
+			entry = take(batch);
+		}
+		emit(entry);
+	}
+
+	/**
+	 * Stop the timer thread and emit pending batches of all threads, each one to the test item of its logs.
+	 */
+	public void shutdown() {
+		if (timer != null) {
+			timer.shutdownNow();
+		}
+		for (Batch batch : pending) {
+			Entry entry;
+			synchronized (batch) {
+				entry = take(batch);
+			}
+			emit(entry);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link LoggingMetricsListener} which keeps counters and histograms and exposes them through JMX:
+ * <pre>
+ * LoggingMetrics metrics = new LoggingMetrics().register("com.epam.reportportal:type=HttpLogging,name=api");
+ * interceptor.setMetricsListener(metrics);
+ * </pre>
+ */
+public class LoggingMetrics implements LoggingMetricsListener, LoggingMetricsMBean {
+
+	private static final double P99 = 0.99;
+	private static final double NANOS_IN_MICRO = 1000d;
+
+	private final LongAdder logged = new LongAdder();
+	private final LongAdder filtered = new LongAdder();
+	private final LongAdder sampledOut = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder truncated = new LongAdder();
+	private final LongAdder buffered = new LongAdder();
+	private final Histogram captured = new Histogram();
+	private final Histogram captureTime = new Histogram();
+	private final Histogram formatTime = new Histogram();
+	private final Histogram emitTime = new Histogram();
+
+	/**
+	 * Register the metrics in the platform MBean server.
+	 *
+	 * @param objectName JMX object name
+	 * @return self instance for convenience
+	 * @throws IllegalArgumentException if the name is invalid or is already registered
+	 */
+	@Nonnull
+	public LoggingMetrics register(@Nonnull String objectName) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(objectName));
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Unable to register MBean: " + objectName, e);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the metrics from the platform MBean server, does nothing if the name is not registered.
+	 *
+	 * @param objectName JMX object name
+	 */
+	public void unregister(@Nonnull String objectName) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName name = new ObjectName(objectName);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Unable to unregister MBean: " + objectName, e);
+		}
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	@Override
+	public void logged() {
+		logged.increment();
+	}
+
+	@Override
+	public void filtered() {
+		filtered.increment();
+	}
+
+	@Override
+	public void sampledOut() {
+		sampledOut.increment();
+	}
+
+	@Override
+	public void dropped() {
+		dropped.increment();
+	}
+
+	@Override
+	public void buffered(long bytes) {
+		buffered.add(bytes);
+	}
+
+	@Override
+	public void captured(long bytes, boolean truncated) {
+		captured.record(bytes);
+		if (truncated) {
+			this.truncated.increment();
+		}
+	}
+
+	@Override
+	public void captureTime(long nanos) {
+		captureTime.record(nanos);
+	}
+
+	@Override
+	public void formatTime(long nanos) {
+		formatTime.record(nanos);
+	}
+
+	@Override
+	public void emitTime(long nanos) {
+		emitTime.record(nanos);
+	}
+
+	@Override
+	public long getLoggedCount() {
+		return logged.sum();
+	}
+
+	@Override
+	public long getFilteredCount() {
+		return filtered.sum();
+	}
+
+	@Override
+	public long getSampledOutCount() {
+		return sampledOut.sum();
+	}
+
+	@Override
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	@Override
+	public long getTruncatedCount() {
+		return truncated.sum();
+	}
+
+	@Override
+	public long getBufferedBytes() {
+		return buffered.sum();
+	}
+
+	@Override
+	public long getCapturedBytes() {
+		return captured.getSum();
+	}
+
+	@Override
+	public long getCapturedBodyCount() {
+		return captured.getCount();
+	}
+
+	@Override
+	public long getCapturedBodySizeP99() {
+		return captured.getPercentile(P99);
+	}
+
+	@Override
+	public long getCapturedBodySizeMax() {
+		return captured.getMax();
+	}
+
+	@Override
+	public double getCaptureTimeMean() {
+		return captureTime.getMean() / NANOS_IN_MICRO;
+	}
+
+	@Override
+	public long getCaptureTimeP99() {
+		return toMicros(captureTime.getPercentile(P99));
+	}
+
+	@Override
+	public long getCaptureTimeMax() {
+		return toMicros(captureTime.getMax());
+	}
+
+	@Override
+	public double getFormatTimeMean() {
+		return formatTime.getMean() / NANOS_IN_MICRO;
+	}
+
+	@Override
+	public long getFormatTimeP99() {
+		return toMicros(formatTime.getPercentile(P99));
+	}
+
+	@Override
+	public long getFormatTimeMax() {
+		return toMicros(formatTime.getMax());
+	}
+
+	@Override
+	public double getEmitTimeMean() {
+		return emitTime.getMean() / NANOS_IN_MICRO;
+	}
+
+	@Override
+	public long getEmitTimeP99() {
+		return toMicros(emitTime.getPercentile(P99));
+	}
+
+	@Override
+	public long getEmitTimeMax() {
+		return toMicros(emitTime.getMax());
+	}
+
+	@Override
+	public void reset() {
+		logged.reset();
+		filtered.reset();
+		sampledOut.reset();
+		dropped.reset();
+		truncated.reset();
+		buffered.reset();
+		captured.reset();
+		captureTime.reset();
+		formatTime.reset();
+		emitTime.reset();
+	}
+}
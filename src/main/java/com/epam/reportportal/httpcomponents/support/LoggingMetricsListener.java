@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+/**
+ * Receiver of logging overhead metrics, independent of any metrics library. All methods have empty default
+ * implementations, so an adapter to a metrics registry implements only what it needs. Methods are called on HTTP client
+ * threads, so implementations should be thread-safe and fast.
+ *
+ * @see LoggingMetrics
+ */
+public interface LoggingMetricsListener {
+
+	/**
+	 * A listener which ignores all metrics.
+	 */
+	LoggingMetricsListener NOOP = new LoggingMetricsListener() {
+	};
+
+	/**
+	 * A log entry was emitted.
+	 */
+	default void logged() {
+	}
+
+	/**
+	 * A request or a response was skipped by a filter.
+	 */
+	default void filtered() {
+	}
+
+	/**
+	 * An exchange was skipped by a sampling policy.
+	 */
+	default void sampledOut() {
+	}
+
+	/**
+	 * A formatted log was dropped, because the asynchronous formatting queue was full.
+	 */
+	default void dropped() {
+	}
+
+	/**
+	 * A non-repeatable entity was buffered to be logged and passed on.
+	 *
+	 * @param bytes buffered entity size
+	 */
+	default void buffered(long bytes) {
+	}
+
+	/**
+	 * A body was captured for logging.
+	 *
+	 * @param bytes     body size
+	 * @param truncated <code>true</code> if the body did not fit into capture limits and was logged partially
+	 */
+	default void captured(long bytes, boolean truncated) {
+	}
+
+	/**
+	 * @param nanos time spent reading a body into a capture target
+	 */
+	default void captureTime(long nanos) {
+	}
+
+	/**
+	 * @param nanos time spent building a formatter from an HTTP message, including body capture
+	 */
+	default void formatTime(long nanos) {
+	}
+
+	/**
+	 * @param nanos time spent rendering a formatter and passing it to Report Portal client
+	 */
+	default void emitTime(long nanos) {
+	}
+}
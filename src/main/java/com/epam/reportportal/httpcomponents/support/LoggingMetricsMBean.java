@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+/**
+ * JMX view of {@link LoggingMetrics}. Times are in microseconds, percentiles are approximate.
+ */
+public interface LoggingMetricsMBean {
+
+	long getLoggedCount();
+
+	long getFilteredCount();
+
+	long getSampledOutCount();
+
+	long getDroppedCount();
+
+	long getTruncatedCount();
+
+	long getBufferedBytes();
+
+	long getCapturedBytes();
+
+	long getCapturedBodyCount();
+
+	long getCapturedBodySizeP99();
+
+	long getCapturedBodySizeMax();
+
+	double getCaptureTimeMean();
+
+	long getCaptureTimeP99();
+
+	long getCaptureTimeMax();
+
+	double getFormatTimeMean();
+
+	long getFormatTimeP99();
+
+	long getFormatTimeMax();
+
+	double getEmitTimeMean();
+
+	long getEmitTimeP99();
+
+	long getEmitTimeMax();
+
+	/**
+	 * Reset all counters and histograms.
+	 */
+	void reset();
+}
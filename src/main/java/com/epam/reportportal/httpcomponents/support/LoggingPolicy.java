@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.listeners.LogLevel;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Log level and capture depth of an exchange, which can be set per route, e.g. to log health checks at DEBUG level
+ * without bodies and business APIs at INFO level in full.
+ */
+public class LoggingPolicy {
+
+	/**
+	 * What part of an exchange is logged.
+	 */
+	public enum Detail {
+		/**
+		 * Request and status lines, headers, cookies and bodies.
+		 */
+		FULL,
+		/**
+		 * Request and status lines, headers and cookies. Entities are not buffered.
+		 */
+		HEADERS,
+		/**
+		 * Request and status lines only. Entities are not buffered.
+		 */
+		LINE
+	}
+
+	private final LogLevel level;
+	private final Detail detail;
+
+	/**
+	 * Create a policy.
+	 *
+	 * @param level  log level of request and response entries
+	 * @param detail what part of an exchange is logged
+	 */
+	public LoggingPolicy(@Nonnull LogLevel level, @Nonnull Detail detail) {
+		this.level = level;
+		this.detail = detail;
+	}
+
+	/**
+	 * @return log level of request and response entries
+	 */
+	@Nonnull
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return what part of an exchange is logged
+	 */
+	@Nonnull
+	public Detail getDetail() {
+		return detail;
+	}
+
+	/**
+	 * @return <code>true</code> if bodies are logged, so entities should be captured
+	 */
+	public boolean isBodyLogged() {
+		return Detail.FULL == detail;
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatUtils;
+import com.epam.reportportal.formatting.http.HttpPartFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.formatting.http.entities.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.ContentType;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An {@link OutputStream} which parses a multipart body while it is being written, so the body is never held in memory
+ * as a whole. Part delimiters are recognized with a Knuth-Morris-Pratt automaton, which works across write boundaries
+ * in linear time. Each part is formatted as soon as its closing delimiter is found, and its buffer is released.
+ * <p>
+ * Text parts are captured according to {@link CaptureOptions} body limits. Binary parts larger than
+ * {@link CaptureOptions#getBinaryPartThreshold()} are not kept: only their size and SHA-256 hash are logged. Parts
+ * with names masked by {@link RedactionRules} are not kept either.
+ */
+class MultipartCaptureStream extends OutputStream {
+
+	private static final int MAX_HEADER_SIZE = 64 * 1024;
+	private static final int CRLF = 0x0D0A;
+	private static final int HEADER_END = 0x0D0A0D0A;
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final String BINARY_PART_SUMMARY = "[Binary part of %d bytes (%s), " + DIGEST_ALGORITHM + ": %s]";
+	private static final String CONTENT_DISPOSITION = "Content-Disposition";
+
+	private enum State {
+		PREAMBLE, AFTER_DELIMITER, HEADERS, BODY, EPILOGUE
+	}
+
+	private final byte[] delimiter;
+	private final int[] failure;
+	private final CaptureOptions options;
+	private final Map<String, BodyType> bodyTypeMap;
+	private final Function<Header, String> partHeaderConverter;
+	private final List<HttpPartFormatter> parts = new ArrayList<>();
+	private final byte[] singleByte = new byte[1];
+
+	private State state = State.PREAMBLE;
+	private int matched;
+	private boolean dash;
+	private final ByteArrayOutputStream headerBuffer = new ByteArrayOutputStream();
+	private int headerTail;
+
+	private List<Header> partHeaders;
+	private ContentTypeCache.Descriptor partContentType;
+	private BodyType partBodyType;
+	private CaptureBuffer partBody;
+	private RedactingStream partRedactor;
+	private boolean partRedacted;
+	private MessageDigest partDigest;
+	private long partSize;
+
+	MultipartCaptureStream(@Nonnull String boundary, @Nonnull CaptureOptions options, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nullable Function<Header, String> partHeaderConverter) {
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		this.failure = new int[delimiter.length];
+		for (int i = 1, k = 0; i < delimiter.length; i++) {
+			while (k > 0 && delimiter[i] != delimiter[k]) {
+				k = failure[k - 1];
+			}
+			if (delimiter[i] == delimiter[k]) {
+				k++;
+			}
+			failure[i] = k;
+		}
+		this.options = options;
+		this.bodyTypeMap = bodyTypeMap;
+		this.partHeaderConverter = partHeaderConverter;
+		// The first delimiter may go without the leading CRLF, so treat the body as if it was preceded by one
+		this.matched = 2;
+	}
+
+	@Nonnull
+	static String toHex(@Nonnull byte[] bytes) {
+		StringBuilder result = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return result.toString();
+	}
+
+	@Nonnull
+	private static List<Header> parseHeaders(@Nonnull byte[] input, int length) {
+		List<Header> headers = new ArrayList<>();
+		int lineStart = 0;
+		for (int i = 0; i <= length; i++) {
+			if (i == length || (input[i] == '\n' && i > 0 && input[i - 1] == '\r')) {
+				int lineEnd = i == length ? length : i - 1;
+				if (lineEnd > lineStart) {
+					headers.add(HttpFormatUtils.toHeader(new String(input, lineStart, lineEnd - lineStart, StandardCharsets.ISO_8859_1)));
+				}
+				lineStart = i + 1;
+			}
+		}
+		return headers;
+	}
+
+	private void startPart(@Nonnull List<Header> headers) {
+		partHeaders = headers;
+		partContentType = ContentTypeCache.get(headers.stream()
+				.filter(h -> HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(h.getName()))
+				.findAny()
+				.map(Header::getValue)
+				.orElse(null));
+		partBodyType = partContentType.getBodyType(bodyTypeMap);
+		partRedacted = options.getRedactionRules().isPartRedacted(headers.stream()
+				.filter(h -> CONTENT_DISPOSITION.equalsIgnoreCase(h.getName()))
+				.findAny()
+				.map(Header::getValue)
+				.orElse(null));
+		partSize = 0;
+		partDigest = null;
+		partRedactor = null;
+		if (partRedacted) {
+			// The part body is neither kept nor hashed
+			partBody = null;
+			state = State.BODY;
+			return;
+		}
+		partBody = options.createBuffer();
+		partRedactor = options.getRedactionRules().wrap(partContentType.getMimeType(), partBodyType, partBody);
+		if (BodyType.TEXT != partBodyType && options.getBinaryPartThreshold() >= 0) {
+			try {
+				partDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			} catch (NoSuchAlgorithmException ignore) {
+				// Every Java platform is required to support SHA-256
+			}
+		}
+		state = State.BODY;
+	}
+
+	private void content(@Nonnull byte[] b, int off, int len) {
+		if (state != State.BODY || len <= 0) {
+			return;
+		}
+		partSize += len;
+		if (partDigest != null) {
+			partDigest.update(b, off, len);
+			if (partBody != null && partSize > options.getBinaryPartThreshold()) {
+				partBody.release();
+				partBody = null;
+			}
+		}
+		if (partBody == null) {
+			return;
+		}
+		if (partRedactor != null) {
+			partRedactor.write(b, off, len);
+		} else {
+			partBody.write(b, off, len);
+		}
+	}
+
+	private void content(byte b) {
+		singleByte[0] = b;
+		content(singleByte, 0, 1);
+	}
+
+	private void finishPart() {
+		String mimeType = partContentType.getMimeType();
+		Charset charset = partContentType.getCharset();
+		HttpPartFormatter.Builder partBuilder;
+		if (partRedacted) {
+			partBuilder = new HttpPartFormatter.Builder(
+					HttpPartFormatter.PartType.TEXT,
+					ContentType.TEXT_PLAIN.getMimeType(),
+					RedactionRules.REPLACEMENT
+			);
+		} else if (partBody == null) {
+			partBuilder = new HttpPartFormatter.Builder(
+					HttpPartFormatter.PartType.TEXT,
+					ContentType.TEXT_PLAIN.getMimeType(),
+					String.format(BINARY_PART_SUMMARY, partSize, mimeType, toHex(partDigest.digest()))
+			);
+		} else if (BodyType.TEXT == partBodyType) {
+			partBuilder = new HttpPartFormatter.Builder(
+					HttpPartFormatter.PartType.TEXT,
+					mimeType,
+					CapturedBody.toString(partBody, charset)
+			);
+		} else if (partBody.isTruncated()) {
+			partBuilder = new HttpPartFormatter.Builder(
+					HttpPartFormatter.PartType.TEXT,
+					ContentType.TEXT_PLAIN.getMimeType(),
+					CapturedBody.getBinaryTruncationMarker(partBody, mimeType)
+			);
+		} else {
+			partBuilder = new HttpPartFormatter.Builder(HttpPartFormatter.PartType.BINARY, mimeType, partBody.toByteArray());
+		}
+		partHeaders.forEach(partBuilder::addHeader);
+		partBuilder.charset(charset.name());
+		partBuilder.headerConverter(partHeaderConverter);
+		parts.add(partBuilder.build());
+		if (partBody != null) {
+			partBody.release();
+			partBody = null;
+		}
+		partRedactor = null;
+		partDigest = null;
+	}
+
+	private void delimiterFound() {
+		if (state == State.BODY) {
+			finishPart();
+		}
+		state = State.AFTER_DELIMITER;
+		dash = false;
+	}
+
+	private boolean match(byte c) {
+		while (matched > 0 && c != delimiter[matched]) {
+			int keep = failure[matched - 1];
+			content(delimiter, 0, matched - keep);
+			matched = keep;
+		}
+		if (c == delimiter[matched]) {
+			if (++matched == delimiter.length) {
+				matched = 0;
+				return true;
+			}
+			return false;
+		}
+		content(c);
+		return false;
+	}
+
+	private int scanBody(@Nonnull byte[] b, int from, int end) {
+		byte first = delimiter[0];
+		int runStart = from;
+		for (int i = from; i < end; i++) {
+			byte c = b[i];
+			if (matched == 0 && c != first) {
+				continue;
+			}
+			content(b, runStart, i - runStart);
+			runStart = i + 1;
+			if (match(c)) {
+				delimiterFound();
+				return i + 1;
+			}
+		}
+		content(b, runStart, end - runStart);
+		return end;
+	}
+
+	private void control(byte c) {
+		switch (state) {
+			case AFTER_DELIMITER:
+				if (c == '-') {
+					if (dash) {
+						state = State.EPILOGUE;
+					}
+					dash = true;
+				} else if (c == '\n') {
+					// Transport padding is over, part headers start
+					state = State.HEADERS;
+					headerBuffer.reset();
+					headerTail = 0;
+				} else {
+					dash = false;
+				}
+				break;
+			case HEADERS:
+				headerTail = (headerTail << 8) | (c & 0xFF);
+				if (headerBuffer.size() < MAX_HEADER_SIZE) {
+					headerBuffer.write(c);
+				}
+				if (headerBuffer.size() == 2 && (headerTail & 0xFFFF) == CRLF) {
+					startPart(Collections.emptyList());
+				} else if (headerTail == HEADER_END) {
+					byte[] headerBytes = headerBuffer.toByteArray();
+					startPart(parseHeaders(headerBytes, Math.max(headerBytes.length - 4, 0)));
+				}
+				break;
+			default:
+				// Epilogue is ignored
+		}
+	}
+
+	@Override
+	public void write(int b) {
+		singleByte[0] = (byte) b;
+		write(singleByte, 0, 1);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		int end = off + len;
+		int i = off;
+		while (i < end) {
+			if (state == State.BODY || state == State.PREAMBLE) {
+				i = scanBody(b, i, end);
+			} else {
+				control(b[i++]);
+			}
+		}
+	}
+
+	/**
+	 * @return formatters of all complete parts written so far, a part without closing delimiter is skipped
+	 */
+	@Nonnull
+	List<HttpPartFormatter> getParts() {
+		return parts;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Byte-level trie of names, which matches a name byte by byte while it is being read, so no string is built for it.
+ * Each step costs the same whatever the number of names in the trie is.
+ *
+ * @param <T> type of values bound to names
+ */
+class NameTrie<T> {
+
+	static final class Node<T> {
+		private byte[] labels = new byte[0];
+		private Node<T>[] children = newArray(0);
+		private T value;
+
+		@SuppressWarnings("unchecked")
+		private static <T> Node<T>[] newArray(int size) {
+			return (Node<T>[]) new Node<?>[size];
+		}
+
+		/**
+		 * @param b next name byte
+		 * @return node of the name prefix extended with the byte, <code>null</code> if no name has such prefix
+		 */
+		@Nullable
+		Node<T> next(byte b) {
+			for (int i = 0; i < labels.length; i++) {
+				if (labels[i] == b) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return value bound to the name which ends at the node, <code>null</code> if no name ends here
+		 */
+		@Nullable
+		T getValue() {
+			return value;
+		}
+
+		@Nonnull
+		private Node<T> child(byte b) {
+			Node<T> child = next(b);
+			if (child == null) {
+				child = new Node<>();
+				labels = Arrays.copyOf(labels, labels.length + 1);
+				children = Arrays.copyOf(children, children.length + 1);
+				labels[labels.length - 1] = b;
+				children[children.length - 1] = child;
+			}
+			return child;
+		}
+	}
+
+	private final Node<T> root = new Node<>();
+	private boolean empty = true;
+
+	/**
+	 * @return root node, the name prefix of which is empty
+	 */
+	@Nonnull
+	Node<T> getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return <code>true</code> if the trie has no names
+	 */
+	boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Get the value bound to a name, or bind a new value to it.
+	 *
+	 * @param name  name bytes
+	 * @param value value to bind if the name has no value yet
+	 * @return value bound to the name
+	 */
+	@Nonnull
+	T computeIfAbsent(@Nonnull byte[] name, @Nonnull T value) {
+		Node<T> node = root;
+		for (byte b : name) {
+			node = node.child(b);
+		}
+		if (node.value == null) {
+			node.value = value;
+			empty = false;
+		}
+		return node.value;
+	}
+}
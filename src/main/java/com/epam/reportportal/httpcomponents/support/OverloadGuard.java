@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.listeners.LogLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Degrades HTTP logging when Report Portal emission falls behind. The guard tracks a moving average of log emission
+ * time and the number of logs pending on the emitting thread, and turns them into a pressure value: the larger of the
+ * average latency and the backlog divided by their thresholds. Logging detail is reduced as the pressure grows:
+ * <ul>
+ *     <li>below 1: bodies are logged in full</li>
+ *     <li>from 1: bodies are truncated</li>
+ *     <li>from 2: headers only, entities are not buffered</li>
+ *     <li>from 4: request and status lines only</li>
+ * </ul>
+ * Logging is degraded as soon as the pressure reaches a level, and it recovers one level at a time once the pressure
+ * drops below a half of the current level, so the level does not flap around a threshold. Each level change is logged
+ * once, at WARN level when logging is degraded and at INFO level when it recovers.
+ */
+public class OverloadGuard {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OverloadGuard.class);
+
+	/**
+	 * Weight of a new latency sample in the moving average is 1/2^SMOOTHING_SHIFT.
+	 */
+	private static final int SMOOTHING_SHIFT = 3;
+	private static final double RECOVERY_FACTOR = 0.5;
+
+	/**
+	 * Logging detail under overload.
+	 */
+	public enum Level {
+		/**
+		 * Exchanges are logged according to interceptor settings.
+		 */
+		FULL(0, null),
+		/**
+		 * Bodies are truncated to the configured size.
+		 */
+		TRUNCATED(1, null),
+		/**
+		 * Request and status lines, headers and cookies.
+		 */
+		HEADERS(2, LoggingPolicy.Detail.HEADERS),
+		/**
+		 * Request and status lines only.
+		 */
+		LINE(4, LoggingPolicy.Detail.LINE);
+
+		private final double pressure;
+		private final LoggingPolicy.Detail detail;
+
+		Level(double pressure, @Nullable LoggingPolicy.Detail detail) {
+			this.pressure = pressure;
+			this.detail = detail;
+		}
+
+		@Nonnull
+		private static Level of(double pressure) {
+			Level[] levels = values();
+			for (int i = levels.length - 1; i > 0; i--) {
+				if (pressure >= levels[i].pressure) {
+					return levels[i];
+				}
+			}
+			return FULL;
+		}
+	}
+
+	private final long latencyThreshold;
+	private final int backlogThreshold;
+	private final int truncatedBodySize;
+	private final AtomicLong averageLatency = new AtomicLong();
+	private final AtomicReference<Level> level = new AtomicReference<>(Level.FULL);
+	private volatile Map.Entry<CaptureOptions, CaptureOptions> truncatedOptions;
+
+	/**
+	 * Create a guard.
+	 *
+	 * @param latencyThreshold  average log emission time at which bodies start to be truncated
+	 * @param backlogThreshold  number of logs pending on the emitting thread at which bodies start to be truncated, zero
+	 *                          or a negative value means the backlog is not tracked
+	 * @param truncatedBodySize number of leading body bytes to log when bodies are truncated
+	 */
+	public OverloadGuard(@Nonnull Duration latencyThreshold, int backlogThreshold, int truncatedBodySize) {
+		if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+			throw new IllegalArgumentException("Latency threshold should be positive");
+		}
+		this.latencyThreshold = latencyThreshold.toNanos();
+		this.backlogThreshold = backlogThreshold;
+		this.truncatedBodySize = Math.max(truncatedBodySize, 0);
+	}
+
+	/**
+	 * Record a log emission and update the logging level.
+	 *
+	 * @param emitTime log emission time in nanoseconds
+	 * @param backlog  number of logs pending on the emitting thread
+	 */
+	public void record(long emitTime, int backlog) {
+		long average = averageLatency.updateAndGet(a -> a + ((Math.max(emitTime, 0) - a) >> SMOOTHING_SHIFT));
+		double pressure = (double) average / latencyThreshold;
+		if (backlogThreshold > 0) {
+			pressure = Math.max(pressure, (double) backlog / backlogThreshold);
+		}
+		Level current = level.get();
+		Level target = Level.of(pressure);
+		if (target.ordinal() > current.ordinal()) {
+			if (level.compareAndSet(current, target)) {
+				LOGGER.warn(
+						"HTTP logging is degraded to {} level: average emission time {} ms, {} logs pending",
+						target,
+						TimeUnit.NANOSECONDS.toMillis(average),
+						backlog
+				);
+			}
+		} else if (target.ordinal() < current.ordinal() && pressure < current.pressure * RECOVERY_FACTOR) {
+			Level recovered = Level.values()[current.ordinal() - 1];
+			if (level.compareAndSet(current, recovered)) {
+				LOGGER.info("HTTP logging is recovered to {} level", recovered);
+			}
+		}
+	}
+
+	/**
+	 * @return current logging detail
+	 */
+	@Nonnull
+	public Level getLevel() {
+		return level.get();
+	}
+
+	/**
+	 * Reduce the capture depth of a logging policy according to the current level.
+	 *
+	 * @param policy       logging policy of an exchange, <code>null</code> if the exchange is logged in full
+	 * @param defaultLevel log level of a policy created for an exchange without one
+	 * @return the policy if it is detailed enough for the current level, a policy with less detail otherwise
+	 */
+	@Nullable
+	public LoggingPolicy apply(@Nullable LoggingPolicy policy, @Nonnull LogLevel defaultLevel) {
+		LoggingPolicy.Detail detail = level.get().detail;
+		if (detail == null || (policy != null && policy.getDetail().ordinal() >= detail.ordinal())) {
+			return policy;
+		}
+		return new LoggingPolicy(policy == null ? defaultLevel : policy.getLevel(), detail);
+	}
+
+	/**
+	 * Limit captured body size according to the current level.
+	 *
+	 * @param options capture options of an exchange
+	 * @return the options if bodies are not truncated or already fit into the truncated size, options with a body limit
+	 * otherwise
+	 */
+	@Nonnull
+	public CaptureOptions apply(@Nonnull CaptureOptions options) {
+		if (Level.TRUNCATED != level.get() || (options.getBodyHeadLimit() >= 0
+				&& options.getBodyHeadLimit() + options.getBodyTailLimit() <= truncatedBodySize)) {
+			return options;
+		}
+		Map.Entry<CaptureOptions, CaptureOptions> cached = truncatedOptions;
+		if (cached != null && cached.getKey() == options) {
+			return cached.getValue();
+		}
+		CaptureOptions result = options.toBuilder().bodyLimit(truncatedBodySize, 0).build();
+		truncatedOptions = new AbstractMap.SimpleImmutableEntry<>(options, result);
+		return result;
+	}
+}
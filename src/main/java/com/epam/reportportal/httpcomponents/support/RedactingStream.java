@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An {@link OutputStream} which masks sensitive values of a body in a single pass while the body is written into a
+ * {@link CaptureBuffer}. Bytes which are not masked are copied in runs, masked values are replaced with
+ * {@link RedactionRules#REPLACEMENT}.
+ */
+abstract class RedactingStream extends OutputStream {
+
+	static final byte[] REPLACEMENT = RedactionRules.REPLACEMENT.getBytes(StandardCharsets.US_ASCII);
+
+	protected final CaptureBuffer target;
+	private final byte[] singleByte = new byte[1];
+
+	protected RedactingStream(@Nonnull CaptureBuffer target) {
+		this.target = target;
+	}
+
+	@Override
+	public void write(int b) {
+		singleByte[0] = (byte) b;
+		write(singleByte, 0, 1);
+	}
+
+	@Override
+	public abstract void write(@Nonnull byte[] b, int off, int len);
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.formatting.http.entities.Header;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable set of compiled rules which mask sensitive data in logs: header values, JSON field values, form parameter
+ * values and whole multipart parts are replaced with {@link #REPLACEMENT}. Body rules are compiled into byte tries once
+ * and applied in a single pass while a body is captured, before it is decoded into a string, so the capture cost stays
+ * linear in the body size whatever the number of rules is.
+ * <p>
+ * Compressed bodies are masked while they are decompressed. Body rules are applied to the bytes written into a
+ * {@link CapturedBody}, a capture buffer filled outside of it is logged as is.
+ */
+public class RedactionRules {
+
+	/**
+	 * Text which replaces masked values.
+	 */
+	public static final String REPLACEMENT = "[REDACTED]";
+
+	/**
+	 * No rules, nothing is masked.
+	 */
+	public static final RedactionRules EMPTY = new Builder().build();
+
+	private static final String JSON_ROOT = "$";
+	private static final String PART_NAME = "name=";
+
+	/**
+	 * Node of a JSON field path: names of the fields of an object at the path.
+	 */
+	static class JsonPath {
+		private final NameTrie<JsonPath> names = new NameTrie<>();
+		private boolean redacted;
+
+		@Nonnull
+		NameTrie<JsonPath> getNames() {
+			return names;
+		}
+
+		boolean isRedacted() {
+			return redacted;
+		}
+	}
+
+	private final Set<String> headers;
+	private final JsonPath jsonRoot;
+	private final JsonPath jsonAnywhere;
+	private final boolean jsonRules;
+	private final NameTrie<Boolean> formParams;
+	private final Set<String> partNames;
+
+	private RedactionRules(@Nonnull Builder builder) {
+		headers = Collections.unmodifiableSet(new HashSet<>(builder.headers));
+		partNames = Collections.unmodifiableSet(new HashSet<>(builder.partNames));
+		jsonRoot = new JsonPath();
+		jsonAnywhere = new JsonPath();
+		for (String field : builder.jsonFields) {
+			String[] segments = field.split("\\.", -1);
+			JsonPath path = jsonAnywhere;
+			int start = 0;
+			if (JSON_ROOT.equals(segments[0])) {
+				path = jsonRoot;
+				start = 1;
+			}
+			for (int i = start; i < segments.length; i++) {
+				path = path.names.computeIfAbsent(segments[i].getBytes(StandardCharsets.UTF_8), new JsonPath());
+			}
+			path.redacted = true;
+		}
+		jsonRules = !builder.jsonFields.isEmpty();
+		formParams = new NameTrie<>();
+		builder.formParams.forEach(p -> formParams.computeIfAbsent(p.getBytes(StandardCharsets.UTF_8), Boolean.TRUE));
+	}
+
+	private static boolean isJson(@Nonnull String mimeType) {
+		return mimeType.endsWith("/json") || mimeType.endsWith("+json");
+	}
+
+	/**
+	 * @return <code>true</code> if there are no rules
+	 */
+	public boolean isEmpty() {
+		return headers.isEmpty() && !jsonRules && formParams.isEmpty() && partNames.isEmpty();
+	}
+
+	/**
+	 * @param name header name
+	 * @return <code>true</code> if the header value should be masked
+	 */
+	public boolean isHeaderRedacted(@Nonnull String name) {
+		return !headers.isEmpty() && headers.contains(name.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Wrap a header converter, so it gets masked values of redacted headers.
+	 *
+	 * @param converter header converter
+	 * @return converter which masks header values, or the same converter if there are no header rules
+	 */
+	@Nullable
+	public Function<Header, String> headerConverter(@Nullable Function<Header, String> converter) {
+		if (converter == null || headers.isEmpty()) {
+			return converter;
+		}
+		return header -> converter.apply(isHeaderRedacted(header.getName()) ? new Header(header.getName(), REPLACEMENT) : header);
+	}
+
+	/**
+	 * @param contentDisposition Content-Disposition header value of a multipart part
+	 * @return <code>true</code> if the whole part should be masked
+	 */
+	boolean isPartRedacted(@Nullable String contentDisposition) {
+		if (partNames.isEmpty() || contentDisposition == null) {
+			return false;
+		}
+		for (String parameter : contentDisposition.split(";")) {
+			String value = parameter.trim();
+			if (value.regionMatches(true, 0, PART_NAME, 0, PART_NAME.length())) {
+				value = value.substring(PART_NAME.length()).trim();
+				if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+					value = value.substring(1, value.length() - 1);
+				}
+				return partNames.contains(value);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create a stream which masks a body while it is written into a capture buffer.
+	 *
+	 * @param mimeType body MIME type
+	 * @param bodyType body type
+	 * @param target   capture buffer
+	 * @return masking stream, <code>null</code> if no rule applies to the body type
+	 */
+	@Nullable
+	RedactingStream wrap(@Nonnull String mimeType, @Nonnull BodyType bodyType, @Nonnull CaptureBuffer target) {
+		if (BodyType.FORM == bodyType && !formParams.isEmpty()) {
+			return new FormRedactingStream(formParams, target);
+		}
+		if (BodyType.TEXT == bodyType && jsonRules && isJson(mimeType)) {
+			return new JsonRedactingStream(jsonRoot, jsonAnywhere, target);
+		}
+		return null;
+	}
+
+	public static class Builder {
+		private final Set<String> headers = new HashSet<>();
+		private final Set<String> jsonFields = new HashSet<>();
+		private final Set<String> formParams = new HashSet<>();
+		private final Set<String> partNames = new HashSet<>();
+
+		/**
+		 * @param name name of a header to mask, case-insensitive
+		 * @return self instance for convenience
+		 */
+		public Builder header(@Nonnull String name) {
+			headers.add(name.toLowerCase(Locale.ROOT));
+			return this;
+		}
+
+		/**
+		 * Mask a JSON field value. A path is a dot-separated list of field names: a path which starts with
+		 * <code>$.</code> is matched from the top-level object, e.g. <code>$.user.password</code>, other paths are
+		 * matched at any depth, e.g. <code>password</code> or <code>credentials.token</code>. Array elements share the
+		 * path of their array.
+		 *
+		 * @param path field path
+		 * @return self instance for convenience
+		 */
+		public Builder jsonField(@Nonnull String path) {
+			jsonFields.add(path);
+			return this;
+		}
+
+		/**
+		 * @param name URL-encoded name of a form parameter to mask
+		 * @return self instance for convenience
+		 */
+		public Builder formParam(@Nonnull String name) {
+			formParams.add(name);
+			return this;
+		}
+
+		/**
+		 * @param name name of a multipart part to mask as a whole
+		 * @return self instance for convenience
+		 */
+		public Builder partName(@Nonnull String name) {
+			partNames.add(name);
+			return this;
+		}
+
+		public RedactionRules build() {
+			return new RedactionRules(this);
+		}
+	}
+}
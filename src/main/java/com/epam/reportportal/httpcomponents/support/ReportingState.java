@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.service.Launch;
+import com.epam.reportportal.service.LoggingContext;
+
+/**
+ * Cheap check whether a log emitted on the current thread can reach Report Portal, so HTTP calls made outside of
+ * reported tests can skip body capture and formatting.
+ */
+public class ReportingState {
+
+	private ReportingState() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	/**
+	 * @return <code>true</code> if there is a running launch with reporting enabled and a logging context for the
+	 * current thread, <code>false</code> if the log would be discarded
+	 */
+	public static boolean isReporting() {
+		Launch launch = Launch.currentLaunch();
+		return launch != null && !Boolean.FALSE.equals(launch.getParameters().getEnable()) && LoggingContext.context() != null;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.RequestLine;
+import org.apache.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable mapping of routes, described with {@link FilterRule}s, to values. Routes are compiled into a
+ * {@link FilterIndex}, the first added route which matches an exchange wins. Request lookups can be cached by request
+ * attributes, see {@link #findCached(HttpRequest, HttpContext)}.
+ *
+ * @param <T> value type
+ */
+public class RouteTable<T> {
+
+	private static final int MAX_CACHED_ROUTES = 1024;
+
+	private final List<FilterRule> routes;
+	private final List<T> values;
+	private final FilterIndex index;
+	private final Map<String, Integer> cache = new ConcurrentHashMap<>();
+
+	private RouteTable(@Nonnull List<FilterRule> routes, @Nonnull List<T> values) {
+		this.routes = routes;
+		this.values = values;
+		this.index = new FilterIndex(routes);
+	}
+
+	/**
+	 * @param <T> value type
+	 * @return a table without routes
+	 */
+	@Nonnull
+	public static <T> RouteTable<T> empty() {
+		return new RouteTable<>(Collections.emptyList(), Collections.emptyList());
+	}
+
+	/**
+	 * Create a new table with one more route.
+	 *
+	 * @param route route description
+	 * @param value value for the route
+	 * @return new table
+	 */
+	@Nonnull
+	public RouteTable<T> with(@Nonnull FilterRule route, @Nonnull T value) {
+		List<FilterRule> newRoutes = new ArrayList<>(routes);
+		newRoutes.add(route);
+		List<T> newValues = new ArrayList<>(values);
+		newValues.add(value);
+		return new RouteTable<>(newRoutes, newValues);
+	}
+
+	/**
+	 * @return <code>true</code> if the table has no routes
+	 */
+	public boolean isEmpty() {
+		return routes.isEmpty();
+	}
+
+	/**
+	 * @param request HTTP request
+	 * @param context HTTP context
+	 * @return value of the first route which matches the request, or <code>null</code> if there is no one
+	 */
+	@Nullable
+	public T find(@Nonnull HttpRequest request, @Nonnull HttpContext context) {
+		int match = index.firstMatch(request, context);
+		return match < 0 ? null : values.get(match);
+	}
+
+	/**
+	 * The same as {@link #find(HttpRequest, HttpContext)}, but the match is cached by host, method, path and content
+	 * type, so repeated requests to the same route skip the index lookup. The cache is dropped once it grows over
+	 * a limit, e.g. if paths contain identifiers.
+	 *
+	 * @param request HTTP request
+	 * @param context HTTP context
+	 * @return value of the first route which matches the request, or <code>null</code> if there is no one
+	 */
+	@Nullable
+	public T findCached(@Nonnull HttpRequest request, @Nonnull HttpContext context) {
+		if (routes.isEmpty()) {
+			return null;
+		}
+		RequestLine requestLine = request.getRequestLine();
+		String host = FilterIndex.getHost(context);
+		String method = requestLine.getMethod().toUpperCase(Locale.ROOT);
+		String path = FilterIndex.getPath(requestLine);
+		String mimeType = request instanceof HttpEntityEnclosingRequest ?
+				FilterIndex.getMimeType(((HttpEntityEnclosingRequest) request).getEntity()) :
+				null;
+		String key = host + ' ' + method + ' ' + path + ' ' + mimeType;
+		Integer match = cache.get(key);
+		if (match == null) {
+			match = index.firstMatch(host, method, path, -1, mimeType);
+			if (cache.size() >= MAX_CACHED_ROUTES) {
+				cache.clear();
+			}
+			cache.put(key, match);
+		}
+		return match < 0 ? null : values.get(match);
+	}
+
+	/**
+	 * @param response HTTP response
+	 * @param context  HTTP context
+	 * @return value of the first route which matches the response, or <code>null</code> if there is no one
+	 */
+	@Nullable
+	public T find(@Nonnull HttpResponse response, @Nonnull HttpContext context) {
+		int match = index.firstMatch(response, context);
+		return match < 0 ? null : values.get(match);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.RequestLine;
+
+import jakarta.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standard {@link SamplingPolicy} implementations.
+ */
+public class SamplingPolicies {
+
+	private static final int MAX_ROUTES = 1024;
+	private static final double NANOS_IN_SECOND = 1_000_000_000d;
+
+	private SamplingPolicies() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	/**
+	 * Log every exchange.
+	 *
+	 * @return sampling policy
+	 */
+	@Nonnull
+	public static SamplingPolicy all() {
+		return (request, context) -> true;
+	}
+
+	/**
+	 * Log each exchange with the given probability.
+	 *
+	 * @param rate probability from 0 to 1
+	 * @return sampling policy
+	 */
+	@Nonnull
+	public static SamplingPolicy probabilistic(double rate) {
+		if (rate < 0 || rate > 1) {
+			throw new IllegalArgumentException("Sampling rate should be between 0 and 1: " + rate);
+		}
+		return (request, context) -> ThreadLocalRandom.current().nextDouble() < rate;
+	}
+
+	/**
+	 * Log the first exchange and every n-th exchange after it.
+	 *
+	 * @param n sampling interval
+	 * @return sampling policy
+	 */
+	@Nonnull
+	public static SamplingPolicy everyNth(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("Sampling interval should be positive: " + n);
+		}
+		AtomicLong counter = new AtomicLong();
+		return (request, context) -> counter.getAndIncrement() % n == 0;
+	}
+
+	/**
+	 * Limit logging rate with a token bucket per route, where a route is host, method and path of a request.
+	 *
+	 * @param permitsPerSecond number of exchanges per second logged for a route in the long run
+	 * @param burst            maximum number of exchanges logged for a route at once
+	 * @return sampling policy
+	 */
+	@Nonnull
+	public static SamplingPolicy tokenBucket(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0 || burst <= 0) {
+			throw new IllegalArgumentException("Rate and burst should be positive");
+		}
+		Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+		return (request, context) -> {
+			RequestLine requestLine = request.getRequestLine();
+			String route = FilterIndex.getHost(context) + ' ' + requestLine.getMethod() + ' ' + FilterIndex.getPath(requestLine);
+			TokenBucket bucket = buckets.get(route);
+			if (bucket == null) {
+				if (buckets.size() >= MAX_ROUTES) {
+					buckets.clear();
+				}
+				bucket = buckets.computeIfAbsent(route, r -> new TokenBucket(permitsPerSecond, burst));
+			}
+			return bucket.tryAcquire();
+		};
+	}
+
+	private static class TokenBucket {
+		private final double permitsPerNano;
+		private final double capacity;
+		private double tokens;
+		private long lastRefill;
+
+		private TokenBucket(double permitsPerSecond, int burst) {
+			permitsPerNano = permitsPerSecond / NANOS_IN_SECOND;
+			capacity = burst;
+			tokens = burst;
+			lastRefill = System.nanoTime();
+		}
+
+		private synchronized boolean tryAcquire() {
+			long now = System.nanoTime();
+			tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+			lastRefill = now;
+			if (tokens >= 1) {
+				tokens -= 1;
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Decides if an HTTP exchange should be logged. The decision is made on request, before any entity is buffered.
+ * Standard policies are available in {@link SamplingPolicies}.
+ */
+@FunctionalInterface
+public interface SamplingPolicy {
+
+	/**
+	 * @param request HTTP request
+	 * @param context HTTP context
+	 * @return <code>true</code> if the exchange should be logged
+	 */
+	boolean sample(@Nonnull HttpRequest request, @Nonnull HttpContext context);
+}
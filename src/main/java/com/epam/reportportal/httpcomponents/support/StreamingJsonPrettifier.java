@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON prettifier which works on bytes of ASCII-compatible charsets, like UTF-8 and ISO-8859-1: JSON
+ * structural characters are always single bytes there, so multibyte characters are copied as is and never decoded.
+ * Output layout follows Jackson default pretty printer: objects are indented with two spaces, arrays are kept on the
+ * line of their parent.
+ * <p>
+ * The prettifier checks nesting and string termination only, a body with unbalanced brackets is reported as not
+ * well-formed.
+ */
+public class StreamingJsonPrettifier implements StreamingPrettifier {
+
+	public static final StreamingJsonPrettifier INSTANCE = new StreamingJsonPrettifier();
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_DEPTH = 1000;
+	private static final byte[] NEW_LINE = { '\n' };
+	private static final byte[] INDENT = { ' ', ' ' };
+	private static final byte[] COLON = { ' ', ':', ' ' };
+	private static final byte[] ARRAY_COMMA = { ',', ' ' };
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	private static void newLine(@Nonnull OutputStream output, int level) throws IOException {
+		output.write(NEW_LINE);
+		for (int i = 0; i < level; i++) {
+			output.write(INDENT);
+		}
+	}
+
+	@Override
+	public boolean prettify(@Nonnull InputStream input, @Nonnull Charset charset, @Nonnull OutputStream output) throws IOException {
+		if (!TextDecoder.isAsciiCompatible(charset)) {
+			return false;
+		}
+		byte[] buffer = new byte[BUFFER_SIZE];
+		// Container stack, true for objects; only objects increase indentation
+		boolean[] objects = new boolean[16];
+		int depth = 0;
+		int level = 0;
+		boolean string = false;
+		boolean escape = false;
+		boolean opened = false;
+		boolean scalar = false;
+		boolean separated = false;
+		boolean empty = true;
+		int read;
+		while ((read = input.read(buffer)) >= 0) {
+			for (int i = 0; i < read; i++) {
+				byte b = buffer[i];
+				if (string) {
+					output.write(b);
+					if (escape) {
+						escape = false;
+					} else if (b == '\\') {
+						escape = true;
+					} else if (b == '"') {
+						string = false;
+					}
+					continue;
+				}
+				if (isWhitespace(b)) {
+					separated = scalar;
+					continue;
+				}
+				empty = false;
+				boolean closing = b == '}' || b == ']';
+				if (opened) {
+					opened = false;
+					if (closing) {
+						if (objects[depth - 1] != (b == '}')) {
+							return false;
+						}
+						depth--;
+						if (b == '}') {
+							level--;
+						}
+						output.write(' ');
+						output.write(b);
+						continue;
+					}
+					if (objects[depth - 1]) {
+						newLine(output, level);
+					} else {
+						output.write(' ');
+					}
+				}
+				if (b != ',' && b != ':' && !closing && b != '"' && b != '{' && b != '[') {
+					if (separated) {
+						// Two scalars separated by whitespace only
+						return false;
+					}
+					scalar = true;
+					output.write(b);
+					continue;
+				}
+				scalar = false;
+				separated = false;
+				switch (b) {
+					case '"':
+						string = true;
+						output.write(b);
+						break;
+					case '{':
+					case '[':
+						if (depth == MAX_DEPTH) {
+							return false;
+						}
+						if (depth == objects.length) {
+							objects = Arrays.copyOf(objects, depth * 2);
+						}
+						objects[depth++] = b == '{';
+						if (b == '{') {
+							level++;
+						}
+						opened = true;
+						output.write(b);
+						break;
+					case '}':
+						if (depth == 0 || !objects[--depth]) {
+							return false;
+						}
+						newLine(output, --level);
+						output.write(b);
+						break;
+					case ']':
+						if (depth == 0 || objects[--depth]) {
+							return false;
+						}
+						output.write(' ');
+						output.write(b);
+						break;
+					case ',':
+						if (depth == 0) {
+							return false;
+						}
+						if (objects[depth - 1]) {
+							output.write(b);
+							newLine(output, level);
+						} else {
+							output.write(ARRAY_COMMA);
+						}
+						break;
+					default:
+						// Colon
+						if (depth == 0 || !objects[depth - 1]) {
+							return false;
+						}
+						output.write(COLON);
+				}
+			}
+		}
+		return !empty && !string && depth == 0;
+	}
+}
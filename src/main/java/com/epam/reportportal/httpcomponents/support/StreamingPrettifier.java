@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * A content prettifier which reformats a body straight from its bytes into an output stream, so a large body is not
+ * decoded into a string before prettification. Register it in the same MIME type to prettifier map as string-based
+ * prettifiers: captured text bodies of a type with a streaming prettifier are reformatted from captured bytes, while
+ * {@link #apply(String)} keeps it usable as a usual prettifier.
+ */
+public interface StreamingPrettifier extends Function<String, String> {
+
+	/**
+	 * Reformat a body. Working memory of the method does not depend on the body size.
+	 *
+	 * @param input   body bytes
+	 * @param charset body charset
+	 * @param output  output for reformatted bytes in the same charset
+	 * @return <code>true</code> if the body is reformatted, <code>false</code> if it is not well-formed or the charset
+	 * is not supported, in that case the output should be discarded
+	 * @throws IOException if input or output fails
+	 */
+	boolean prettify(@Nonnull InputStream input, @Nonnull Charset charset, @Nonnull OutputStream output) throws IOException;
+
+	@Override
+	default String apply(String text) {
+		if (text == null) {
+			return null;
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream(text.length() + (text.length() >> 2));
+		try {
+			if (prettify(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, output)) {
+				return output.toString(StandardCharsets.UTF_8);
+			}
+		} catch (IOException ignore) {
+			// In-memory streams do not fail
+		}
+		return text;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming XML prettifier based on StAX: elements are read and written one by one, so the document tree is never
+ * built in memory. Elements are indented with two spaces, whitespace-only text between elements is dropped, text
+ * content is kept on the line of its element. DTD processing and external entities are turned off.
+ */
+public class StreamingXmlPrettifier implements StreamingPrettifier {
+
+	public static final StreamingXmlPrettifier INSTANCE = new StreamingXmlPrettifier();
+
+	private static final String INDENT = "  ";
+	private static final XMLInputFactory INPUT_FACTORY;
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+	static {
+		INPUT_FACTORY = XMLInputFactory.newFactory();
+		INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+	}
+
+	private static void newLine(@Nonnull XMLStreamWriter writer, int level) throws XMLStreamException {
+		writer.writeCharacters("\n" + INDENT.repeat(level));
+	}
+
+	private static void writeStartElement(@Nonnull XMLStreamReader reader, @Nonnull XMLStreamWriter writer) throws XMLStreamException {
+		String prefix = reader.getPrefix();
+		String namespace = reader.getNamespaceURI();
+		writer.writeStartElement(prefix == null ? "" : prefix, reader.getLocalName(), namespace == null ? "" : namespace);
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String namespacePrefix = reader.getNamespacePrefix(i);
+			if (namespacePrefix == null || namespacePrefix.isEmpty()) {
+				writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+			} else {
+				writer.writeNamespace(namespacePrefix, reader.getNamespaceURI(i));
+			}
+		}
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String attributeNamespace = reader.getAttributeNamespace(i);
+			if (attributeNamespace == null || attributeNamespace.isEmpty()) {
+				writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			} else {
+				String attributePrefix = reader.getAttributePrefix(i);
+				writer.writeAttribute(
+						attributePrefix == null ? "" : attributePrefix,
+						attributeNamespace,
+						reader.getAttributeLocalName(i),
+						reader.getAttributeValue(i)
+				);
+			}
+		}
+	}
+
+	@Override
+	public boolean prettify(@Nonnull InputStream input, @Nonnull Charset charset, @Nonnull OutputStream output) {
+		XMLStreamReader reader = null;
+		XMLStreamWriter writer = null;
+		try {
+			reader = INPUT_FACTORY.createXMLStreamReader(input, charset.name());
+			writer = OUTPUT_FACTORY.createXMLStreamWriter(output, charset.name());
+			if (reader.getVersion() != null) {
+				writer.writeStartDocument(charset.name(), reader.getVersion());
+			}
+			int level = 0;
+			boolean started = false;
+			// Whether the last written node closes a line, so the next end tag goes to a new line
+			boolean block = false;
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						if (started || reader.getVersion() != null) {
+							newLine(writer, level);
+						}
+						writeStartElement(reader, writer);
+						level++;
+						started = true;
+						block = false;
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						level--;
+						if (block) {
+							newLine(writer, level);
+						}
+						writer.writeEndElement();
+						block = true;
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.SPACE:
+						if (!reader.isWhiteSpace() && level > 0) {
+							writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+							block = false;
+						}
+						break;
+					case XMLStreamConstants.CDATA:
+						writer.writeCData(reader.getText());
+						block = false;
+						break;
+					case XMLStreamConstants.COMMENT:
+						if (started || reader.getVersion() != null) {
+							newLine(writer, level);
+						}
+						writer.writeComment(reader.getText());
+						started = true;
+						block = true;
+						break;
+					case XMLStreamConstants.PROCESSING_INSTRUCTION:
+						if (started || reader.getVersion() != null) {
+							newLine(writer, level);
+						}
+						writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+						started = true;
+						block = true;
+						break;
+					case XMLStreamConstants.ENTITY_REFERENCE:
+						writer.writeEntityRef(reader.getLocalName());
+						block = false;
+						break;
+					case XMLStreamConstants.DTD:
+						writer.writeDTD(reader.getText());
+						started = true;
+						break;
+					default:
+						// Document end and attribute or namespace events, which are written with their element
+				}
+			}
+			writer.writeEndDocument();
+			writer.flush();
+			return started;
+		} catch (XMLStreamException e) {
+			return false;
+		} finally {
+			close(reader, writer);
+		}
+	}
+
+	private static void close(@Nullable XMLStreamReader reader, @Nullable XMLStreamWriter writer) {
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+			if (writer != null) {
+				writer.close();
+			}
+		} catch (XMLStreamException ignore) {
+			// Underlying streams are not closed by StAX, nothing to release
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import jakarta.annotation.Nonnull;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Non-repeatable {@link HttpEntity} wrapper which copies bytes into a log capture, like {@link CaptureBuffer} or
+ * {@link CapturedBody}, while the application reads them. Once the content stream reaches EOF or is closed, the
+ * callback receives the capture and whether the body was read to the end. The rest of a body which is closed early is
+ * not read, so the application pays no more I/O than without logging. Callback errors are logged and never reach the
+ * application.
+ *
+ * @param <T> type of the capture
+ */
+public class TeeHttpEntity<T extends OutputStream> extends HttpEntityWrapper {
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private final T capture;
+	private final BiConsumer<T, Boolean> callback;
+	private final AtomicBoolean completed = new AtomicBoolean();
+	private volatile InputStream content;
+
+	public TeeHttpEntity(@Nonnull HttpEntity wrappedEntity, @Nonnull T capture, @Nonnull BiConsumer<T, Boolean> callback) {
+		super(wrappedEntity);
+		this.capture = capture;
+		this.callback = callback;
+	}
+
+	private void complete(boolean eof) {
+		if (!completed.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			callback.accept(capture, eof);
+		} catch (RuntimeException e) {
+			ReportPortal.emitLog("Unable to log HTTP entity: " + ExceptionUtils.getStackTrace(e), LogLevel.WARN.name(), Instant.now());
+		}
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return false;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		if (content == null) {
+			synchronized (this) {
+				if (content == null) {
+					InputStream wrappedContent = wrappedEntity.getContent();
+					if (wrappedContent == null) {
+						complete(true);
+						return null;
+					}
+					content = new TeeInputStream(wrappedContent);
+				}
+			}
+		}
+		return content;
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		InputStream inStream = getContent();
+		if (inStream == null) {
+			return;
+		}
+		try (InputStream is = inStream) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				outStream.write(buffer, 0, read);
+			}
+		}
+	}
+
+	@Override
+	@Deprecated
+	public void consumeContent() throws IOException {
+		InputStream inStream = getContent();
+		if (inStream != null) {
+			inStream.close();
+		}
+	}
+
+	private class TeeInputStream extends FilterInputStream {
+
+		private TeeInputStream(@Nonnull InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result = super.read();
+			if (result == -1) {
+				complete(true);
+			} else {
+				capture.write(result);
+			}
+			return result;
+		}
+
+		@Override
+		public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+			int result = super.read(b, off, len);
+			if (result == -1) {
+				complete(true);
+			} else {
+				capture.write(b, off, result);
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			// Skipped bytes still belong to the logged body, so read them through the capture
+			byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 0))];
+			long remaining = n;
+			while (remaining > 0) {
+				int read = read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (read == -1) {
+					break;
+				}
+				remaining -= read;
+			}
+			return n - remaining;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				// A body which is closed before EOF is logged as far as it was read
+				complete(false);
+			}
+		}
+	}
+}
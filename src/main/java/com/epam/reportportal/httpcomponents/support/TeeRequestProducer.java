@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link HttpAsyncRequestProducer} wrapper which copies request body bytes into a {@link CapturedBody} as the delegate
+ * writes them to the content encoder, so the body is captured on the I/O dispatch thread without buffering or
+ * blocking. A {@link FileContentEncoder} stays one, so producers which transfer the body from a file keep doing it
+ * without copying. Only the first transmission is captured, replays after {@link #resetRequest()} are passed through.
+ */
+public class TeeRequestProducer implements HttpAsyncRequestProducer {
+
+	private final HttpAsyncRequestProducer delegate;
+	private final Function<HttpRequest, CapturedBody> requestCallback;
+	private final Consumer<HttpContext> endCallback;
+	private final AtomicBoolean generated = new AtomicBoolean();
+	private final AtomicBoolean ended = new AtomicBoolean();
+	private volatile CapturedBody body;
+
+	/**
+	 * @param delegate        request producer to wrap
+	 * @param requestCallback called with the first generated request, returns a body capture target or
+	 *                        <code>null</code> to skip capture
+	 * @param endCallback     called once, when the first transmission is completed or failed, with the HTTP context in
+	 *                        the former case and <code>null</code> in the latter one
+	 */
+	public TeeRequestProducer(@Nonnull HttpAsyncRequestProducer delegate,
+			@Nonnull Function<HttpRequest, CapturedBody> requestCallback, @Nonnull Consumer<HttpContext> endCallback) {
+		this.delegate = delegate;
+		this.requestCallback = requestCallback;
+		this.endCallback = endCallback;
+	}
+
+	private void end(@Nullable HttpContext context) {
+		if (ended.compareAndSet(false, true)) {
+			endCallback.accept(context);
+		}
+	}
+
+	@Override
+	public HttpHost getTarget() {
+		return delegate.getTarget();
+	}
+
+	@Override
+	public HttpRequest generateRequest() throws IOException, HttpException {
+		HttpRequest request = delegate.generateRequest();
+		if (generated.compareAndSet(false, true)) {
+			body = requestCallback.apply(request);
+		}
+		return request;
+	}
+
+	@Override
+	public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+		CapturedBody capturedBody = body;
+		if (capturedBody == null || ended.get()) {
+			delegate.produceContent(encoder, ioControl);
+			return;
+		}
+		// Keep zero-copy transfers of producers which send the body from a file
+		delegate.produceContent(
+				encoder instanceof FileContentEncoder ?
+						new TeeFileEncoder((FileContentEncoder) encoder, capturedBody) :
+						new TeeEncoder(encoder, capturedBody), ioControl
+		);
+	}
+
+	@Override
+	public void requestCompleted(HttpContext context) {
+		try {
+			delegate.requestCompleted(context);
+		} finally {
+			end(context);
+		}
+	}
+
+	@Override
+	public void failed(Exception ex) {
+		try {
+			delegate.failed(ex);
+		} finally {
+			end(null);
+		}
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return delegate.isRepeatable();
+	}
+
+	@Override
+	public void resetRequest() throws IOException {
+		end(null);
+		delegate.resetRequest();
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	private class TeeEncoder implements ContentEncoder {
+		private final ContentEncoder encoder;
+		private final CapturedBody capturedBody;
+
+		private TeeEncoder(@Nonnull ContentEncoder encoder, @Nonnull CapturedBody capturedBody) {
+			this.encoder = encoder;
+			this.capturedBody = capturedBody;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			ByteBuffer view = src.duplicate();
+			int written = encoder.write(src);
+			if (written > 0 && !ended.get()) {
+				view.limit(view.position() + written);
+				capturedBody.write(view);
+			}
+			return written;
+		}
+
+		@Override
+		public void complete() throws IOException {
+			encoder.complete();
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return encoder.isCompleted();
+		}
+	}
+
+	private class TeeFileEncoder extends TeeEncoder implements FileContentEncoder {
+		private final FileContentEncoder encoder;
+		private final CapturedBody capturedBody;
+
+		private TeeFileEncoder(@Nonnull FileContentEncoder encoder, @Nonnull CapturedBody capturedBody) {
+			super(encoder, capturedBody);
+			this.encoder = encoder;
+			this.capturedBody = capturedBody;
+		}
+
+		@Override
+		public long transfer(FileChannel src, long position, long count) throws IOException {
+			long transferred = encoder.transfer(src, position, count);
+			if (transferred > 0 && !ended.get()) {
+				capturedBody.write(src, position, transferred);
+			}
+			return transferred;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.FileContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * {@link HttpAsyncResponseConsumer} wrapper which copies response body bytes into a {@link CapturedBody} as the
+ * delegate reads them from the content decoder, so the body is captured on the I/O dispatch thread without buffering
+ * or blocking. A {@link FileContentDecoder} stays one, so consumers which transfer the body to a file keep doing it
+ * without copying, the transferred bytes are read back from the file. If the file is not readable, the rest of the
+ * body is not captured.
+ *
+ * @param <T> response processing result type
+ */
+public class TeeResponseConsumer<T> implements HttpAsyncResponseConsumer<T> {
+
+	private final HttpAsyncResponseConsumer<T> delegate;
+	private final Function<HttpResponse, CapturedBody> responseCallback;
+	private final Runnable endCallback;
+	private final AtomicBoolean ended = new AtomicBoolean();
+	private volatile CapturedBody body;
+	private volatile boolean unreadable;
+
+	/**
+	 * @param delegate         response consumer to wrap
+	 * @param responseCallback called with the received response, returns a body capture target or <code>null</code> to
+	 *                         skip capture
+	 * @param endCallback      called once, when the response is completed, failed or cancelled
+	 */
+	public TeeResponseConsumer(@Nonnull HttpAsyncResponseConsumer<T> delegate,
+			@Nonnull Function<HttpResponse, CapturedBody> responseCallback, @Nonnull Runnable endCallback) {
+		this.delegate = delegate;
+		this.responseCallback = responseCallback;
+		this.endCallback = endCallback;
+	}
+
+	private void end() {
+		if (ended.compareAndSet(false, true)) {
+			endCallback.run();
+		}
+	}
+
+	@Override
+	public void responseReceived(HttpResponse response) throws IOException, HttpException {
+		delegate.responseReceived(response);
+		body = responseCallback.apply(response);
+	}
+
+	@Override
+	public void consumeContent(ContentDecoder decoder, IOControl ioControl) throws IOException {
+		CapturedBody capturedBody = body;
+		if (capturedBody == null || ended.get() || unreadable) {
+			delegate.consumeContent(decoder, ioControl);
+			return;
+		}
+		// Keep zero-copy transfers of consumers which write the body to a file
+		delegate.consumeContent(
+				decoder instanceof FileContentDecoder ?
+						new TeeFileDecoder((FileContentDecoder) decoder, capturedBody) :
+						new TeeDecoder(decoder, capturedBody), ioControl
+		);
+	}
+
+	@Override
+	public void responseCompleted(HttpContext context) {
+		try {
+			delegate.responseCompleted(context);
+		} finally {
+			end();
+		}
+	}
+
+	@Override
+	public void failed(Exception ex) {
+		try {
+			delegate.failed(ex);
+		} finally {
+			end();
+		}
+	}
+
+	@Override
+	public Exception getException() {
+		return delegate.getException();
+	}
+
+	@Override
+	public T getResult() {
+		return delegate.getResult();
+	}
+
+	@Override
+	public boolean isDone() {
+		return delegate.isDone();
+	}
+
+	@Override
+	public boolean cancel() {
+		try {
+			return delegate.cancel();
+		} finally {
+			end();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			delegate.close();
+		} finally {
+			end();
+		}
+	}
+
+	private static class TeeDecoder implements ContentDecoder {
+		private final ContentDecoder decoder;
+		private final CapturedBody capturedBody;
+
+		private TeeDecoder(@Nonnull ContentDecoder decoder, @Nonnull CapturedBody capturedBody) {
+			this.decoder = decoder;
+			this.capturedBody = capturedBody;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			int start = dst.position();
+			int read = decoder.read(dst);
+			if (read > 0) {
+				ByteBuffer view = dst.duplicate();
+				view.limit(start + read);
+				view.position(start);
+				capturedBody.write(view);
+			}
+			return read;
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return decoder.isCompleted();
+		}
+	}
+
+	private class TeeFileDecoder extends TeeDecoder implements FileContentDecoder {
+		private final FileContentDecoder decoder;
+		private final CapturedBody capturedBody;
+
+		private TeeFileDecoder(@Nonnull FileContentDecoder decoder, @Nonnull CapturedBody capturedBody) {
+			super(decoder, capturedBody);
+			this.decoder = decoder;
+			this.capturedBody = capturedBody;
+		}
+
+		@Override
+		public long transfer(FileChannel dst, long position, long count) throws IOException {
+			long transferred = decoder.transfer(dst, position, count);
+			if (transferred > 0 && !unreadable) {
+				try {
+					capturedBody.write(dst, position, transferred);
+				} catch (NonReadableChannelException e) {
+					// The consumer opened the file for writing only, the rest of the body is not captured
+					unreadable = true;
+				}
+			}
+			return transferred;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.entities.Param;
+
+import jakarta.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversion of captured body bytes to text. Charsets with JDK intrinsic decoding (UTF-8, ISO-8859-1, US-ASCII,
+ * UTF-16) are decoded by the {@link String} constructor. A pure-ASCII body in another ASCII-compatible charset is copied
+ * as Latin-1, which needs no decoding, other bodies are decoded with a {@link CharsetDecoder} cached per thread and
+ * charset.
+ */
+class TextDecoder {
+
+	private static final byte[] ASCII;
+
+	static {
+		ASCII = new byte[128];
+		for (int i = 0; i < ASCII.length; i++) {
+			ASCII[i] = (byte) i;
+		}
+	}
+
+	private static final Map<Charset, Boolean> ASCII_COMPATIBLE = new ConcurrentHashMap<>();
+	private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = ThreadLocal.withInitial(HashMap::new);
+
+	private TextDecoder() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	private static boolean isIntrinsic(@Nonnull Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset)
+				|| StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.UTF_16.equals(charset)
+				|| StandardCharsets.UTF_16BE.equals(charset) || StandardCharsets.UTF_16LE.equals(charset);
+	}
+
+	/**
+	 * @param charset charset
+	 * @return <code>true</code> if ASCII characters are encoded in the charset as single bytes of the same value
+	 */
+	static boolean isAsciiCompatible(@Nonnull Charset charset) {
+		return ASCII_COMPATIBLE.computeIfAbsent(
+				charset,
+				c -> c.canEncode() && Arrays.equals(ASCII, new String(ASCII, StandardCharsets.US_ASCII).getBytes(c))
+		);
+	}
+
+	private static boolean isAscii(@Nonnull byte[] bytes, int offset, int length) {
+		for (int i = offset, end = offset + length; i < end; i++) {
+			if (bytes[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decode bytes, malformed and unmappable input is replaced, like the {@link String} constructor does.
+	 *
+	 * @param bytes   source bytes
+	 * @param offset  offset of the first byte to decode
+	 * @param length  number of bytes to decode
+	 * @param charset charset of the bytes
+	 * @return decoded text
+	 */
+	@Nonnull
+	static String decode(@Nonnull byte[] bytes, int offset, int length, @Nonnull Charset charset) {
+		if (length == 0) {
+			return "";
+		}
+		if (isIntrinsic(charset)) {
+			return new String(bytes, offset, length, charset);
+		}
+		if (isAsciiCompatible(charset) && isAscii(bytes, offset, length)) {
+			return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+		}
+		CharsetDecoder decoder = DECODERS.get()
+				.computeIfAbsent(
+						charset,
+						c -> c.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE)
+				);
+		try {
+			return decoder.reset().decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+		} catch (CharacterCodingException e) {
+			// Not thrown with the replace action, but keep the String constructor semantics anyway
+			return new String(bytes, offset, length, charset);
+		}
+	}
+
+	/**
+	 * @param bytes   source bytes
+	 * @param charset charset of the bytes
+	 * @return decoded text
+	 */
+	@Nonnull
+	static String decode(@Nonnull byte[] bytes, @Nonnull Charset charset) {
+		return decode(bytes, 0, bytes.length, charset);
+	}
+
+	private static int hexValue(byte b) {
+		return Character.digit((char) (b & 0xFF), 16);
+	}
+
+	/**
+	 * Percent-decode a form token into the scratch buffer and decode the result.
+	 */
+	@Nonnull
+	private static String decodeFormToken(@Nonnull byte[] bytes, int from, int to, @Nonnull byte[] scratch, @Nonnull Charset charset) {
+		int length = 0;
+		for (int i = from; i < to; i++) {
+			byte b = bytes[i];
+			if (b == '+') {
+				scratch[length++] = ' ';
+			} else if (b == '%' && i + 2 < to && hexValue(bytes[i + 1]) >= 0 && hexValue(bytes[i + 2]) >= 0) {
+				scratch[length++] = (byte) ((hexValue(bytes[i + 1]) << 4) | hexValue(bytes[i + 2]));
+				i += 2;
+			} else {
+				scratch[length++] = b;
+			}
+		}
+		return decode(scratch, 0, length, charset);
+	}
+
+	/**
+	 * Parse an <code>application/x-www-form-urlencoded</code> body straight from its bytes: parameters are split and
+	 * percent-decoded on bytes, and only names and values are decoded into strings. A malformed percent sequence is
+	 * kept as is.
+	 *
+	 * @param bytes   body bytes
+	 * @param length  body length
+	 * @param charset charset of percent-decoded bytes
+	 * @return form parameters in body order
+	 */
+	@Nonnull
+	static List<Param> decodeForm(@Nonnull byte[] bytes, int length, @Nonnull Charset charset) {
+		List<Param> result = new ArrayList<>();
+		byte[] scratch = null;
+		int start = 0;
+		while (start < length) {
+			int end = start;
+			int separator = -1;
+			while (end < length && bytes[end] != '&') {
+				if (separator < 0 && bytes[end] == '=') {
+					separator = end;
+				}
+				end++;
+			}
+			if (end > start) {
+				if (scratch == null) {
+					scratch = new byte[length];
+				}
+				int nameEnd = separator < 0 ? end : separator;
+				String name = decodeFormToken(bytes, start, nameEnd, scratch, charset);
+				String value = separator < 0 ? "" : decodeFormToken(bytes, separator + 1, end, scratch, charset);
+				result.add(new Param(name, value));
+			}
+			start = end + 1;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5;
+
+import com.epam.reportportal.formatting.AbstractHttpFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.formatting.http.converters.DefaultCookieConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultFormParamConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultHttpHeaderConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultUriConverter;
+import com.epam.reportportal.formatting.http.entities.Cookie;
+import com.epam.reportportal.formatting.http.entities.Header;
+import com.epam.reportportal.formatting.http.entities.Param;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.CapturedBody;
+import com.epam.reportportal.httpcomponents.support.ChunkPool;
+import com.epam.reportportal.httpcomponents.support.RedactionRules;
+import com.epam.reportportal.httpcomponents.support.StreamingPrettifier;
+import com.epam.reportportal.httpcomponents5.support.HttpEntityFactory;
+import com.epam.reportportal.httpcomponents5.support.TeeDataConsumer;
+import com.epam.reportportal.httpcomponents5.support.TeeEntityProducer;
+import com.epam.reportportal.listeners.LogLevel;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Logging exec chain handler for the asynchronous Apache HttpClient 5. Register it right before the transport:
+ * <pre>
+ * HttpAsyncClients.custom().addExecInterceptorLast("report-portal", handler).build();
+ * </pre>
+ * Bodies are not buffered: request bytes are copied while the entity producer writes them to the channel, response
+ * bytes while the data consumer receives them. The I/O reactor only copies bytes, all formatting happens on the thread
+ * which executed the request, since Report Portal logs are bound to the test thread. Logs of completed exchanges are
+ * emitted in execution order on the next request of the same thread and on {@link #flush()}, so call {@link #flush()}
+ * at the end of each test item to get all its logs.
+ */
+public class ReportPortalAsyncLoggingHandler extends AbstractHttpFormatter<ReportPortalAsyncLoggingHandler>
+		implements AsyncExecChainHandler {
+
+	private static final String EXCHANGE_QUEUE = ReportPortalAsyncLoggingHandler.class.getName() + ".exchangeQueue";
+
+	private final List<Predicate<HttpRequest>> requestFilters = new CopyOnWriteArrayList<>();
+	private final List<Predicate<HttpResponse>> responseFilters = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Queue<Exchange>> exchanges = ThreadLocal.withInitial(ConcurrentLinkedQueue::new);
+
+	protected final Function<Param, String> paramConverter;
+
+	private volatile CaptureOptions captureOptions = CaptureOptions.DEFAULT;
+
+	/**
+	 * Captured data of a single request-response exchange. Fields are published by the I/O reactor and read by the
+	 * executing thread.
+	 */
+	private static class Exchange {
+		private HttpRequestFormatter.Builder request;
+		private CapturedBody requestBody;
+		private volatile boolean requestSent;
+		private volatile HttpResponseFormatter.Builder response;
+		private volatile CapturedBody responseBody;
+		private volatile boolean responseReceived;
+		private volatile boolean completed;
+	}
+
+	/**
+	 * Create a Logging Handler with the specific log level and converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 * @param cookieConvertFunction     the same as 'headerConvertFunction' param but for Cookies, default function
+	 *                                  formats Cookies with <code>toString</code> method
+	 * @param uriConverterFunction      the same as 'headerConvertFunction' param but for URI, default function returns
+	 *                                  URI "as is"
+	 * @param paramConverter            the same as 'headerConvertFunction' param but for Web Form Params, default function returns
+	 *                                  <code>param.getName() + ": " + param.getValue()</code>
+	 */
+	public ReportPortalAsyncLoggingHandler(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction, @Nullable Function<Cookie, String> cookieConvertFunction,
+			@Nullable Function<String, String> uriConverterFunction, @Nullable Function<Param, String> paramConverter) {
+		super(defaultLogLevel, headerConvertFunction, partHeaderConvertFunction, cookieConvertFunction, uriConverterFunction);
+		this.paramConverter = paramConverter != null ? paramConverter : DefaultFormParamConverter.INSTANCE;
+	}
+
+	/**
+	 * Create a Logging Handler with the specific log level and header converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 */
+	public ReportPortalAsyncLoggingHandler(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction) {
+		this(
+				defaultLogLevel,
+				headerConvertFunction,
+				partHeaderConvertFunction,
+				DefaultCookieConverter.INSTANCE,
+				DefaultUriConverter.INSTANCE,
+				DefaultFormParamConverter.INSTANCE
+		);
+	}
+
+	/**
+	 * Create a Logging Handler with the specific log level.
+	 *
+	 * @param defaultLogLevel log level on which Apache HttpComponents requests/responses will appear on Report Portal
+	 */
+	public ReportPortalAsyncLoggingHandler(@Nonnull LogLevel defaultLogLevel) {
+		this(defaultLogLevel, DefaultHttpHeaderConverter.INSTANCE, DefaultHttpHeaderConverter.INSTANCE);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nonnull
+	private Queue<Exchange> getQueue(@Nullable HttpContext context) {
+		if (context == null) {
+			return exchanges.get();
+		}
+		// Redirects and retries are executed by the I/O reactor, keep their logs in the queue of the original thread
+		Queue<Exchange> queue = (Queue<Exchange>) context.getAttribute(EXCHANGE_QUEUE);
+		if (queue == null) {
+			queue = exchanges.get();
+			context.setAttribute(EXCHANGE_QUEUE, queue);
+		}
+		return queue;
+	}
+
+	private void emitExchange(@Nonnull Exchange exchange) {
+		if (exchange.request != null) {
+			CapturedBody body = exchange.requestBody;
+			if (body != null && (exchange.requestSent || exchange.completed)) {
+				body.applyTo(exchange.request, getContentPrettifiers());
+				emitLog(body.annotate(exchange.request.build()));
+			} else {
+				emitLog(exchange.request.build());
+			}
+		}
+		HttpResponseFormatter.Builder response = exchange.response;
+		if (response != null) {
+			CapturedBody body = exchange.responseBody;
+			if (body != null && exchange.responseReceived) {
+				body.applyTo(response, getContentPrettifiers());
+				emitLog(body.annotate(response.build()));
+			} else {
+				emitLog(response.build());
+			}
+		}
+	}
+
+	private void emitExchanges(boolean all) {
+		Queue<Exchange> queue = exchanges.get();
+		Exchange exchange;
+		while ((exchange = queue.peek()) != null && (all || exchange.completed)) {
+			queue.poll();
+			emitExchange(exchange);
+		}
+	}
+
+	@Nullable
+	private Function<Header, String> redact(@Nullable Function<Header, String> converter) {
+		return captureOptions.getRedactionRules().headerConverter(converter);
+	}
+
+	@Override
+	public void execute(HttpRequest request, AsyncEntityProducer entityProducer, AsyncExecChain.Scope scope,
+			AsyncExecChain chain, AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+		emitExchanges(false);
+		Exchange exchange = new Exchange();
+		AsyncEntityProducer producer = entityProducer;
+		if (requestFilters.stream().noneMatch(f -> f.test(request))) {
+			exchange.request = HttpEntityFactory.createRequestBuilder(
+					request,
+					uriConverter,
+					redact(headerConverter),
+					cookieConverter,
+					paramConverter,
+					getContentPrettifiers()
+			);
+			if (entityProducer != null) {
+				exchange.requestBody = CapturedBody.forRequest(
+						entityProducer.getContentType(),
+						entityProducer.getContentLength(),
+						getBodyTypeMap(),
+						redact(partHeaderConverter),
+						captureOptions
+				);
+				producer = new TeeEntityProducer(entityProducer, exchange.requestBody, () -> exchange.requestSent = true);
+			}
+		}
+		getQueue(scope.clientContext).add(exchange);
+		chain.proceed(request, producer, scope, new LoggingCallback(asyncExecCallback, exchange));
+	}
+
+	private class LoggingCallback implements AsyncExecCallback {
+		private final AsyncExecCallback delegate;
+		private final Exchange exchange;
+
+		private LoggingCallback(@Nonnull AsyncExecCallback delegate, @Nonnull Exchange exchange) {
+			this.delegate = delegate;
+			this.exchange = exchange;
+		}
+
+		@Override
+		public AsyncDataConsumer handleResponse(HttpResponse response, EntityDetails entityDetails)
+				throws HttpException, IOException {
+			AsyncDataConsumer consumer = delegate.handleResponse(response, entityDetails);
+			if (responseFilters.stream().anyMatch(f -> f.test(response))) {
+				return consumer;
+			}
+			HttpResponseFormatter.Builder builder = HttpEntityFactory.createResponseBuilder(
+					response,
+					redact(headerConverter),
+					cookieConverter,
+					getContentPrettifiers()
+			);
+			if (entityDetails == null || consumer == null) {
+				exchange.response = builder;
+				return consumer;
+			}
+			CapturedBody body = CapturedBody.forResponse(
+					entityDetails.getContentType(),
+					entityDetails.getContentEncoding(),
+					entityDetails.getContentLength(),
+					getBodyTypeMap(),
+					captureOptions
+			);
+			exchange.responseBody = body;
+			exchange.response = builder;
+			return new TeeDataConsumer(consumer, body, () -> exchange.responseReceived = true);
+		}
+
+		@Override
+		public void handleInformationResponse(HttpResponse response) throws HttpException, IOException {
+			delegate.handleInformationResponse(response);
+		}
+
+		@Override
+		public void completed() {
+			// Mark the exchange before the application future completes, so the next call of the thread emits it
+			exchange.completed = true;
+			delegate.completed();
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			exchange.completed = true;
+			delegate.failed(cause);
+		}
+	}
+
+	public ReportPortalAsyncLoggingHandler addRequestFilter(@Nonnull Predicate<HttpRequest> requestFilter) {
+		requestFilters.add(requestFilter);
+		return this;
+	}
+
+	public ReportPortalAsyncLoggingHandler addResponseFilter(@Nonnull Predicate<HttpResponse> responseFilter) {
+		responseFilters.add(responseFilter);
+		return this;
+	}
+
+	/**
+	 * Limit the size of logged request and response bodies. A body longer than <code>headSize + tailSize</code> bytes
+	 * is logged with its first <code>headSize</code> and last <code>tailSize</code> bytes and the elided range is marked
+	 * in the log.
+	 *
+	 * @param headSize number of leading body bytes to log, a negative value turns the limit off
+	 * @param tailSize number of trailing body bytes to log
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingHandler setBodyCaptureLimit(int headSize, int tailSize) {
+		captureOptions = captureOptions.toBuilder().bodyLimit(headSize, tailSize).build();
+		return this;
+	}
+
+	/**
+	 * Limit decompression of gzip and deflate encoded response bodies. Such bodies are captured compressed and
+	 * decompressed on formatting, a body which decompresses to more bytes than the limit is logged truncated.
+	 *
+	 * @param limit maximum size of a decompressed body in bytes, a negative value means compressed bodies are logged as is
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingHandler setDecompressionLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().decompressionLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Log text bodies larger than the limit without prettification. Text bodies of a MIME type with a
+	 * {@link StreamingPrettifier} in content prettifiers are reformatted straight from captured bytes, other
+	 * prettifiers get a decoded body.
+	 *
+	 * @param limit maximum size of a body to prettify in bytes, a negative value means no limit
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingHandler setPrettifyLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().prettifyLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Mask sensitive data in logs: values of headers, JSON fields and form parameters, and whole multipart parts, which
+	 * match the rules, are replaced with {@link RedactionRules#REPLACEMENT}. Bodies are masked in a single pass while
+	 * they are captured.
+	 *
+	 * @param rules compiled redaction rules
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingHandler setRedactionRules(@Nonnull RedactionRules rules) {
+		captureOptions = captureOptions.toBuilder().redactionRules(rules).build();
+		return this;
+	}
+
+	/**
+	 * Capture bodies into chunks of a bounded pool, which are reused once a body is formatted, instead of allocating new
+	 * buffers for each body. Bodies of known length shorter than a chunk are captured into arrays of their exact size.
+	 *
+	 * @param maxChunks maximum number of retained chunks, zero or a negative value turns pooling off
+	 * @param chunkSize chunk size in bytes, which is also the largest retained buffer size
+	 * @return self instance for convenience
+	 */
+	public ReportPortalAsyncLoggingHandler setBufferPool(int maxChunks, int chunkSize) {
+		captureOptions = captureOptions.toBuilder().bufferPool(new ChunkPool(maxChunks, chunkSize)).build();
+		return this;
+	}
+
+	/**
+	 * Emit logs of all exchanges started by the current thread. An exchange which is still in progress is logged with
+	 * the data captured so far: a request body which is not completely sent and a response body which is not completely
+	 * received are omitted.
+	 */
+	public void flush() {
+		emitExchanges(true);
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5;
+
+import com.epam.reportportal.formatting.AbstractHttpFormatter;
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.converters.DefaultCookieConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultFormParamConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultHttpHeaderConverter;
+import com.epam.reportportal.formatting.http.converters.DefaultUriConverter;
+import com.epam.reportportal.formatting.http.entities.Cookie;
+import com.epam.reportportal.formatting.http.entities.Header;
+import com.epam.reportportal.formatting.http.entities.Param;
+import com.epam.reportportal.httpcomponents.support.BodyDeduplicator;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.ChunkPool;
+import com.epam.reportportal.httpcomponents.support.RedactionRules;
+import com.epam.reportportal.httpcomponents.support.ReportingState;
+import com.epam.reportportal.httpcomponents.support.StreamingPrettifier;
+import com.epam.reportportal.httpcomponents5.support.HttpEntityFactory;
+import com.epam.reportportal.listeners.LogLevel;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Logging interceptor for the classic (blocking) Apache HttpClient 5. Register the same instance as the last request
+ * and the last response interceptor:
+ * <pre>
+ * HttpClients.custom().addRequestInterceptorLast(interceptor).addResponseInterceptorLast(interceptor).build();
+ * </pre>
+ * Non-repeatable entities are buffered and replaced with repeatable ones, so the client and the application still get
+ * the complete body. For the asynchronous client use {@link ReportPortalAsyncLoggingHandler}.
+ */
+public class ReportPortalHttpLoggingInterceptor extends AbstractHttpFormatter<ReportPortalHttpLoggingInterceptor>
+		implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+	private final List<Predicate<HttpRequest>> requestFilters = new CopyOnWriteArrayList<>();
+	private final List<Predicate<HttpResponse>> responseFilters = new CopyOnWriteArrayList<>();
+
+	protected final Function<Param, String> paramConverter;
+
+	private volatile CaptureOptions captureOptions = CaptureOptions.DEFAULT;
+	private volatile boolean skipIfNotReporting;
+	private volatile BodyDeduplicator deduplicator;
+
+	/**
+	 * Create a Logging Interceptor with the specific log level and converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 * @param cookieConvertFunction     the same as 'headerConvertFunction' param but for Cookies, default function
+	 *                                  formats Cookies with <code>toString</code> method
+	 * @param uriConverterFunction      the same as 'headerConvertFunction' param but for URI, default function returns
+	 *                                  URI "as is"
+	 * @param paramConverter            the same as 'headerConvertFunction' param but for Web Form Params, default function returns
+	 *                                  <code>param.getName() + ": " + param.getValue()</code>
+	 */
+	public ReportPortalHttpLoggingInterceptor(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction, @Nullable Function<Cookie, String> cookieConvertFunction,
+			@Nullable Function<String, String> uriConverterFunction, @Nullable Function<Param, String> paramConverter) {
+		super(defaultLogLevel, headerConvertFunction, partHeaderConvertFunction, cookieConvertFunction, uriConverterFunction);
+		this.paramConverter = paramConverter != null ? paramConverter : DefaultFormParamConverter.INSTANCE;
+	}
+
+	/**
+	 * Create a Logging Interceptor with the specific log level and header converters.
+	 *
+	 * @param defaultLogLevel           log level on which Apache HttpComponents requests/responses will appear on
+	 *                                  Report Portal
+	 * @param headerConvertFunction     if you want to preprocess your HTTP Headers before they appear on Report Portal
+	 *                                  provide this custom function for the class, default function formats it like
+	 *                                  that: <code>header.getName() + ": " + header.getValue()</code>
+	 * @param partHeaderConvertFunction the same as for HTTP Headers, but for parts in Multipart request
+	 */
+	public ReportPortalHttpLoggingInterceptor(@Nonnull LogLevel defaultLogLevel, @Nullable Function<Header, String> headerConvertFunction,
+			@Nullable Function<Header, String> partHeaderConvertFunction) {
+		this(
+				defaultLogLevel,
+				headerConvertFunction,
+				partHeaderConvertFunction,
+				DefaultCookieConverter.INSTANCE,
+				DefaultUriConverter.INSTANCE,
+				DefaultFormParamConverter.INSTANCE
+		);
+	}
+
+	/**
+	 * Create a Logging Interceptor with the specific log level.
+	 *
+	 * @param defaultLogLevel log level on which Apache HttpComponents requests/responses will appear on Report Portal
+	 */
+	public ReportPortalHttpLoggingInterceptor(@Nonnull LogLevel defaultLogLevel) {
+		this(defaultLogLevel, DefaultHttpHeaderConverter.INSTANCE, DefaultHttpHeaderConverter.INSTANCE);
+	}
+
+	@Override
+	protected void emitLog(HttpFormatter formatter) {
+		BodyDeduplicator bodyDeduplicator = deduplicator;
+		super.emitLog(bodyDeduplicator == null ? formatter : bodyDeduplicator.deduplicate(formatter));
+	}
+
+	/**
+	 * Check whether logs emitted on the current thread reach Report Portal. Called before any capture work if
+	 * {@link #setSkipIfNotReporting(boolean)} is on. Override it to add more conditions, e.g. a log level check.
+	 *
+	 * @return <code>true</code> if the exchange should be captured
+	 */
+	protected boolean isReporting() {
+		return ReportingState.isReporting();
+	}
+
+	@Nullable
+	private Function<Header, String> redact(@Nullable Function<Header, String> converter) {
+		return captureOptions.getRedactionRules().headerConverter(converter);
+	}
+
+	@Override
+	public void process(HttpRequest request, EntityDetails entity, HttpContext context) {
+		if (skipIfNotReporting && !isReporting()) {
+			return;
+		}
+		if (requestFilters.stream().anyMatch(f -> f.test(request))) {
+			return;
+		}
+		emitLog(HttpEntityFactory.createHttpRequestFormatter(
+				request,
+				uriConverter,
+				redact(headerConverter),
+				cookieConverter,
+				paramConverter,
+				getContentPrettifiers(),
+				redact(partHeaderConverter),
+				getBodyTypeMap(),
+				captureOptions
+		));
+	}
+
+	@Override
+	public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+		if (skipIfNotReporting && !isReporting()) {
+			return;
+		}
+		if (responseFilters.stream().anyMatch(f -> f.test(response))) {
+			return;
+		}
+		emitLog(HttpEntityFactory.createHttpResponseFormatter(
+				response,
+				redact(headerConverter),
+				cookieConverter,
+				getContentPrettifiers(),
+				getBodyTypeMap(),
+				captureOptions
+		));
+	}
+
+	public ReportPortalHttpLoggingInterceptor addRequestFilter(@Nonnull Predicate<HttpRequest> requestFilter) {
+		requestFilters.add(requestFilter);
+		return this;
+	}
+
+	public ReportPortalHttpLoggingInterceptor addResponseFilter(@Nonnull Predicate<HttpResponse> responseFilter) {
+		responseFilters.add(responseFilter);
+		return this;
+	}
+
+	/**
+	 * Log repeated bodies only once: a text, form or binary body which was already logged is replaced with a reference
+	 * to the first entry and the body hash.
+	 *
+	 * @param maxEntries  maximum number of remembered body hashes, zero or a negative value turns deduplication off
+	 * @param minBodySize minimum body size in bytes to deduplicate, see {@link BodyDeduplicator#DEFAULT_MIN_BODY_SIZE}
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBodyDeduplication(int maxEntries, int minBodySize) {
+		deduplicator = maxEntries > 0 ? new BodyDeduplicator(maxEntries, minBodySize) : null;
+		return this;
+	}
+
+	/**
+	 * Skip body buffering and formatting entirely when logs would be discarded anyway: there is no running launch,
+	 * reporting is disabled or no test item is in progress on the current thread.
+	 *
+	 * @param skipIfNotReporting <code>true</code> to check reporting state before each capture
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setSkipIfNotReporting(boolean skipIfNotReporting) {
+		this.skipIfNotReporting = skipIfNotReporting;
+		return this;
+	}
+
+	/**
+	 * Limit the size of logged request and response bodies. A body longer than <code>headSize + tailSize</code> bytes
+	 * is logged with its first <code>headSize</code> and last <code>tailSize</code> bytes and the elided range is marked
+	 * in the log.
+	 *
+	 * @param headSize number of leading body bytes to log, a negative value turns the limit off
+	 * @param tailSize number of trailing body bytes to log
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBodyCaptureLimit(int headSize, int tailSize) {
+		captureOptions = captureOptions.toBuilder().bodyLimit(headSize, tailSize).build();
+		return this;
+	}
+
+	/**
+	 * Log binary multipart parts larger than the threshold as their size and SHA-256 hash instead of attaching them.
+	 *
+	 * @param threshold part size in bytes, a negative value turns summarizing off
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBinaryPartThreshold(long threshold) {
+		captureOptions = captureOptions.toBuilder().binaryPartThreshold(threshold).build();
+		return this;
+	}
+
+	/**
+	 * Limit decompression of gzip and deflate encoded response bodies. Such bodies are captured compressed and
+	 * decompressed on formatting, a body which decompresses to more bytes than the limit is logged truncated.
+	 *
+	 * @param limit maximum size of a decompressed body in bytes, a negative value means compressed bodies are logged as is
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setDecompressionLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().decompressionLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Log text bodies larger than the limit without prettification. Text bodies of a MIME type with a
+	 * {@link StreamingPrettifier} in content prettifiers are reformatted straight from captured bytes, other
+	 * prettifiers get a decoded body.
+	 *
+	 * @param limit maximum size of a body to prettify in bytes, a negative value means no limit
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setPrettifyLimit(long limit) {
+		captureOptions = captureOptions.toBuilder().prettifyLimit(limit).build();
+		return this;
+	}
+
+	/**
+	 * Mask sensitive data in logs: values of headers, JSON fields and form parameters, and whole multipart parts, which
+	 * match the rules, are replaced with {@link RedactionRules#REPLACEMENT}. Bodies are masked in a single pass while
+	 * they are captured.
+	 *
+	 * @param rules compiled redaction rules
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setRedactionRules(@Nonnull RedactionRules rules) {
+		captureOptions = captureOptions.toBuilder().redactionRules(rules).build();
+		return this;
+	}
+
+	/**
+	 * Capture bodies into chunks of a bounded pool, which are reused once a body is formatted, instead of allocating new
+	 * buffers for each body. Bodies of known length shorter than a chunk are captured into arrays of their exact size.
+	 *
+	 * @param maxChunks maximum number of retained chunks, zero or a negative value turns pooling off
+	 * @param chunkSize chunk size in bytes, which is also the largest retained buffer size
+	 * @return self instance for convenience
+	 */
+	public ReportPortalHttpLoggingInterceptor setBufferPool(int maxChunks, int chunkSize) {
+		captureOptions = captureOptions.toBuilder().bufferPool(new ChunkPool(maxChunks, chunkSize)).build();
+		return this;
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.formatting.http.entities.Cookie;
+import com.epam.reportportal.formatting.http.entities.Header;
+import com.epam.reportportal.formatting.http.entities.Param;
+import com.epam.reportportal.httpcomponents.support.CaptureOptions;
+import com.epam.reportportal.httpcomponents.support.CapturedBody;
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.hc.core5.http.io.entity.BufferedHttpEntity;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.epam.reportportal.formatting.http.HttpFormatUtils.*;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Formatter factory for Apache HttpCore 5 messages. Message heads are converted here, while bodies go through the same
+ * {@link CapturedBody} pipeline as HttpCore 4 bodies do.
+ */
+public class HttpEntityFactory {
+
+	private static final String DEFAULT_PROTOCOL = "HTTP/1.1";
+
+	private HttpEntityFactory() {
+		throw new IllegalStateException("Static only class");
+	}
+
+	@Nonnull
+	private static String getUri(@Nonnull HttpRequest request) {
+		try {
+			return request.getUri().toString();
+		} catch (URISyntaxException e) {
+			return request.getRequestUri();
+		}
+	}
+
+	/**
+	 * Create a request formatter builder with request line, headers and cookies, but without a body.
+	 *
+	 * @param request            HTTP request
+	 * @param uriConverter       URI converter
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param paramConverter     form parameter converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @return request formatter builder
+	 */
+	@Nonnull
+	public static HttpRequestFormatter.Builder createRequestBuilder(@Nonnull HttpRequest request,
+			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
+			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		HttpRequestFormatter.Builder builder = new HttpRequestFormatter.Builder(request.getMethod(), getUri(request));
+		ofNullable(request.getHeaders()).ifPresent(headers -> Arrays.stream(headers)
+				.filter(h -> !isCookie(h.getName()))
+				.forEach(h -> builder.addHeader(h.getName(), h.getValue())));
+		ofNullable(request.getHeaders()).ifPresent(headers -> Arrays.stream(headers)
+				.filter(h -> isCookie(h.getName()))
+				.flatMap(h -> toKeyValue(h.getValue()))
+				.forEach(h -> builder.addCookie(h.getKey(), h.getValue())));
+		builder.uriConverter(uriConverter)
+				.headerConverter(headerConverter)
+				.cookieConverter(cookieConverter)
+				.paramConverter(paramConverter)
+				.prettifiers(contentPrettifiers);
+		return builder;
+	}
+
+	/**
+	 * Create a response formatter builder with status line, headers and cookies, but without a body.
+	 *
+	 * @param response           HTTP response
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @return response formatter builder
+	 */
+	@Nonnull
+	public static HttpResponseFormatter.Builder createResponseBuilder(@Nonnull HttpResponse response,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers) {
+		int code = response.getCode();
+		// HTTP/2 responses have no reason phrase
+		String reason = ofNullable(response.getReasonPhrase()).orElseGet(() -> EnglishReasonPhraseCatalog.INSTANCE.getReason(
+				code,
+				Locale.ENGLISH
+		));
+		HttpResponseFormatter.Builder builder = new HttpResponseFormatter.Builder(
+				code,
+				ofNullable(response.getVersion()).map(Object::toString).orElse(DEFAULT_PROTOCOL) + " " + code + " " + reason
+		);
+		ofNullable(response.getHeaders()).ifPresent(headers -> Arrays.stream(headers)
+				.filter(h -> !isSetCookie(h.getName()))
+				.forEach(h -> builder.addHeader(h.getName(), h.getValue())));
+		ofNullable(response.getHeaders()).ifPresent(headers -> Arrays.stream(headers)
+				.filter(h -> isSetCookie(h.getName()))
+				.forEach(h -> builder.addCookie(toCookie(h.getValue()))));
+		builder.headerConverter(headerConverter).cookieConverter(cookieConverter).prettifiers(contentPrettifiers);
+		return builder;
+	}
+
+	@Nullable
+	private static HttpEntity cacheEntity(@Nullable HttpEntity httpEntity, @Nonnull CaptureOptions options) {
+		if (httpEntity == null || httpEntity.isRepeatable()) {
+			return httpEntity;
+		}
+		try {
+			HttpEntity buffered = new BufferedHttpEntity(httpEntity);
+			options.getMetricsListener().buffered(buffered.getContentLength());
+			return buffered;
+		} catch (IOException e) {
+			ReportPortal.emitLog("Unable to read HTTP entity: " + ExceptionUtils.getStackTrace(e), LogLevel.WARN.name(), Instant.now());
+			return null;
+		}
+	}
+
+	@Nonnull
+	private static CapturedBody capture(@Nonnull HttpEntity httpEntity, @Nonnull CapturedBody body,
+			@Nonnull CaptureOptions options) {
+		long start = System.nanoTime();
+		try {
+			httpEntity.writeTo(body);
+		} catch (IOException e) {
+			body.fail(e);
+		}
+		options.getMetricsListener().captureTime(System.nanoTime() - start);
+		return body;
+	}
+
+	/**
+	 * Create a formatter for a classic (blocking) client request. A non-repeatable entity is buffered and replaced with a
+	 * repeatable one.
+	 *
+	 * @param request             HTTP request
+	 * @param uriConverter        URI converter
+	 * @param headerConverter     HTTP header converter
+	 * @param cookieConverter     HTTP cookie converter
+	 * @param paramConverter      form parameter converter
+	 * @param contentPrettifiers  content prettifiers map
+	 * @param partHeaderConverter multipart part header converter
+	 * @param bodyTypeMap         MIME type to body type map
+	 * @param captureOptions      body capture options
+	 * @return request formatter
+	 */
+	@Nonnull
+	public static HttpFormatter createHttpRequestFormatter(@Nonnull HttpRequest request,
+			@Nullable Function<String, String> uriConverter, @Nullable Function<Header, String> headerConverter,
+			@Nullable Function<Cookie, String> cookieConverter, @Nullable Function<Param, String> paramConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nullable Function<Header, String> partHeaderConverter,
+			@Nonnull Map<String, BodyType> bodyTypeMap, @Nonnull CaptureOptions captureOptions) {
+		HttpRequestFormatter.Builder builder = createRequestBuilder(
+				request,
+				uriConverter,
+				headerConverter,
+				cookieConverter,
+				paramConverter,
+				contentPrettifiers
+		);
+		if (!(request instanceof ClassicHttpRequest)) {
+			return builder.build();
+		}
+		ClassicHttpRequest classicRequest = (ClassicHttpRequest) request;
+		HttpEntity httpEntity = cacheEntity(classicRequest.getEntity(), captureOptions);
+		classicRequest.setEntity(httpEntity);
+		if (httpEntity == null) {
+			return builder.build();
+		}
+		CapturedBody body = capture(
+				httpEntity,
+				CapturedBody.forRequest(
+						httpEntity.getContentType(),
+						httpEntity.getContentLength(),
+						bodyTypeMap,
+						partHeaderConverter,
+						captureOptions
+				),
+				captureOptions
+		);
+		body.applyTo(builder, contentPrettifiers);
+		return body.annotate(builder.build());
+	}
+
+	/**
+	 * Create a formatter for a classic (blocking) client response. A non-repeatable entity is buffered and replaced with
+	 * a repeatable one.
+	 *
+	 * @param response           HTTP response
+	 * @param headerConverter    HTTP header converter
+	 * @param cookieConverter    HTTP cookie converter
+	 * @param contentPrettifiers content prettifiers map
+	 * @param bodyTypeMap        MIME type to body type map
+	 * @param captureOptions     body capture options
+	 * @return response formatter
+	 */
+	@Nonnull
+	public static HttpFormatter createHttpResponseFormatter(@Nonnull HttpResponse response,
+			@Nullable Function<Header, String> headerConverter, @Nullable Function<Cookie, String> cookieConverter,
+			@Nullable Map<String, Function<String, String>> contentPrettifiers, @Nonnull Map<String, BodyType> bodyTypeMap,
+			@Nonnull CaptureOptions captureOptions) {
+		HttpResponseFormatter.Builder builder = createResponseBuilder(response, headerConverter, cookieConverter, contentPrettifiers);
+		if (!(response instanceof ClassicHttpResponse)) {
+			return builder.build();
+		}
+		ClassicHttpResponse classicResponse = (ClassicHttpResponse) response;
+		HttpEntity httpEntity = cacheEntity(classicResponse.getEntity(), captureOptions);
+		classicResponse.setEntity(httpEntity);
+		if (httpEntity == null) {
+			return builder.build();
+		}
+		CapturedBody body = capture(
+				httpEntity,
+				CapturedBody.forResponse(
+						httpEntity.getContentType(),
+						httpEntity.getContentEncoding(),
+						httpEntity.getContentLength(),
+						bodyTypeMap,
+						captureOptions
+				),
+				captureOptions
+		);
+		body.applyTo(builder, contentPrettifiers);
+		return body.annotate(builder.build());
+	}
+}
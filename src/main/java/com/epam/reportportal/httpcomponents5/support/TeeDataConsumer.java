@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5.support;
+
+import com.epam.reportportal.httpcomponents.support.CapturedBody;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AsyncDataConsumer} wrapper which copies response body bytes into a {@link CapturedBody} before passing them to
+ * the application consumer, so the body is captured on the I/O reactor without buffering or blocking. The callback is
+ * called once, when the body stream ends or the consumer resources are released.
+ */
+public class TeeDataConsumer implements AsyncDataConsumer {
+
+	private final AsyncDataConsumer delegate;
+	private final CapturedBody body;
+	private final Runnable callback;
+	private final AtomicBoolean ended = new AtomicBoolean();
+
+	public TeeDataConsumer(@Nonnull AsyncDataConsumer delegate, @Nonnull CapturedBody body, @Nonnull Runnable callback) {
+		this.delegate = delegate;
+		this.body = body;
+		this.callback = callback;
+	}
+
+	private void end() {
+		if (ended.compareAndSet(false, true)) {
+			callback.run();
+		}
+	}
+
+	@Override
+	public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+		delegate.updateCapacity(capacityChannel);
+	}
+
+	@Override
+	public void consume(ByteBuffer src) throws IOException {
+		if (!ended.get()) {
+			body.write(src);
+		}
+		delegate.consume(src);
+	}
+
+	@Override
+	public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+		try {
+			delegate.streamEnd(trailers);
+		} finally {
+			end();
+		}
+	}
+
+	@Override
+	public void releaseResources() {
+		try {
+			delegate.releaseResources();
+		} finally {
+			end();
+		}
+	}
+}
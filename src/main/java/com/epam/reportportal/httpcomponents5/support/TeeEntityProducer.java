@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5.support;
+
+import com.epam.reportportal.httpcomponents.support.CapturedBody;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AsyncEntityProducer} wrapper which copies request body bytes into a {@link CapturedBody} as they are written to
+ * the data channel, so the body is captured on the I/O reactor without buffering or blocking. The callback is called
+ * once, when the body stream ends or the producer fails. Only the first transmission is captured, replays of a
+ * repeatable producer on retries or redirects are passed through.
+ */
+public class TeeEntityProducer implements AsyncEntityProducer {
+
+	private final AsyncEntityProducer delegate;
+	private final CapturedBody body;
+	private final Runnable callback;
+	private final AtomicBoolean ended = new AtomicBoolean();
+
+	public TeeEntityProducer(@Nonnull AsyncEntityProducer delegate, @Nonnull CapturedBody body, @Nonnull Runnable callback) {
+		this.delegate = delegate;
+		this.body = body;
+		this.callback = callback;
+	}
+
+	private void end() {
+		if (ended.compareAndSet(false, true)) {
+			callback.run();
+		}
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return delegate.isRepeatable();
+	}
+
+	@Override
+	public void failed(Exception cause) {
+		try {
+			delegate.failed(cause);
+		} finally {
+			end();
+		}
+	}
+
+	@Override
+	public long getContentLength() {
+		return delegate.getContentLength();
+	}
+
+	@Override
+	public String getContentType() {
+		return delegate.getContentType();
+	}
+
+	@Override
+	public String getContentEncoding() {
+		return delegate.getContentEncoding();
+	}
+
+	@Override
+	public boolean isChunked() {
+		return delegate.isChunked();
+	}
+
+	@Override
+	public Set<String> getTrailerNames() {
+		return delegate.getTrailerNames();
+	}
+
+	@Override
+	public int available() {
+		return delegate.available();
+	}
+
+	@Override
+	public void produce(DataStreamChannel channel) throws IOException {
+		delegate.produce(ended.get() ? channel : new TeeChannel(channel));
+	}
+
+	@Override
+	public void releaseResources() {
+		delegate.releaseResources();
+	}
+
+	private class TeeChannel implements DataStreamChannel {
+		private final DataStreamChannel channel;
+
+		private TeeChannel(@Nonnull DataStreamChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void requestOutput() {
+			channel.requestOutput();
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			ByteBuffer view = src.duplicate();
+			int written = channel.write(src);
+			if (written > 0 && !ended.get()) {
+				view.limit(view.position() + written);
+				body.write(view);
+			}
+			return written;
+		}
+
+		@Override
+		public void endStream() throws IOException {
+			channel.endStream();
+			end();
+		}
+
+		@Override
+		public void endStream(List<? extends Header> trailers) throws IOException {
+			channel.endStream(trailers);
+			end();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents;
+
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+
+public class ReportPortalAsyncLoggingDecoratorTest {
+
+	private static final HttpHost HOST = new HttpHost("docker.local", 8080);
+	private static final String URI = "/app";
+	private static final String REQUEST = "**>>> REQUEST**\nPOST to " + HOST.toURI() + URI;
+	private static final String GET_REQUEST = "**>>> REQUEST**\nGET to " + HOST.toURI() + URI;
+	private static final String RESPONSE = "**<<< RESPONSE**\nHTTP/1.1 201 Created";
+
+	/**
+	 * Content encoder which accepts all written bytes.
+	 */
+	private static class ByteEncoder implements ContentEncoder {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private boolean completed;
+
+		@Override
+		public int write(ByteBuffer src) {
+			int written = src.remaining();
+			byte[] chunk = new byte[written];
+			src.get(chunk);
+			bytes.write(chunk, 0, written);
+			return written;
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return completed;
+		}
+	}
+
+	/**
+	 * Content decoder which reads a body in small portions.
+	 */
+	private static class ByteDecoder implements ContentDecoder {
+		private final ByteBuffer body;
+
+		private ByteDecoder(byte[] body) {
+			this.body = ByteBuffer.wrap(body);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			if (!body.hasRemaining()) {
+				return -1;
+			}
+			int size = Math.min(Math.min(dst.remaining(), body.remaining()), 7);
+			ByteBuffer portion = body.duplicate();
+			portion.limit(portion.position() + size);
+			dst.put(portion);
+			body.position(body.position() + size);
+			return size;
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return !body.hasRemaining();
+		}
+	}
+
+	private static HttpAsyncRequestProducer createProducer(String body) {
+		BasicHttpEntityEnclosingRequest request = new BasicHttpEntityEnclosingRequest("POST", URI);
+		request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+		return HttpAsyncMethods.create(HOST, request);
+	}
+
+	private static void send(HttpAsyncRequestProducer producer) throws Exception {
+		HttpRequest request = producer.generateRequest();
+		if (request instanceof HttpEntityEnclosingRequest) {
+			ByteEncoder encoder = new ByteEncoder();
+			IOControl ioControl = mock(IOControl.class);
+			while (!encoder.isCompleted()) {
+				producer.produceContent(encoder, ioControl);
+			}
+		}
+		producer.requestCompleted(new BasicHttpContext());
+	}
+
+	private static void receive(HttpAsyncResponseConsumer<HttpResponse> consumer, String body) throws Exception {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 201, "Created");
+		BasicHttpEntity entity = new BasicHttpEntity();
+		entity.setContentType(ContentType.APPLICATION_JSON.toString());
+		entity.setContentLength(bytes.length);
+		response.setEntity(entity);
+		consumer.responseReceived(response);
+		ByteDecoder decoder = new ByteDecoder(bytes);
+		IOControl ioControl = mock(IOControl.class);
+		while (!decoder.isCompleted()) {
+			consumer.consumeContent(decoder, ioControl);
+		}
+		consumer.responseCompleted(new BasicHttpContext());
+	}
+
+	@Test
+	public void test_concurrent_exchanges_of_one_thread_are_correlated() throws Exception {
+		ReportPortalAsyncLoggingDecorator decorator = new ReportPortalAsyncLoggingDecorator(LogLevel.INFO);
+		ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			reportPortalMock.when(() -> ReportPortal.emitLog(logCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			ReportPortalAsyncLoggingDecorator.DecoratedExchange<HttpResponse> first = decorator.decorate(
+					createProducer("{\"request\": 1}"),
+					new BasicAsyncResponseConsumer()
+			);
+			ReportPortalAsyncLoggingDecorator.DecoratedExchange<HttpResponse> second = decorator.decorate(
+					createProducer("{\"request\": 2}"),
+					new BasicAsyncResponseConsumer()
+			);
+			// Both requests are sent before any response arrives, the second response comes first
+			send(first.getRequestProducer());
+			send(second.getRequestProducer());
+			receive(second.getResponseConsumer(), "{\"response\": 2}");
+			receive(first.getResponseConsumer(), "{\"response\": 1}");
+			decorator.flush();
+		}
+
+		List<String> logs = logCaptor.getAllValues();
+		assertThat(logs, hasSize(4));
+		assertThat(logs.get(0), allOf(startsWith(REQUEST), containsString("\"request\" : 1")));
+		assertThat(logs.get(1), allOf(startsWith(RESPONSE), containsString("\"response\" : 1")));
+		assertThat(logs.get(2), allOf(startsWith(REQUEST), containsString("\"request\" : 2")));
+		assertThat(logs.get(3), allOf(startsWith(RESPONSE), containsString("\"response\" : 2")));
+	}
+
+	@Test
+	public void test_completed_exchange_is_emitted_on_next_decoration() throws Exception {
+		ReportPortalAsyncLoggingDecorator decorator = new ReportPortalAsyncLoggingDecorator(LogLevel.INFO);
+		ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			reportPortalMock.when(() -> ReportPortal.emitLog(logCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			ReportPortalAsyncLoggingDecorator.DecoratedExchange<HttpResponse> exchange = decorator.decorate(
+					HttpAsyncMethods.create(HOST, new BasicHttpRequest("GET", URI)),
+					new BasicAsyncResponseConsumer()
+			);
+			send(exchange.getRequestProducer());
+			assertThat(logCaptor.getAllValues(), empty());
+			receive(exchange.getResponseConsumer(), "{}");
+			decorator.decorate(new BasicAsyncResponseConsumer());
+		}
+
+		assertThat(logCaptor.getAllValues(), contains(equalTo(GET_REQUEST), startsWith(RESPONSE)));
+	}
+
+	@Test
+	public void test_producer_and_consumer_decorated_alone_are_logged_separately() throws Exception {
+		ReportPortalAsyncLoggingDecorator decorator = new ReportPortalAsyncLoggingDecorator(LogLevel.INFO);
+		ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			reportPortalMock.when(() -> ReportPortal.emitLog(logCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			HttpAsyncRequestProducer producer = decorator.decorate(createProducer("{\"request\": 1}"));
+			HttpAsyncResponseConsumer<HttpResponse> consumer = decorator.decorate(new BasicAsyncResponseConsumer());
+			send(producer);
+			receive(consumer, "{\"response\": 1}");
+			decorator.flush();
+		}
+
+		List<String> logs = logCaptor.getAllValues();
+		assertThat(logs, hasSize(2));
+		assertThat(logs.get(0), allOf(startsWith(REQUEST), containsString("\"request\" : 1")));
+		assertThat(logs.get(1), allOf(startsWith(RESPONSE), containsString("\"response\" : 1")));
+	}
+}
@@ -18,6 +18,13 @@ package com.epam.reportportal.httpcomponents;
 
 import com.epam.reportportal.formatting.http.prettifiers.JsonPrettifier;
 import com.epam.reportportal.formatting.http.prettifiers.XmlPrettifier;
+import com.epam.reportportal.httpcomponents.support.AsyncLogDispatcher;
+import com.epam.reportportal.httpcomponents.support.FilterRule;
+import com.epam.reportportal.httpcomponents.support.LoggingMetrics;
+import com.epam.reportportal.httpcomponents.support.LoggingPolicy;
+import com.epam.reportportal.httpcomponents.support.OverloadGuard;
+import com.epam.reportportal.httpcomponents.support.RedactionRules;
+import com.epam.reportportal.httpcomponents.support.StreamingJsonPrettifier;
 import com.epam.reportportal.listeners.ItemStatus;
 import com.epam.reportportal.listeners.LogLevel;
 import com.epam.reportportal.message.ReportPortalMessage;
@@ -31,7 +38,9 @@ import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.http.*;
+import org.apache.http.client.HttpRequestRetryHandler;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.FormBodyPart;
@@ -43,6 +52,7 @@ import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.util.EntityUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -51,13 +61,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 import static com.epam.reportportal.formatting.http.Constants.*;
 import static java.util.Optional.ofNullable;
@@ -66,6 +80,7 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ReportPortalHttpLoggingInterceptorTest {
@@ -551,4 +566,541 @@ public class ReportPortalHttpLoggingInterceptorTest {
 		assertThat(logs.getMiddle(), hasSize(1));
 		assertThat(logs.getMiddle().get(0), startsWith(REQUEST_TAG));
 	}
+
+	@Test
+	public void test_request_log_filter_rule() {
+		HttpRequest requestSpecification = mockBasicRequest();
+		HttpResponse responseObject = createBasicResponse();
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChainComplexMessageCapture(
+				requestSpecification,
+				responseObject,
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).addRequestFilterRule(FilterRule.builder().method("post").build())
+		);
+		assertThat(logs.getMiddle(), hasSize(1));
+		assertThat(logs.getMiddle().get(0), startsWith(RESPONSE_TAG));
+	}
+
+	@Test
+	public void test_response_log_filter_rule() {
+		HttpRequest requestSpecification = mockBasicRequest();
+		HttpResponse responseObject = createBasicResponse();
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChainComplexMessageCapture(
+				requestSpecification,
+				responseObject,
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).addResponseFilterRule(FilterRule.builder()
+						.statusRange(200, 299)
+						.build())
+		);
+		assertThat(logs.getMiddle(), hasSize(1));
+		assertThat(logs.getMiddle().get(0), startsWith(REQUEST_TAG));
+	}
+
+	@Test
+	public void test_sampled_out_exchange_is_counted() {
+		HttpRequest requestSpecification = mockBasicRequest();
+		HttpResponse responseObject = createBasicResponse();
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setSamplingPolicy((r, c) -> false);
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChainComplexMessageCapture(
+				requestSpecification,
+				responseObject,
+				interceptor
+		);
+		assertThat(logs.getMiddle(), hasSize(0));
+		assertThat(interceptor.getSampledOutCount(), equalTo(1L));
+	}
+
+	@Test
+	public void test_sampled_out_request_of_failed_exchange_is_logged() {
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setSamplingPolicy((r, c) -> false);
+		HttpContext context = new BasicHttpContext();
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class))).thenReturn(Boolean.TRUE);
+			interceptor.process(mockBasicRequest(), context);
+			assertThat(logCapture.getAllValues(), empty());
+			interceptor.failed(context);
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(1));
+		assertThat(logs.get(0), startsWith(REQUEST_TAG));
+		assertThat(interceptor.getSampledOutCount(), equalTo(0L));
+	}
+
+	@Test
+	public void test_combined_logging_emits_single_entry() {
+		HttpRequest requestSpecification = mockBasicRequest();
+		HttpResponse responseObject = createBasicResponse();
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChainComplexMessageCapture(
+				requestSpecification,
+				responseObject,
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setCombinedLogging(true)
+		);
+		assertThat(logs.getMiddle(), hasSize(1));
+		assertThat(logs.getMiddle().get(0), startsWith(REQUEST_TAG));
+		assertThat(logs.getMiddle().get(0), containsString(RESPONSE_TAG));
+	}
+
+	@Test
+	public void test_combined_logging_combines_overlapping_exchanges_of_one_thread() {
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setCombinedLogging(true);
+		HttpContext firstContext = new BasicHttpContext();
+		HttpContext secondContext = new BasicHttpContext();
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class))).thenReturn(Boolean.TRUE);
+			interceptor.process(mockBasicRequest(Collections.singletonList(Pair.of("X-Exchange", "first"))), firstContext);
+			interceptor.process(mockBasicRequest(Collections.singletonList(Pair.of("X-Exchange", "second"))), secondContext);
+			interceptor.process(createBasicResponse(), firstContext);
+			interceptor.process(createBasicResponse(), secondContext);
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2));
+		assertThat(logs.get(0), allOf(startsWith(REQUEST_TAG), containsString("X-Exchange: first"), containsString(RESPONSE_TAG)));
+		assertThat(logs.get(1), allOf(startsWith(REQUEST_TAG), containsString("X-Exchange: second"), containsString(RESPONSE_TAG)));
+	}
+
+	@Test
+	public void test_combined_logging_emits_request_of_failed_exchange() {
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setCombinedLogging(true);
+		HttpRequestRetryHandler retryHandler = interceptor.retryHandler((exception, executionCount, context) -> false);
+		HttpContext context = new BasicHttpContext();
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		boolean retry;
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class))).thenReturn(Boolean.TRUE);
+			interceptor.process(mockBasicRequest(), context);
+			assertThat(logCapture.getAllValues(), empty());
+			retry = retryHandler.retryRequest(new IOException("Connection reset"), 1, context);
+		}
+
+		assertThat(retry, equalTo(Boolean.FALSE));
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(1));
+		assertThat(logs.get(0), startsWith(REQUEST_TAG));
+		assertThat(logs.get(0), not(containsString(RESPONSE_TAG)));
+	}
+
+	@Test
+	public void test_metrics_count_logged_and_filtered_entries() {
+		HttpRequest requestSpecification = mockBasicRequest();
+		HttpResponse responseObject = createBasicResponse();
+		LoggingMetrics metrics = new LoggingMetrics();
+		runChainComplexMessageCapture(
+				requestSpecification,
+				responseObject,
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setMetricsListener(metrics)
+						.addRequestFilterRule(FilterRule.builder().method("post").build())
+		);
+		assertThat(metrics.getLoggedCount(), equalTo(1L));
+		assertThat(metrics.getFilteredCount(), equalTo(1L));
+		assertThat(metrics.getEmitTimeMax(), greaterThanOrEqualTo(0L));
+	}
+
+	@Test
+	public void test_streaming_response_capture_emits_log_after_body_read() throws IOException {
+		String responseBodyStr = "{\"object\": {\"key\": \"value\"}}";
+		BasicHttpEntity responseBody = new BasicHttpEntity();
+		responseBody.setContent(new ByteArrayInputStream(responseBodyStr.getBytes(StandardCharsets.UTF_8)));
+		responseBody.setContentType(ContentType.APPLICATION_JSON.toString());
+		HttpResponse response = createBasicResponse(Collections.emptyList(), responseBody);
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setStreamingResponseCapture(
+				true);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		String body;
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class))).thenReturn(Boolean.TRUE);
+			interceptor.process(response, CONTEXT);
+			assertThat(logCapture.getAllValues(), empty());
+
+			body = EntityUtils.toString(response.getEntity());
+		}
+
+		assertThat(body, equalTo(responseBodyStr));
+		assertThat(logCapture.getAllValues(), hasSize(1));
+		assertThat(
+				logCapture.getValue(),
+				equalTo(EMPTY_RESPONSE + "\n\n**Body**\n```\n" + JsonPrettifier.INSTANCE.apply(responseBodyStr) + "\n```")
+		);
+	}
+
+	@Test
+	public void test_body_capture_limit_truncates_text_body() throws IOException {
+		String requestBodyStr = "0123456789abcdefghij";
+		HttpEntity requestBody = new ByteArrayEntity(requestBodyStr.getBytes(StandardCharsets.UTF_8), ContentType.TEXT_PLAIN);
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setBodyCaptureLimit(4, 3)
+		);
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(0), startsWith(EMPTY_REQUEST));
+		assertThat(logs.get(0), containsString("0123"));
+		assertThat(logs.get(0), containsString("[... 13 bytes elided, offsets 4-16 ...]"));
+		assertThat(logs.get(0), containsString("hij"));
+		assertThat(logs.get(0), not(containsString("4567")));
+		assertThat(EntityUtils.toString(((HttpEntityEnclosingRequest) request).getEntity()), equalTo(requestBodyStr));
+	}
+
+	@Test
+	public void test_body_capture_limit_attaches_head_and_tail_of_binary_body() throws IOException {
+		byte[] requestBytes = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+		HttpEntity requestBody = new ByteArrayEntity(requestBytes, ContentType.create(IMAGE_TYPE));
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+		ArgumentCaptor<ReportPortalMessage> logCapture = ArgumentCaptor.forClass(ReportPortalMessage.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setBodyCaptureLimit(4, 3)
+		);
+
+		List<ReportPortalMessage> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(1)); // Request only, the response has no body
+		assertThat(logs.get(0).getMessage(), startsWith(EMPTY_REQUEST));
+		assertThat(
+				logs.get(0).getMessage(),
+				endsWith("[Binary body of 20 bytes exceeds the capture limit, bytes 4-16 are elided from the attachment]")
+		);
+		assertThat(logs.get(0).getData().getMediaType(), equalTo(IMAGE_TYPE));
+		assertThat(logs.get(0).getData().read(), equalTo("0123hij".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void test_body_capture_limit_keeps_form_body_charset() {
+		String requestBodyStr = "name=Jos\u00E9&city=M\u00FCnchen";
+		HttpEntity requestBody = new ByteArrayEntity(
+				requestBodyStr.getBytes(StandardCharsets.UTF_8),
+				ContentType.APPLICATION_FORM_URLENCODED.withCharset(StandardCharsets.UTF_8)
+		);
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setBodyCaptureLimit(10, 8)
+		);
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(0), containsString("name=Jos\u00E9"));
+		assertThat(logs.get(0), containsString("M\u00FCnchen"));
+	}
+
+	@Test
+	public void test_logging_policy_sets_level_and_skips_bodies_for_route() {
+		BasicHttpEntity requestBody = new BasicHttpEntity();
+		requestBody.setContent(new ByteArrayInputStream("secret".getBytes(StandardCharsets.UTF_8)));
+		requestBody.setContentType(ContentType.TEXT_PLAIN.toString());
+		HttpRequest request = mockBasicRequest(Collections.singletonList(Pair.of("X-Test", "value")), requestBody);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> levelCapture = ArgumentCaptor.forClass(String.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), levelCapture.capture(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).addLoggingPolicy(
+						FilterRule.builder().pathPrefix(URI).build(),
+						new LoggingPolicy(LogLevel.DEBUG, LoggingPolicy.Detail.HEADERS)
+				)
+		);
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(levelCapture.getAllValues(), everyItem(equalTo(LogLevel.DEBUG.name())));
+		assertThat(logs.get(0), containsString("X-Test"));
+		assertThat(logs.get(0), not(containsString("secret")));
+		assertThat(((HttpEntityEnclosingRequest) request).getEntity(), sameInstance(requestBody));
+	}
+
+	@Test
+	public void test_logging_policy_level_applies_to_multipart_and_binary_bodies() throws IOException {
+		byte[] image = getResource(IMAGE);
+		HttpEntity requestBody = getBinaryTextBody(ContentType.TEXT_PLAIN, "test_message", ContentType.IMAGE_JPEG, IMAGE);
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+		HttpResponse response = createBasicResponse(Collections.emptyList(), new ByteArrayEntity(image, ContentType.IMAGE_JPEG));
+
+		ArgumentCaptor<String> stepCaptor = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> levelCapture = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<ReportPortalMessage> messageCapture = ArgumentCaptor.forClass(ReportPortalMessage.class);
+		try (MockedStatic<Launch> utilities = Mockito.mockStatic(Launch.class)) {
+			Launch launch = mock(Launch.class);
+			StepReporter reporter = mock(StepReporter.class);
+			utilities.when(Launch::currentLaunch).thenReturn(launch);
+			when(launch.getStepReporter()).thenReturn(reporter);
+			when(reporter.sendStep(any(ItemStatus.class), stepCaptor.capture())).thenReturn(CommonUtils.createMaybeUuid());
+			runChain(
+					request, response, mock -> {
+						mock.when(() -> ReportPortal.emitLog(anyString(), levelCapture.capture(), any(Instant.class)))
+								.thenReturn(Boolean.TRUE);
+						mock.when(() -> ReportPortal.emitLog(messageCapture.capture(), levelCapture.capture(), any(Instant.class)))
+								.thenReturn(Boolean.TRUE);
+					}, new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).addLoggingPolicy(
+							FilterRule.builder().pathPrefix(URI).build(),
+							new LoggingPolicy(LogLevel.DEBUG, LoggingPolicy.Detail.FULL)
+					)
+			);
+			verify(reporter).finishPreviousStep();
+		}
+
+		assertThat(stepCaptor.getAllValues(), contains(EMPTY_REQUEST));
+		assertThat(levelCapture.getAllValues(), hasSize(3)); // Text part + Binary part + Response
+		assertThat(levelCapture.getAllValues(), everyItem(equalTo(LogLevel.DEBUG.name())));
+		List<ReportPortalMessage> messages = messageCapture.getAllValues();
+		assertThat(messages, hasSize(2));
+		assertThat(messages.get(0).getData().read(), equalTo(image));
+		assertThat(messages.get(1).getMessage(), startsWith(EMPTY_RESPONSE));
+		assertThat(messages.get(1).getData().read(), equalTo(image));
+	}
+
+	@Test
+	public void test_body_deduplication_replaces_repeated_body_with_reference() {
+		String responseBodyStr = "{\"status\": \"pending\", \"progress\": 42}";
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setBodyDeduplication(16, 10);
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		for (int i = 0; i < 2; i++) {
+			HttpEntity responseBody = new ByteArrayEntity(responseBodyStr.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+			runChain(
+					mockBasicRequest(),
+					createBasicResponse(Collections.emptyList(), responseBody),
+					mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+							.thenReturn(Boolean.TRUE),
+					interceptor
+			);
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(4)); // 2 x (Request + Response)
+		assertThat(logs.get(1), containsString("pending"));
+		assertThat(logs.get(3), not(containsString("pending")));
+		assertThat(logs.get(3), containsString("[Same body as in the entry logged at "));
+	}
+
+	@Test
+	public void test_log_batching_joins_logs_until_batch_is_full_or_flushed() {
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setLogBatching(
+				4,
+				Integer.MAX_VALUE,
+				Duration.ofMinutes(1)
+		);
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<Instant> timeCapture = ArgumentCaptor.forClass(Instant.class);
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), timeCapture.capture()))
+					.thenReturn(Boolean.TRUE);
+			for (int i = 0; i < 3; i++) {
+				HttpEntity responseBody = new ByteArrayEntity(("response " + i).getBytes(StandardCharsets.UTF_8), ContentType.TEXT_PLAIN);
+				interceptor.process(mockBasicRequest(), CONTEXT);
+				interceptor.process(createBasicResponse(Collections.emptyList(), responseBody), CONTEXT);
+			}
+			assertThat(logCapture.getAllValues(), hasSize(1)); // First 2 x (Request + Response)
+			interceptor.flush();
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2));
+		assertThat(logs.get(0), containsString("response 0"));
+		assertThat(logs.get(0), containsString("response 1"));
+		assertThat(logs.get(0), not(containsString("response 2")));
+		assertThat(logs.get(0), startsWith("[" + timeCapture.getAllValues().get(0) + "]"));
+		assertThat(logs.get(1), containsString("response 2"));
+	}
+
+	@Test
+	public void test_streaming_prettifier_reformats_body_below_prettify_limit() {
+		String smallBodyStr = "{\"key\":\"value\"}";
+		String largeBodyStr = "{\"key\":\"" + String.join("", Collections.nCopies(10, "value")) + "\"}";
+		Map<String, Function<String, String>> prettifiers = new HashMap<>(DEFAULT_PRETTIFIERS);
+		prettifiers.put(ContentType.APPLICATION_JSON.getMimeType(), StreamingJsonPrettifier.INSTANCE);
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setPrettifyLimit(32);
+		interceptor.setContentPrettifiers(prettifiers);
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		for (String responseBodyStr : Arrays.asList(smallBodyStr, largeBodyStr)) {
+			HttpEntity responseBody = new ByteArrayEntity(responseBodyStr.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+			runChain(
+					mockBasicRequest(),
+					createBasicResponse(Collections.emptyList(), responseBody),
+					mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+							.thenReturn(Boolean.TRUE),
+					interceptor
+			);
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(4)); // 2 x (Request + Response)
+		assertThat(logs.get(1), containsString("{\n  \"key\" : \"value\"\n}"));
+		assertThat(logs.get(3), containsString(largeBodyStr));
+	}
+
+	@Test
+	public void test_redaction_rules_mask_header_and_json_field() {
+		String requestBodyStr = "{\"user\": {\"login\": \"user\", \"password\": \"s3cr3t\"}}";
+		HttpEntity requestBody = new ByteArrayEntity(requestBodyStr.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+		HttpRequest request = mockBasicRequest(Collections.singletonList(Pair.of("Authorization", "Bearer t0k3n")), requestBody);
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setRedactionRules(
+				new RedactionRules.Builder().header("authorization").jsonField("$.user.password").build());
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				interceptor
+		);
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(0), not(containsString("s3cr3t")));
+		assertThat(logs.get(0), not(containsString("t0k3n")));
+		assertThat(logs.get(0), containsString(RedactionRules.REPLACEMENT));
+		assertThat(logs.get(0), containsString("login"));
+	}
+
+	@Test
+	public void test_form_body_is_parsed_from_bytes_in_body_charset() {
+		String requestBodyStr = "text=x+y%20z&price=%E2%82%AC10&flag";
+		HttpEntity requestBody = new ByteArrayEntity(
+				requestBodyStr.getBytes(StandardCharsets.US_ASCII),
+				ContentType.APPLICATION_FORM_URLENCODED.withCharset(StandardCharsets.UTF_8)
+		);
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+		List<String> logs = runChainTextMessageCapture(request, createBasicResponse());
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(0), containsString("x y z"));
+		assertThat(logs.get(0), containsString("\u20AC10"));
+		assertThat(logs.get(0), containsString("flag"));
+		assertThat(logs.get(0), not(containsString("%E2%82%AC")));
+	}
+
+	@Test
+	public void test_overload_guard_degrades_logging_and_recovers() {
+		String requestBodyStr = "{\"key\": \"degraded\"}";
+		OverloadGuard guard = new OverloadGuard(Duration.ofNanos(1), 0, 8);
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setOverloadGuard(guard);
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		for (int i = 0; i < 2; i++) {
+			HttpEntity requestBody = new ByteArrayEntity(requestBodyStr.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+			runChain(
+					mockBasicRequest(Collections.emptyList(), requestBody),
+					createBasicResponse(),
+					mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+							.thenReturn(Boolean.TRUE),
+					interceptor
+			);
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(4)); // 2 x (Request + Response)
+		assertThat(logs.get(0), containsString("degraded"));
+		assertThat(logs.get(2), not(containsString("degraded")));
+		assertThat(guard.getLevel(), equalTo(OverloadGuard.Level.LINE));
+
+		for (int i = 0; i < 1000 && guard.getLevel() != OverloadGuard.Level.FULL; i++) {
+			guard.record(0, 0);
+		}
+		assertThat(guard.getLevel(), equalTo(OverloadGuard.Level.FULL));
+	}
+
+	@Test
+	public void test_pooled_buffer_captures_body_across_chunks() {
+		String requestBodyStr = "0123456789abcdefghij0123456789abcdefghij";
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setBufferPool(2, 16);
+		for (int i = 0; i < 2; i++) {
+			BasicHttpEntity requestBody = new BasicHttpEntity();
+			requestBody.setContent(new ByteArrayInputStream(requestBodyStr.getBytes(StandardCharsets.UTF_8)));
+			requestBody.setContentType(ContentType.TEXT_PLAIN.toString());
+			HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+			ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+			runChain(
+					request,
+					createBasicResponse(),
+					mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+							.thenReturn(Boolean.TRUE),
+					interceptor
+			);
+
+			assertThat(logCapture.getAllValues(), hasSize(2)); // Request + Response
+			assertThat(logCapture.getAllValues().get(0), containsString(requestBodyStr));
+		}
+	}
+
+	@Test
+	public void test_skip_if_not_reporting_skips_capture_without_launch() {
+		HttpEntity requestBody = new BasicHttpEntity();
+		((BasicHttpEntity) requestBody).setContent(new ByteArrayInputStream("body".getBytes(StandardCharsets.UTF_8)));
+		HttpRequest request = mockBasicRequest(Collections.emptyList(), requestBody);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		runChain(
+				request,
+				createBasicResponse(),
+				mock -> mock.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class)))
+						.thenReturn(Boolean.TRUE),
+				new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setSkipIfNotReporting(true)
+		);
+
+		assertThat(logCapture.getAllValues(), empty());
+		assertThat(((HttpEntityEnclosingRequest) request).getEntity(), sameInstance(requestBody));
+	}
+
+	@Test
+	public void test_gzip_response_body_is_decompressed() throws IOException {
+		String responseBodyStr = "{\"key\": \"value\"}";
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(responseBodyStr.getBytes(StandardCharsets.UTF_8));
+		}
+		ByteArrayEntity responseBody = new ByteArrayEntity(compressed.toByteArray(), ContentType.APPLICATION_JSON);
+		responseBody.setContentEncoding("gzip");
+		HttpResponse response = createBasicResponse(Collections.emptyList(), responseBody);
+
+		List<String> logs = runChainTextMessageCapture(mockBasicRequest(), response);
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(1), containsString(JsonPrettifier.INSTANCE.apply(responseBodyStr)));
+		assertThat(EntityUtils.toByteArray(response.getEntity()), equalTo(compressed.toByteArray()));
+	}
+
+	@Test
+	public void test_async_logging_emits_logs_in_order_on_flush() {
+		HttpRequest request = mockBasicRequest();
+		HttpResponse response = createBasicResponse();
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).setAsyncLogging(
+				2,
+				10,
+				AsyncLogDispatcher.OverflowPolicy.BLOCK
+		);
+
+		ArgumentCaptor<String> logCapture = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(logCapture.capture(), anyString(), any(Instant.class))).thenReturn(Boolean.TRUE);
+			interceptor.process(request, CONTEXT);
+			interceptor.process(response, CONTEXT);
+			interceptor.flush();
+		} finally {
+			interceptor.shutdown();
+		}
+
+		List<String> logs = logCapture.getAllValues();
+		assertThat(logs, hasSize(2)); // Request + Response
+		assertThat(logs.get(0), equalTo(EMPTY_REQUEST));
+		assertThat(logs.get(1), equalTo(EMPTY_RESPONSE));
+	}
 }
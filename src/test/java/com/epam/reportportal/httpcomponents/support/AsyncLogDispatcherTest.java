@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.service.ReportPortal;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+
+public class AsyncLogDispatcherTest {
+
+	private final List<HttpFormatter> emitted = new CopyOnWriteArrayList<>();
+
+	@Test
+	public void test_shutdown_emits_logs_pending_on_other_threads() throws InterruptedException {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 10, AsyncLogDispatcher.OverflowPolicy.BLOCK);
+		HttpFormatter mainLog = mock(HttpFormatter.class);
+		HttpFormatter otherLog = mock(HttpFormatter.class);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Thread other = new Thread(() -> dispatcher.submit(() -> {
+			release.await();
+			return otherLog;
+		}, emitted::add));
+		other.start();
+		other.join();
+		dispatcher.submit(() -> mainLog, emitted::add);
+		release.countDown();
+		dispatcher.shutdown(emitted::add);
+
+		assertThat(emitted, containsInAnyOrder(mainLog, otherLog));
+	}
+
+	@Test
+	public void test_flush_emits_only_logs_of_current_thread() throws InterruptedException {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 10, AsyncLogDispatcher.OverflowPolicy.BLOCK);
+		HttpFormatter mainLog = mock(HttpFormatter.class);
+		HttpFormatter otherLog = mock(HttpFormatter.class);
+
+		Thread other = new Thread(() -> dispatcher.submit(() -> otherLog, emitted::add));
+		other.start();
+		other.join();
+		dispatcher.submit(() -> mainLog, emitted::add);
+		dispatcher.flush(emitted::add);
+
+		assertThat(emitted, contains(mainLog));
+		dispatcher.shutdown(emitted::add);
+		assertThat(emitted, contains(mainLog, otherLog));
+	}
+
+	@Test
+	public void test_drop_oldest_drops_only_not_formatted_log() throws InterruptedException {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 1, AsyncLogDispatcher.OverflowPolicy.DROP_OLDEST);
+		HttpFormatter slowLog = mock(HttpFormatter.class);
+		HttpFormatter fastLog = mock(HttpFormatter.class);
+		HttpFormatter lastLog = mock(HttpFormatter.class);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		dispatcher.submit(() -> {
+			started.countDown();
+			release.await();
+			return slowLog;
+		}, emitted::add);
+		assertThat(started.await(10, TimeUnit.SECONDS), equalTo(true));
+		dispatcher.submit(() -> fastLog, emitted::add);
+		release.countDown();
+		assertThat(dispatcher.getDroppedCount(), equalTo(1L));
+
+		dispatcher.flush(emitted::add);
+		dispatcher.submit(() -> lastLog, emitted::add);
+		dispatcher.shutdown(emitted::add);
+
+		assertThat(emitted, contains(fastLog, lastLog));
+		assertThat(dispatcher.getDroppedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void test_drop_newest_keeps_pending_logs() {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 1, AsyncLogDispatcher.OverflowPolicy.DROP_NEWEST);
+		HttpFormatter firstLog = mock(HttpFormatter.class);
+		HttpFormatter secondLog = mock(HttpFormatter.class);
+		CountDownLatch release = new CountDownLatch(1);
+
+		dispatcher.submit(() -> {
+			release.await();
+			return firstLog;
+		}, emitted::add);
+		dispatcher.submit(() -> secondLog, emitted::add);
+		release.countDown();
+		dispatcher.shutdown(emitted::add);
+
+		assertThat(emitted, contains(firstLog));
+		assertThat(dispatcher.getDroppedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void test_warnings_of_worker_thread_are_emitted_before_log_on_submitting_thread() {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 10, AsyncLogDispatcher.OverflowPolicy.BLOCK);
+		HttpFormatter log = mock(HttpFormatter.class);
+		List<String> order = new CopyOnWriteArrayList<>();
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			utilities.when(() -> ReportPortal.emitLog(anyString(), anyString(), any(Instant.class))).thenAnswer(invocation -> {
+				order.add(invocation.getArgument(0));
+				return Boolean.TRUE;
+			});
+			dispatcher.submit(() -> {
+				AsyncLogDispatcher.warn("Unable to read HTTP entity");
+				return log;
+			}, emitted::add);
+			dispatcher.flush(f -> order.add("log"));
+		}
+		dispatcher.shutdown(emitted::add);
+
+		assertThat(order, contains("Unable to read HTTP entity", "log"));
+	}
+}
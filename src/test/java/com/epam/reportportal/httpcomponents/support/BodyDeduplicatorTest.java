@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import com.epam.reportportal.service.LoggingContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BodyDeduplicatorTest {
+
+	private static HttpFormatter binaryFormatter() {
+		HttpFormatter formatter = mock(HttpFormatter.class);
+		when(formatter.getType()).thenReturn(BodyType.BINARY);
+		when(formatter.formatHead()).thenReturn("**>>> REQUEST**");
+		when(formatter.getBinaryBody()).thenReturn(new byte[BodyDeduplicator.DEFAULT_MIN_BODY_SIZE]);
+		return formatter;
+	}
+
+	@Test
+	public void test_body_is_referenced_only_within_its_test_item() {
+		BodyDeduplicator deduplicator = new BodyDeduplicator(10, BodyDeduplicator.DEFAULT_MIN_BODY_SIZE);
+		LoggingContext first = mock(LoggingContext.class);
+		LoggingContext second = mock(LoggingContext.class);
+		HttpFormatter firstLog = binaryFormatter();
+		HttpFormatter repeatedLog = binaryFormatter();
+		HttpFormatter otherItemLog = binaryFormatter();
+		HttpFormatter repeated;
+		try (MockedStatic<LoggingContext> contexts = Mockito.mockStatic(LoggingContext.class)) {
+			contexts.when(LoggingContext::context).thenReturn(first);
+			assertThat(deduplicator.deduplicate(firstLog), sameInstance(firstLog));
+			repeated = deduplicator.deduplicate(repeatedLog);
+			contexts.when(LoggingContext::context).thenReturn(second);
+			assertThat(deduplicator.deduplicate(otherItemLog), sameInstance(otherItemLog));
+		}
+
+		assertThat(repeated, not(sameInstance(repeatedLog)));
+		assertThat(repeated.getType(), equalTo(BodyType.TEXT));
+		assertThat(repeated.formatAsText(), containsString("[Same body as in the entry logged at "));
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CaptureOptionsTest {
+
+	private static final String JSON_TYPE = "application/json";
+
+	@Test
+	public void test_prettifiers_without_type_are_computed_once() {
+		CaptureOptions options = CaptureOptions.DEFAULT.toBuilder().build();
+		Map<String, Function<String, String>> prettifiers = new HashMap<>(Constants.DEFAULT_PRETTIFIERS);
+
+		Map<String, Function<String, String>> result = options.getPrettifiersWithout(prettifiers, JSON_TYPE);
+
+		assertThat(result, not(hasKey(JSON_TYPE)));
+		assertThat(result.size(), equalTo(prettifiers.size() - 1));
+		assertThat(prettifiers, hasKey(JSON_TYPE));
+		assertThat(options.getPrettifiersWithout(prettifiers, JSON_TYPE), sameInstance(result));
+		assertThat(options.getPrettifiersWithout(new HashMap<>(prettifiers), JSON_TYPE), sameInstance(result));
+	}
+
+	@Test
+	public void test_prettifiers_without_type_depend_on_source_map() {
+		CaptureOptions options = CaptureOptions.DEFAULT.toBuilder().build();
+		Map<String, Function<String, String>> prettifiers = new HashMap<>(Constants.DEFAULT_PRETTIFIERS);
+		Map<String, Function<String, String>> custom = new HashMap<>(prettifiers);
+		custom.put("application/x-custom", Function.identity());
+
+		Map<String, Function<String, String>> result = options.getPrettifiersWithout(prettifiers, JSON_TYPE);
+		Map<String, Function<String, String>> customResult = options.getPrettifiersWithout(custom, JSON_TYPE);
+
+		assertThat(customResult, not(sameInstance(result)));
+		assertThat(customResult, hasKey("application/x-custom"));
+		assertThat(customResult, not(hasKey(JSON_TYPE)));
+	}
+}
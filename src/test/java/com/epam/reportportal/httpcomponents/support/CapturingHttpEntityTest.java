@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CapturingHttpEntityTest {
+
+	private static final byte[] BODY = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+	private static InputStreamEntity createEntity(boolean knownLength) {
+		return new InputStreamEntity(new ByteArrayInputStream(BODY), knownLength ? BODY.length : -1, ContentType.TEXT_PLAIN);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	public void test_buffered_entity_content_is_read_repeatedly(boolean knownLength) throws IOException {
+		HttpEntity entity = CapturingHttpEntity.buffer(createEntity(knownLength));
+
+		assertThat(entity.isRepeatable(), equalTo(true));
+		assertThat(entity.isStreaming(), equalTo(false));
+		assertThat(entity.getContentLength(), equalTo((long) BODY.length));
+		assertThat(EntityUtils.toByteArray(entity), equalTo(BODY));
+		assertThat(EntityUtils.toByteArray(entity), equalTo(BODY));
+	}
+
+	@Test
+	public void test_buffered_entity_is_written_repeatedly() throws IOException {
+		HttpEntity entity = CapturingHttpEntity.buffer(createEntity(true));
+
+		for (int i = 0; i < 2; i++) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			entity.writeTo(os);
+			assertThat(os.toByteArray(), equalTo(BODY));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	public void test_buffered_entity_keeps_entity_headers(boolean chunked) throws IOException {
+		InputStreamEntity source = createEntity(false);
+		source.setChunked(chunked);
+		source.setContentEncoding("identity");
+
+		HttpEntity entity = CapturingHttpEntity.buffer(source);
+
+		assertThat(entity.isChunked(), equalTo(chunked));
+		assertThat(entity.getContentType().getValue(), equalTo(ContentType.TEXT_PLAIN.toString()));
+		assertThat(entity.getContentEncoding().getValue(), equalTo("identity"));
+	}
+
+	@Test
+	public void test_view_shares_entity_content() throws IOException {
+		CapturingHttpEntity entity = CapturingHttpEntity.buffer(createEntity(true));
+
+		CaptureBuffer view = entity.view(CaptureOptions.DEFAULT.toBuilder().bodyLimit(4, 3).build());
+
+		assertThat(view.size(), equalTo((long) BODY.length));
+		assertThat(view.isTruncated(), equalTo(true));
+		assertThat(view.toByteArray(), equalTo("0123hij".getBytes(StandardCharsets.US_ASCII)));
+		assertThat(EntityUtils.toByteArray(entity), equalTo(BODY));
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.epam.reportportal.formatting.http.Constants.REQUEST_TAG;
+import static com.epam.reportportal.formatting.http.Constants.RESPONSE_TAG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CombinedHttpFormatterTest {
+
+	private static final String TEXT_TYPE = "text/plain";
+	private static final String IMAGE_TYPE = "image/jpeg";
+	private static final byte[] BINARY_BODY = "binary".getBytes(StandardCharsets.UTF_8);
+
+	private static HttpRequestFormatter.Builder request() {
+		return new HttpRequestFormatter.Builder("GET", "http://docker.local/app");
+	}
+
+	private static HttpResponseFormatter.Builder response() {
+		return new HttpResponseFormatter.Builder(200, "OK");
+	}
+
+	@Test
+	public void test_request_without_body_is_rendered_with_head() {
+		CombinedHttpFormatter formatter = new CombinedHttpFormatter(request().build(), response().build());
+
+		assertThat(formatter.isCombinable(), equalTo(true));
+		assertThat(formatter.formatHead(), allOf(startsWith(REQUEST_TAG), containsString(RESPONSE_TAG)));
+		assertThat(formatter.formatAsText(), allOf(startsWith(REQUEST_TAG), containsString(RESPONSE_TAG)));
+	}
+
+	@Test
+	public void test_text_bodies_are_rendered_in_full() {
+		CombinedHttpFormatter formatter = new CombinedHttpFormatter(
+				request().bodyText(TEXT_TYPE, "request body").build(),
+				response().bodyText(TEXT_TYPE, "response body").build()
+		);
+
+		String text = formatter.formatAsText();
+		assertThat(text, containsString("request body"));
+		assertThat(text, containsString("response body"));
+		assertThat(text.indexOf("request body"), lessThan(text.indexOf(RESPONSE_TAG)));
+	}
+
+	@Test
+	public void test_binary_bodies_are_replaced_with_placeholder() {
+		CombinedHttpFormatter formatter = new CombinedHttpFormatter(
+				request().bodyBytes(IMAGE_TYPE, BINARY_BODY).build(),
+				response().bodyBytes(IMAGE_TYPE, BINARY_BODY).build()
+		);
+
+		assertThat(formatter.isCombinable(), equalTo(false));
+		assertThat(formatter.formatHead(), containsString("[binary body, not rendered as text]"));
+		assertThat(formatter.formatAsText(), allOf(startsWith(REQUEST_TAG), containsString(RESPONSE_TAG)));
+		assertThat(formatter.getBinaryBody(), equalTo(BINARY_BODY));
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ContentTypeCacheTest {
+
+	@Test
+	public void test_values_with_multipart_boundary_are_not_cached() {
+		ContentTypeCache.Descriptor first = ContentTypeCache.get("multipart/form-data; boundary=first");
+		int size = ContentTypeCache.size();
+		ContentTypeCache.Descriptor second = ContentTypeCache.get("multipart/form-data; boundary=\"second\"");
+
+		assertThat(ContentTypeCache.size(), equalTo(size));
+		assertThat(first.getBoundary(), equalTo("first"));
+		assertThat(second.getBoundary(), equalTo("second"));
+		assertThat(second.getMimeType(), equalTo("multipart/form-data"));
+	}
+
+	@Test
+	public void test_descriptor_is_keyed_by_raw_header_value() {
+		ContentTypeCache.Descriptor first = ContentTypeCache.get("application/json; charset=UTF-16");
+		ContentTypeCache.Descriptor same = ContentTypeCache.get("application/json; charset=UTF-16");
+		ContentTypeCache.Descriptor second = ContentTypeCache.get("Application/JSON;charset=utf-16");
+		ContentTypeCache.Descriptor other = ContentTypeCache.get("application/json");
+
+		assertThat(same, sameInstance(first));
+		assertThat(first.getCharset(), equalTo(StandardCharsets.UTF_16));
+		assertThat(second.getCharset(), equalTo(StandardCharsets.UTF_16));
+		assertThat(second.getMimeType(), equalTo(first.getMimeType()));
+		assertThat(other.getCharset(), equalTo(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_unknown_charset_falls_back_to_utf8() {
+		assertThat(ContentTypeCache.get("text/plain; charset=x-unknown-charset").getCharset(), equalTo(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_cache_size_is_bounded() {
+		for (int i = 0; i < ContentTypeCache.MAX_SIZE * 2; i++) {
+			ContentTypeCache.get("text/x-filler-" + i);
+			assertThat(ContentTypeCache.size(), lessThanOrEqualTo(ContentTypeCache.MAX_SIZE));
+		}
+
+		ContentTypeCache.Descriptor descriptor = ContentTypeCache.get("text/x-filler-0");
+		assertThat(descriptor.getMimeType(), equalTo("text/x-filler-0"));
+		assertThat(ContentTypeCache.get("text/x-filler-0"), sameInstance(descriptor));
+	}
+
+	@Test
+	public void test_body_type_is_resolved_with_each_map() {
+		Map<String, BodyType> textMap = Collections.singletonMap("application/x-custom", BodyType.TEXT);
+		Map<String, BodyType> formMap = Collections.singletonMap("application/x-custom", BodyType.FORM);
+		ContentTypeCache.Descriptor descriptor = ContentTypeCache.get("application/x-custom; charset=UTF-8");
+
+		for (int i = 0; i < 2; i++) {
+			assertThat(descriptor.getBodyType(textMap), equalTo(BodyType.TEXT));
+			assertThat(descriptor.getBodyType(formMap), equalTo(BodyType.FORM));
+			assertThat(descriptor.getBodyType(Collections.emptyMap()), equalTo(BodyType.BINARY));
+		}
+		assertThat(ContentTypeCache.get(null).getBodyType(textMap), equalTo(BodyType.NONE));
+	}
+}
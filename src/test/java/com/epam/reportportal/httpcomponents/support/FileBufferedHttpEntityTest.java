@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FileBufferedHttpEntityTest {
+
+	private static final int THRESHOLD = 1024;
+
+	private static byte[] createBody(int size) {
+		byte[] body = new byte[size];
+		for (int i = 0; i < size; i++) {
+			body[i] = (byte) i;
+		}
+		return body;
+	}
+
+	private static HttpEntity createEntity(byte[] body, boolean knownLength) {
+		return new InputStreamEntity(
+				new ByteArrayInputStream(body),
+				knownLength ? body.length : -1,
+				ContentType.APPLICATION_OCTET_STREAM
+		);
+	}
+
+	private static void assertReplayed(HttpEntity entity, byte[] body) throws IOException {
+		assertThat(entity.isRepeatable(), equalTo(true));
+		assertThat(entity.getContentLength(), equalTo((long) body.length));
+		assertThat(EntityUtils.toByteArray(entity), equalTo(body));
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		entity.writeTo(written);
+		assertThat(written.toByteArray(), equalTo(body));
+		assertThat(EntityUtils.toByteArray(entity), equalTo(body));
+	}
+
+	private static long countFiles(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	@Test
+	public void test_small_body_is_buffered_with_single_array(@TempDir Path directory) throws IOException {
+		byte[] body = createBody(THRESHOLD);
+
+		HttpEntity entity = FileBufferedHttpEntity.buffer(createEntity(body, false), THRESHOLD, directory);
+
+		assertThat(entity, instanceOf(CapturingHttpEntity.class));
+		assertThat(entity.getContentType().getValue(), equalTo(ContentType.APPLICATION_OCTET_STREAM.toString()));
+		assertReplayed(entity, body);
+		assertThat(countFiles(directory), equalTo(0L));
+	}
+
+	@Test
+	public void test_large_body_of_unknown_length_is_spilled(@TempDir Path directory) throws IOException {
+		byte[] body = createBody(THRESHOLD * 10 + 1);
+
+		HttpEntity entity = FileBufferedHttpEntity.buffer(createEntity(body, false), THRESHOLD, directory);
+
+		assertThat(entity, instanceOf(FileBufferedHttpEntity.class));
+		assertReplayed(entity, body);
+		assertThat(countFiles(directory), equalTo(0L));
+	}
+
+	@Test
+	public void test_large_body_of_known_length_is_spilled(@TempDir Path directory) throws IOException {
+		byte[] body = createBody(THRESHOLD + 1);
+
+		HttpEntity entity = FileBufferedHttpEntity.buffer(createEntity(body, true), THRESHOLD, directory);
+
+		assertThat(entity, instanceOf(FileBufferedHttpEntity.class));
+		assertReplayed(entity, body);
+		assertThat(countFiles(directory), equalTo(0L));
+	}
+
+	@Test
+	public void test_spilled_body_view_reads_head_and_tail_only(@TempDir Path directory) throws IOException {
+		byte[] body = createBody(THRESHOLD * 10);
+		FileBufferedHttpEntity entity = (FileBufferedHttpEntity) FileBufferedHttpEntity.buffer(
+				createEntity(body, true),
+				THRESHOLD,
+				directory
+		);
+
+		CaptureBuffer view = entity.view(new CaptureOptions.Builder().bodyLimit(100, 50).build());
+
+		assertThat(view.size(), equalTo((long) body.length));
+		assertThat(view.isTruncated(), equalTo(true));
+		assertThat(view.getHead(), equalTo(Arrays.copyOf(body, 100)));
+		assertThat(view.getTail(), equalTo(Arrays.copyOfRange(body, body.length - 50, body.length)));
+	}
+
+	@Test
+	public void test_spilled_body_view_without_limits_is_capped_at_threshold(@TempDir Path directory) throws IOException {
+		byte[] body = createBody(THRESHOLD * 10);
+		FileBufferedHttpEntity entity = (FileBufferedHttpEntity) FileBufferedHttpEntity.buffer(
+				createEntity(body, false),
+				THRESHOLD,
+				directory
+		);
+
+		CaptureBuffer view = entity.view(CaptureOptions.DEFAULT);
+
+		assertThat(view.size(), equalTo((long) body.length));
+		assertThat(view.getSkipped(), equalTo((long) body.length - THRESHOLD));
+		assertThat(view.getHead(), equalTo(Arrays.copyOf(body, THRESHOLD)));
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FilterIndexTest {
+
+	private static HttpContext context(Object targetHost) {
+		HttpContext context = new BasicHttpContext();
+		context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, targetHost);
+		return context;
+	}
+
+	public static Iterable<Object[]> targetHosts() {
+		return Arrays.asList(
+				new Object[] { new HttpHost("Docker.Local", 8080, "http"), "docker.local" },
+				new Object[] { "http://docker.local:8080", "docker.local" },
+				new Object[] { "https://Docker.Local/app", "docker.local" },
+				new Object[] { "docker.local", "docker.local" },
+				new Object[] { "http://[::1]:8080", "[::1]" },
+				new Object[] { 42, "" },
+				new Object[] { null, "" }
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("targetHosts")
+	public void test_host_is_read_from_any_target_host_attribute(Object targetHost, String expectedHost) {
+		assertThat(FilterIndex.getHost(context(targetHost)), equalTo(expectedHost));
+	}
+
+	@Test
+	public void test_host_rule_matches_string_target_host() {
+		FilterIndex index = new FilterIndex(Collections.singletonList(FilterRule.builder().host("docker.local").build()));
+		HttpRequest request = new HttpGet("/app");
+
+		assertThat(index.matches(request, context("http://docker.local:8080")), equalTo(true));
+		assertThat(index.matches(request, context("http://other.local:8080")), equalTo(false));
+		assertThat(index.matches(request, context(new Object())), equalTo(false));
+	}
+
+	@Test
+	public void test_rule_without_host_matches_unknown_target_host() {
+		FilterIndex index = new FilterIndex(Collections.singletonList(FilterRule.builder().method("get").build()));
+
+		assertThat(index.matches(new HttpGet("/app"), context(new Object())), equalTo(true));
+	}
+
+	@Test
+	public void test_status_rules_match_non_standard_status_codes() {
+		FilterIndex index = new FilterIndex(Arrays.asList(
+				FilterRule.builder().status(200).build(),
+				FilterRule.builder().statusRange(500, 799).build(),
+				FilterRule.builder().status(999).build()
+		));
+
+		assertThat(index.firstMatch(null, null, null, 200, null), equalTo(0));
+		assertThat(index.firstMatch(null, null, null, 599, null), equalTo(1));
+		assertThat(index.firstMatch(null, null, null, 700, null), equalTo(1));
+		assertThat(index.firstMatch(null, null, null, 800, null), equalTo(-1));
+		assertThat(index.firstMatch(null, null, null, 999, null), equalTo(2));
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.service.LoggingContext;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class LogBatcherTest {
+
+	@SuppressWarnings("unchecked")
+	private static List<SaveLogRQ> emittedLogs(LoggingContext context, String itemUuid) {
+		ArgumentCaptor<Function<String, SaveLogRQ>> captor = ArgumentCaptor.forClass(Function.class);
+		verify(context, atLeastOnce()).emit(captor.capture());
+		return captor.getAllValues().stream().map(f -> f.apply(itemUuid)).collect(Collectors.toList());
+	}
+
+	@Test
+	public void test_batches_are_emitted_through_context_of_their_logs() {
+		LogBatcher batcher = new LogBatcher(10, Integer.MAX_VALUE, Duration.ZERO);
+		LoggingContext first = mock(LoggingContext.class);
+		LoggingContext second = mock(LoggingContext.class);
+		try (MockedStatic<LoggingContext> contexts = Mockito.mockStatic(LoggingContext.class);
+				MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			contexts.when(LoggingContext::context).thenReturn(first);
+			batcher.add("first 1", "INFO", Instant.now());
+			batcher.add("first 2", "INFO", Instant.now());
+			contexts.when(LoggingContext::context).thenReturn(second);
+			batcher.add("second 1", "INFO", Instant.now());
+			batcher.flush();
+			utilities.verify(() -> ReportPortal.emitLog(anyString(), anyString(), any(Instant.class)), never());
+		}
+
+		List<SaveLogRQ> firstLogs = emittedLogs(first, "item1");
+		assertThat(firstLogs, hasSize(1));
+		assertThat(firstLogs.get(0).getItemUuid(), equalTo("item1"));
+		assertThat(firstLogs.get(0).getLevel(), equalTo("INFO"));
+		assertThat(firstLogs.get(0).getMessage(), allOf(containsString("first 1"), containsString("first 2")));
+		assertThat(firstLogs.get(0).getMessage(), not(containsString("second")));
+
+		List<SaveLogRQ> secondLogs = emittedLogs(second, "item2");
+		assertThat(secondLogs, hasSize(1));
+		assertThat(secondLogs.get(0).getMessage(), equalTo("second 1"));
+	}
+
+	@Test
+	public void test_timer_emits_expired_batch_without_further_logs() {
+		LogBatcher batcher = new LogBatcher(10, Integer.MAX_VALUE, Duration.ofMillis(20));
+		LoggingContext context = mock(LoggingContext.class);
+		try (MockedStatic<LoggingContext> contexts = Mockito.mockStatic(LoggingContext.class)) {
+			contexts.when(LoggingContext::context).thenReturn(context);
+			Instant time = Instant.now();
+			batcher.add("log 1", "INFO", time);
+			batcher.add("log 2", "INFO", time);
+		}
+
+		verify(context, timeout(TimeUnit.SECONDS.toMillis(5))).emit(any());
+		assertThat(batcher.getPendingCount(), equalTo(0));
+		List<SaveLogRQ> logs = emittedLogs(context, "item");
+		assertThat(logs, hasSize(1));
+		assertThat(logs.get(0).getMessage(), allOf(containsString("log 1"), containsString("log 2")));
+		batcher.shutdown();
+	}
+
+	@Test
+	public void test_shutdown_emits_batches_of_other_threads() throws InterruptedException {
+		LogBatcher batcher = new LogBatcher(10, Integer.MAX_VALUE, Duration.ZERO);
+		LoggingContext context = mock(LoggingContext.class);
+		try (MockedStatic<LoggingContext> contexts = Mockito.mockStatic(LoggingContext.class)) {
+			contexts.when(LoggingContext::context).thenReturn(context);
+			batcher.add("main", "INFO", Instant.now());
+		}
+		Thread other = new Thread(() -> batcher.add("other", "INFO", Instant.now()));
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			other.start();
+			other.join();
+			batcher.shutdown();
+			// Mocked LoggingContext is not visible to other threads, so that batch has no context
+			utilities.verify(() -> ReportPortal.emitLog(eq("other"), eq("INFO"), any(Instant.class)));
+		}
+
+		assertThat(emittedLogs(context, "item").get(0).getMessage(), equalTo("main"));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.Constants;
+import com.epam.reportportal.formatting.http.HttpPartFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class MultipartCaptureStreamTest {
+
+	private static final String BOUNDARY = "7MA4YWxkTrZu0gW";
+
+	private static final String BODY = "--" + BOUNDARY + "\r\n" + "Content-Disposition: form-data; name=\"text\"\r\n"
+			+ "Content-Type: text/plain; charset=UTF-8\r\n" + "\r\n" + "first part\r\n" + "--" + BOUNDARY + "\r\n"
+			+ "Content-Disposition: form-data; name=\"file\"; filename=\"file.bin\"\r\n"
+			+ "Content-Type: application/octet-stream\r\n" + "\r\n" + "\r\n--" + BOUNDARY.substring(0, 5) + "\r\n" + "--"
+			+ BOUNDARY + "--\r\n";
+
+	private static MultipartCaptureStream createStream() {
+		return new MultipartCaptureStream(BOUNDARY, CaptureOptions.DEFAULT, Constants.BODY_TYPE_MAP, null);
+	}
+
+	private static void assertParts(List<HttpPartFormatter> parts) {
+		assertThat(parts, hasSize(2));
+		HttpPartFormatter text = parts.get(0);
+		assertThat(text.getType(), equalTo(HttpPartFormatter.PartType.TEXT));
+		assertThat(text.getMimeType(), equalTo("text/plain"));
+		assertThat(text.getTextPayload(), equalTo("first part"));
+		HttpPartFormatter binary = parts.get(1);
+		assertThat(binary.getType(), equalTo(HttpPartFormatter.PartType.BINARY));
+		assertThat(binary.getMimeType(), equalTo("application/octet-stream"));
+		// A partial delimiter inside the part body is a part of the body
+		assertThat(
+				new String(binary.getBinaryPayload(), StandardCharsets.ISO_8859_1),
+				equalTo("\r\n--" + BOUNDARY.substring(0, 5))
+		);
+	}
+
+	@Test
+	public void test_multipart_body_written_at_once() {
+		MultipartCaptureStream stream = createStream();
+		byte[] body = BODY.getBytes(StandardCharsets.ISO_8859_1);
+		stream.write(body, 0, body.length);
+		assertParts(stream.getParts());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3, 5, 7, 13, 21 })
+	public void test_multipart_boundary_split_across_writes(int chunkSize) {
+		MultipartCaptureStream stream = createStream();
+		byte[] body = BODY.getBytes(StandardCharsets.ISO_8859_1);
+		for (int i = 0; i < body.length; i += chunkSize) {
+			stream.write(body, i, Math.min(chunkSize, body.length - i));
+		}
+		assertParts(stream.getParts());
+	}
+
+	@Test
+	public void test_multipart_body_written_byte_by_byte() {
+		MultipartCaptureStream stream = createStream();
+		for (byte b : BODY.getBytes(StandardCharsets.ISO_8859_1)) {
+			stream.write(b);
+		}
+		assertParts(stream.getParts());
+	}
+
+	@Test
+	public void test_multipart_preamble_and_epilogue_are_skipped() {
+		MultipartCaptureStream stream = createStream();
+		byte[] body = ("This is a preamble\r\n" + BODY + "This is an epilogue\r\n--" + BOUNDARY + "\r\n"
+				+ "Content-Type: text/plain\r\n\r\nnot a part\r\n").getBytes(StandardCharsets.ISO_8859_1);
+		stream.write(body, 0, body.length);
+		assertParts(stream.getParts());
+	}
+
+	@Test
+	public void test_multipart_part_without_final_boundary_is_skipped() {
+		MultipartCaptureStream stream = createStream();
+		byte[] body = BODY.substring(0, BODY.lastIndexOf("--" + BOUNDARY + "--")).getBytes(StandardCharsets.ISO_8859_1);
+		stream.write(body, 0, body.length);
+		List<HttpPartFormatter> parts = stream.getParts();
+		assertThat(parts, hasSize(1));
+		assertThat(parts.get(0).getTextPayload(), equalTo("first part"));
+	}
+
+	@Test
+	public void test_multipart_binary_part_above_threshold_is_hashed() {
+		MultipartCaptureStream stream = new MultipartCaptureStream(
+				BOUNDARY,
+				CaptureOptions.DEFAULT.toBuilder().binaryPartThreshold(4).build(),
+				Constants.BODY_TYPE_MAP,
+				null
+		);
+		byte[] body = BODY.getBytes(StandardCharsets.ISO_8859_1);
+		stream.write(body, 0, body.length);
+		List<HttpPartFormatter> parts = stream.getParts();
+		assertThat(parts, hasSize(2));
+		assertThat(parts.get(0).getTextPayload(), equalTo("first part"));
+		assertThat(parts.get(1).getType(), equalTo(HttpPartFormatter.PartType.TEXT));
+		assertThat(
+				parts.get(1).getTextPayload(),
+				allOf(startsWith("[Binary part of 9 bytes (application/octet-stream), SHA-256: "), endsWith("]"))
+		);
+	}
+
+	@Test
+	public void test_multipart_delimiter_prefixes_in_body_are_scanned_once() {
+		// A self-similar boundary and a body of delimiter prefixes make a naive search re-scan each position
+		String boundary = String.join("", Collections.nCopies(69, "a")) + "b";
+		String nearMatch = "\r\n--" + boundary.substring(0, boundary.length() - 1);
+		String payload = String.join("", Collections.nCopies(20_000, nearMatch));
+		byte[] body = ("--" + boundary + "\r\n" + "Content-Type: text/plain\r\n\r\n" + payload + "\r\n--" + boundary
+				+ "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+		List<HttpPartFormatter> parts = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			MultipartCaptureStream stream = new MultipartCaptureStream(boundary, CaptureOptions.DEFAULT, Constants.BODY_TYPE_MAP, null);
+			for (int i = 0; i < body.length; i += 1000) {
+				stream.write(body, i, Math.min(1000, body.length - i));
+			}
+			return stream.getParts();
+		});
+
+		assertThat(parts, hasSize(1));
+		assertThat(parts.get(0).getTextPayload(), equalTo(payload));
+	}
+}
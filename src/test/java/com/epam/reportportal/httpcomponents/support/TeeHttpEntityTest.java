@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.Constants;
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+
+public class TeeHttpEntityTest {
+
+	private static final String BODY = "0123456789abcdefghij";
+
+	private static ByteArrayInputStream createStream() {
+		return new ByteArrayInputStream(BODY.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void test_body_read_to_eof_is_passed_to_callback_once() throws IOException {
+		List<Boolean> completions = new ArrayList<>();
+		List<String> captures = new ArrayList<>();
+		TeeHttpEntity<ByteArrayOutputStream> entity = new TeeHttpEntity<>(
+				new InputStreamEntity(createStream(), ContentType.TEXT_PLAIN),
+				new ByteArrayOutputStream(),
+				(capture, eof) -> {
+					completions.add(eof);
+					captures.add(capture.toString(StandardCharsets.US_ASCII));
+				}
+		);
+
+		assertThat(EntityUtils.toString(entity), equalTo(BODY));
+		assertThat(completions, contains(true));
+		assertThat(captures, contains(BODY));
+	}
+
+	@Test
+	public void test_early_close_does_not_read_the_rest_of_body() throws IOException {
+		ByteArrayInputStream source = createStream();
+		List<Boolean> completions = new ArrayList<>();
+		List<String> captures = new ArrayList<>();
+		TeeHttpEntity<ByteArrayOutputStream> entity = new TeeHttpEntity<>(
+				new InputStreamEntity(source, ContentType.TEXT_PLAIN),
+				new ByteArrayOutputStream(),
+				(capture, eof) -> {
+					completions.add(eof);
+					captures.add(capture.toString(StandardCharsets.US_ASCII));
+				}
+		);
+
+		try (InputStream is = entity.getContent()) {
+			byte[] head = new byte[4];
+			assertThat(is.read(head), equalTo(4));
+		}
+
+		assertThat(source.available(), equalTo(BODY.length() - 4));
+		assertThat(completions, contains(false));
+		assertThat(captures, contains("0123"));
+	}
+
+	@Test
+	public void test_early_close_logs_captured_part_as_truncated() throws IOException {
+		CapturedBody body = CapturedBody.forResponse("text/plain", null, -1, Constants.BODY_TYPE_MAP, CaptureOptions.DEFAULT);
+		List<String> texts = new ArrayList<>();
+		TeeHttpEntity<CapturedBody> entity = new TeeHttpEntity<>(
+				new InputStreamEntity(createStream(), ContentType.TEXT_PLAIN),
+				body,
+				(capture, eof) -> {
+					if (!eof) {
+						capture.markIncomplete();
+					}
+					HttpResponseFormatter.Builder builder = new HttpResponseFormatter.Builder(200, "OK");
+					capture.applyTo(builder);
+					texts.add(builder.build().getTextBody());
+				}
+		);
+
+		try (InputStream is = entity.getContent()) {
+			assertThat(is.read(new byte[4]), equalTo(4));
+		}
+
+		assertThat(texts, contains("0123\n\n[... body stream was closed after 4 bytes, the rest is not captured ...]"));
+	}
+
+	@Test
+	public void test_callback_error_does_not_fail_body_read() throws IOException {
+		TeeHttpEntity<ByteArrayOutputStream> entity = new TeeHttpEntity<>(
+				new InputStreamEntity(createStream(), ContentType.TEXT_PLAIN),
+				new ByteArrayOutputStream(),
+				(capture, eof) -> {
+					throw new IllegalStateException("Formatting failed");
+				}
+		);
+
+		String result;
+		try (MockedStatic<ReportPortal> utilities = Mockito.mockStatic(ReportPortal.class)) {
+			result = EntityUtils.toString(entity);
+			utilities.verify(() -> ReportPortal.emitLog(
+					argThat((String message) -> message.contains("Formatting failed")),
+					anyString(),
+					any(Instant.class)
+			));
+		}
+		assertThat(result, equalTo(BODY));
+	}
+}
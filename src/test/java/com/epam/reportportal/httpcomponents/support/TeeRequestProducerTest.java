@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpRequestFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import org.apache.http.HttpRequest;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TeeRequestProducerTest {
+
+	private static final String BODY = "Request body transferred from a file";
+
+	/**
+	 * Encoder which supports direct transfer of the body from a file.
+	 */
+	private static class FileEncoder implements FileContentEncoder {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private boolean completed;
+
+		@Override
+		public long transfer(FileChannel src, long position, long count) throws IOException {
+			ByteBuffer portion = ByteBuffer.allocate((int) count);
+			int read = src.read(portion, position);
+			bytes.write(portion.array(), 0, Math.max(read, 0));
+			return Math.max(read, 0);
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			throw new UnsupportedOperationException("The body should be transferred");
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return completed;
+		}
+	}
+
+	private static CapturedBody createBody() {
+		return CapturedBody.forRequest(
+				"text/plain",
+				BODY.length(),
+				Collections.singletonMap("text/plain", BodyType.TEXT),
+				null,
+				CaptureOptions.DEFAULT
+		);
+	}
+
+	@Test
+	public void test_file_transfer_is_passed_through_and_captured(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("body.txt");
+		Files.write(file, BODY.getBytes(StandardCharsets.UTF_8));
+		CapturedBody body = createBody();
+		AtomicInteger ends = new AtomicInteger();
+		HttpAsyncRequestProducer delegate = mock(HttpAsyncRequestProducer.class);
+		when(delegate.generateRequest()).thenReturn(mock(HttpRequest.class));
+		doAnswer(invocation -> {
+			ContentEncoder encoder = invocation.getArgument(0);
+			assertThat(encoder, instanceOf(FileContentEncoder.class));
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				long position = 0;
+				while (position < channel.size()) {
+					position += ((FileContentEncoder) encoder).transfer(channel, position, 5);
+				}
+			}
+			encoder.complete();
+			return null;
+		}).when(delegate).produceContent(any(), any());
+		TeeRequestProducer producer = new TeeRequestProducer(delegate, r -> body, c -> ends.incrementAndGet());
+		FileEncoder encoder = new FileEncoder();
+
+		producer.generateRequest();
+		producer.produceContent(encoder, mock(IOControl.class));
+		producer.requestCompleted(null);
+
+		assertThat(ends.get(), equalTo(1));
+		assertThat(new String(encoder.bytes.toByteArray(), StandardCharsets.UTF_8), equalTo(BODY));
+		HttpRequestFormatter.Builder builder = new HttpRequestFormatter.Builder("POST", "http://docker.local:8080/app");
+		body.applyTo(builder);
+		assertThat(builder.build().formatAsText(), containsString(BODY));
+	}
+
+	@Test
+	public void test_replayed_request_is_not_captured_twice() throws Exception {
+		CapturedBody body = createBody();
+		HttpAsyncRequestProducer delegate = mock(HttpAsyncRequestProducer.class);
+		when(delegate.generateRequest()).thenReturn(mock(HttpRequest.class));
+		doAnswer(invocation -> {
+			ContentEncoder encoder = invocation.getArgument(0);
+			encoder.write(ByteBuffer.wrap(BODY.getBytes(StandardCharsets.UTF_8)));
+			return null;
+		}).when(delegate).produceContent(any(), any());
+		AtomicInteger ends = new AtomicInteger();
+		TeeRequestProducer producer = new TeeRequestProducer(delegate, r -> body, c -> ends.incrementAndGet());
+		ContentEncoder encoder = mock(ContentEncoder.class);
+		when(encoder.write(any())).thenAnswer(invocation -> {
+			ByteBuffer src = invocation.getArgument(0);
+			int written = src.remaining();
+			src.position(src.limit());
+			return written;
+		});
+
+		producer.generateRequest();
+		producer.produceContent(encoder, mock(IOControl.class));
+		producer.resetRequest();
+		producer.generateRequest();
+		producer.produceContent(encoder, mock(IOControl.class));
+		producer.requestCompleted(null);
+
+		assertThat(ends.get(), equalTo(1));
+		HttpRequestFormatter.Builder builder = new HttpRequestFormatter.Builder("POST", "http://docker.local:8080/app");
+		body.applyTo(builder);
+		String text = builder.build().formatAsText();
+		assertThat(text, containsString(BODY));
+		assertThat(text, not(containsString(BODY + BODY)));
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.HttpResponseFormatter;
+import com.epam.reportportal.formatting.http.entities.BodyType;
+import org.apache.http.HttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.FileContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class TeeResponseConsumerTest {
+
+	private static final String BODY = "Response body transferred to a file";
+
+	/**
+	 * Decoder which supports direct transfer of the body to a file.
+	 */
+	private static class FileDecoder implements FileContentDecoder {
+		private final ByteBuffer body = ByteBuffer.wrap(BODY.getBytes(StandardCharsets.UTF_8));
+
+		@Override
+		public long transfer(FileChannel dst, long position, long count) throws IOException {
+			ByteBuffer portion = body.duplicate();
+			portion.limit(portion.position() + (int) Math.min(count, body.remaining()));
+			int written = dst.write(portion, position);
+			body.position(body.position() + written);
+			return written;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			throw new UnsupportedOperationException("The body should be transferred");
+		}
+
+		@Override
+		public boolean isCompleted() {
+			return !body.hasRemaining();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static CapturedBody transfer(Path file, OpenOption... options) throws Exception {
+		CapturedBody body = CapturedBody.forResponse(
+				"text/plain",
+				null,
+				BODY.length(),
+				Collections.singletonMap("text/plain", BodyType.TEXT),
+				CaptureOptions.DEFAULT
+		);
+		AtomicBoolean ended = new AtomicBoolean();
+		AtomicBoolean transferred = new AtomicBoolean();
+		HttpAsyncResponseConsumer<HttpResponse> delegate = mock(HttpAsyncResponseConsumer.class);
+		doAnswer(invocation -> {
+			ContentDecoder decoder = invocation.getArgument(0);
+			assertThat(decoder, instanceOf(FileContentDecoder.class));
+			try (FileChannel channel = FileChannel.open(file, options)) {
+				long position = 0;
+				while (!decoder.isCompleted()) {
+					position += ((FileContentDecoder) decoder).transfer(channel, position, 5);
+				}
+			}
+			transferred.set(true);
+			return null;
+		}).when(delegate).consumeContent(any(), any());
+		TeeResponseConsumer<HttpResponse> consumer = new TeeResponseConsumer<>(delegate, r -> body, () -> ended.set(true));
+
+		consumer.responseReceived(mock(HttpResponse.class));
+		consumer.consumeContent(new FileDecoder(), mock(IOControl.class));
+		consumer.responseCompleted(null);
+
+		assertThat(transferred.get(), equalTo(true));
+		assertThat(ended.get(), equalTo(true));
+		assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), equalTo(BODY));
+		return body;
+	}
+
+	@Test
+	public void test_file_transfer_is_passed_through_and_captured(@TempDir Path directory) throws Exception {
+		CapturedBody body = transfer(
+				directory.resolve("body.txt"),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+		);
+
+		HttpResponseFormatter.Builder builder = new HttpResponseFormatter.Builder(200, "OK");
+		body.applyTo(builder);
+		assertThat(builder.build().formatAsText(), containsString(BODY));
+	}
+
+	@Test
+	public void test_transfer_to_write_only_file_is_not_broken(@TempDir Path directory) throws Exception {
+		transfer(directory.resolve("body.txt"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents.support;
+
+import com.epam.reportportal.formatting.http.entities.Param;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TextDecoderTest {
+
+	private static final String TEXT = "Price: \u20AC10, \u0426\u0435\u043D\u0430";
+
+	@ParameterizedTest
+	@ValueSource(strings = { "UTF-8", "UTF-16", "windows-1251", "KOI8-R", "Shift_JIS", "UTF-32" })
+	public void test_decode_text_in_charset(String charsetName) {
+		Charset charset = Charset.forName(charsetName);
+		String text = new String(TEXT.getBytes(charset), charset);
+		byte[] bytes = text.getBytes(charset);
+
+		assertThat(TextDecoder.decode(bytes, charset), equalTo(text));
+		// The second call reuses the decoder of the thread
+		assertThat(TextDecoder.decode(bytes, charset), equalTo(text));
+	}
+
+	@Test
+	public void test_decode_text_range() {
+		byte[] bytes = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+		assertThat(TextDecoder.decode(bytes, 2, 5, Charset.forName("windows-1251")), equalTo("23456"));
+		assertThat(TextDecoder.decode(bytes, 2, 0, Charset.forName("windows-1251")), equalTo(""));
+	}
+
+	@Test
+	public void test_malformed_input_is_replaced() {
+		byte[] bytes = { 'a', (byte) 0x82, (byte) 0xFF, 'b' };
+		Charset charset = Charset.forName("Shift_JIS");
+
+		assertThat(TextDecoder.decode(bytes, charset), equalTo(new String(bytes, charset)));
+	}
+
+	@Test
+	public void test_ascii_compatible_charsets() {
+		assertThat(TextDecoder.isAsciiCompatible(Charset.forName("windows-1251")), equalTo(true));
+		assertThat(TextDecoder.isAsciiCompatible(Charset.forName("UTF-32")), equalTo(false));
+	}
+
+	private static List<String> decodeForm(String body, Charset charset) {
+		byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+		return TextDecoder.decodeForm(bytes, bytes.length, charset)
+				.stream()
+				.map(p -> p.getName() + "=" + p.getValue())
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void test_form_is_decoded_in_charset() {
+		assertThat(
+				decodeForm("text=x+y%20z&price=%E2%82%AC10&flag&&empty=", StandardCharsets.UTF_8),
+				contains("text=x y z", "price=\u20AC10", "flag=", "empty=")
+		);
+		assertThat(decodeForm("name=%D6%E5%ED%E0", Charset.forName("windows-1251")), contains("name=\u0426\u0435\u043D\u0430"));
+	}
+
+	@Test
+	public void test_form_malformed_percent_sequence_is_kept() {
+		assertThat(decodeForm("a=100%&b=%zz&c=%4", StandardCharsets.UTF_8), contains("a=100%", "b=%zz", "c=%4"));
+	}
+
+	@Test
+	public void test_form_decodes_only_given_length() {
+		byte[] bytes = "a=1&b=2".getBytes(StandardCharsets.US_ASCII);
+
+		List<Param> params = TextDecoder.decodeForm(bytes, 3, StandardCharsets.UTF_8);
+
+		assertThat(params, hasSize(1));
+		assertThat(params.get(0).getName(), equalTo("a"));
+		assertThat(params.get(0).getValue(), equalTo("1"));
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5;
+
+import com.epam.reportportal.listeners.ItemStatus;
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.message.ReportPortalMessage;
+import com.epam.reportportal.service.Launch;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.step.StepReporter;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.reportportal.utils.files.Utils;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.concurrent.CancellableDependency;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReportPortalAsyncLoggingHandlerTest {
+
+	private static final String IMAGE = "pug/lucky.jpg";
+	private static final HttpHost HOST = new HttpHost("http", "docker.local", 8080);
+	private static final String URI = "/app";
+	private static final String EMPTY_REQUEST = "**>>> REQUEST**\nPOST to " + HOST.toURI() + URI;
+	private static final String EMPTY_RESPONSE = "**<<< RESPONSE**\nHTTP/1.1 201 Created";
+
+	private static byte[] getResource(String path) throws IOException {
+		try (InputStream stream = Objects.requireNonNull(ReportPortalAsyncLoggingHandlerTest.class.getClassLoader()
+				.getResourceAsStream(path))) {
+			return Utils.readInputStreamToBytes(stream);
+		}
+	}
+
+	/**
+	 * Data channel which accepts all written bytes.
+	 */
+	private static class ByteChannel implements DataStreamChannel {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private boolean ended;
+
+		@Override
+		public void requestOutput() {
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			int written = src.remaining();
+			byte[] chunk = new byte[written];
+			src.get(chunk);
+			bytes.write(chunk, 0, written);
+			return written;
+		}
+
+		@Override
+		public void endStream() {
+			ended = true;
+		}
+
+		@Override
+		public void endStream(List<? extends Header> trailers) {
+			ended = true;
+		}
+	}
+
+	/**
+	 * Run an exchange through the handler as the client transport would: send the request body to the channel, then
+	 * deliver the response and its body in two parts.
+	 */
+	private static Triple<List<String>, List<String>, List<ReportPortalMessage>> runExchange(
+			@Nullable AsyncEntityProducer requestBody, @Nullable byte[] responseBody, @Nullable ContentType responseType)
+			throws HttpException, IOException {
+		HttpRequest request = new BasicHttpRequest("POST", HOST, URI);
+		AsyncExecChain chain = mock(AsyncExecChain.class);
+		AsyncExecCallback applicationCallback = mock(AsyncExecCallback.class);
+		AsyncDataConsumer applicationConsumer = mock(AsyncDataConsumer.class);
+		when(applicationCallback.handleResponse(any(), any())).thenReturn(applicationConsumer);
+		ByteChannel channel = new ByteChannel();
+		doAnswer(invocation -> {
+			AsyncEntityProducer producer = invocation.getArgument(1);
+			if (producer != null) {
+				while (!channel.ended) {
+					producer.produce(channel);
+				}
+			}
+			AsyncExecCallback callback = invocation.getArgument(3);
+			BasicHttpResponse response = new BasicHttpResponse(201, "Created");
+			if (responseBody == null) {
+				callback.handleResponse(response, null);
+			} else {
+				AsyncDataConsumer consumer = callback.handleResponse(
+						response,
+						new BasicEntityDetails(responseBody.length, responseType)
+				);
+				int half = responseBody.length / 2;
+				consumer.consume(ByteBuffer.wrap(responseBody, 0, half));
+				consumer.consume(ByteBuffer.wrap(responseBody, half, responseBody.length - half));
+				consumer.streamEnd(null);
+			}
+			callback.completed();
+			return null;
+		}).when(chain).proceed(any(), any(), any(), any());
+		AsyncExecChain.Scope scope = new AsyncExecChain.Scope(
+				"ex-0000000001",
+				new HttpRoute(HOST),
+				request,
+				mock(CancellableDependency.class),
+				HttpClientContext.create(),
+				mock(AsyncExecRuntime.class),
+				null,
+				new AtomicInteger(1)
+		);
+
+		ArgumentCaptor<String> stepCaptor = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<ReportPortalMessage> messageCaptor = ArgumentCaptor.forClass(ReportPortalMessage.class);
+		ReportPortalAsyncLoggingHandler handler = new ReportPortalAsyncLoggingHandler(LogLevel.INFO);
+		try (MockedStatic<Launch> launchMock = Mockito.mockStatic(Launch.class);
+				MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			Launch launch = mock(Launch.class);
+			StepReporter reporter = mock(StepReporter.class);
+			launchMock.when(Launch::currentLaunch).thenReturn(launch);
+			when(launch.getStepReporter()).thenReturn(reporter);
+			when(reporter.sendStep(any(ItemStatus.class), stepCaptor.capture())).thenReturn(CommonUtils.createMaybeUuid());
+			reportPortalMock.when(() -> ReportPortal.emitLog(stringCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			reportPortalMock.when(() -> ReportPortal.emitLog(messageCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			handler.execute(request, requestBody, scope, chain, applicationCallback);
+			handler.flush();
+		}
+
+		verify(applicationCallback).completed();
+		if (responseBody != null) {
+			ArgumentCaptor<ByteBuffer> bufferCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+			verify(applicationConsumer, Mockito.times(2)).consume(bufferCaptor.capture());
+			ByteArrayOutputStream received = new ByteArrayOutputStream();
+			bufferCaptor.getAllValues().forEach(b -> received.write(b.array(), b.arrayOffset() + b.position(), b.remaining()));
+			assertThat(received.toByteArray(), equalTo(responseBody));
+			verify(applicationConsumer).streamEnd(null);
+		}
+		return Triple.of(stepCaptor.getAllValues(), stringCaptor.getAllValues(), messageCaptor.getAllValues());
+	}
+
+	@Test
+	public void test_bodyless_exchange_is_logged_with_heads() throws HttpException, IOException {
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runExchange(null, null, null);
+
+		assertThat(logs.getMiddle(), contains(EMPTY_REQUEST, EMPTY_RESPONSE));
+		assertThat(logs.getRight(), empty());
+	}
+
+	@Test
+	public void test_text_bodies_are_captured_while_streamed() throws HttpException, IOException {
+		String requestBody = "{\"request\": \"value\"}";
+		String responseBody = "{\"response\": \"value\"}";
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runExchange(
+				AsyncEntityProducers.create(requestBody, ContentType.APPLICATION_JSON),
+				responseBody.getBytes(ContentType.APPLICATION_JSON.getCharset()),
+				ContentType.APPLICATION_JSON
+		);
+
+		assertThat(logs.getMiddle(), hasSize(2));
+		assertThat(logs.getMiddle().get(0), allOf(startsWith(EMPTY_REQUEST), containsString("\"request\"")));
+		assertThat(logs.getMiddle().get(1), allOf(startsWith(EMPTY_RESPONSE), containsString("\"response\"")));
+	}
+
+	@Test
+	public void test_binary_response_is_attached() throws HttpException, IOException {
+		byte[] image = getResource(IMAGE);
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runExchange(null, image, ContentType.IMAGE_JPEG);
+
+		assertThat(logs.getMiddle(), contains(EMPTY_REQUEST));
+		assertThat(logs.getRight(), hasSize(1));
+		assertThat(logs.getRight().get(0).getMessage(), startsWith(EMPTY_RESPONSE));
+		assertThat(logs.getRight().get(0).getData().getMediaType(), equalTo(ContentType.IMAGE_JPEG.getMimeType()));
+		assertThat(logs.getRight().get(0).getData().read(), equalTo(image));
+	}
+
+	@Test
+	public void test_multipart_request_is_logged_as_nested_step() throws HttpException, IOException {
+		byte[] image = getResource(IMAGE);
+		String message = "test_message";
+		HttpEntity multipart = MultipartEntityBuilder.create()
+				.addBinaryBody("file", image, ContentType.IMAGE_JPEG, IMAGE)
+				.addTextBody("text", message, ContentType.TEXT_PLAIN)
+				.build();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		multipart.writeTo(body);
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runExchange(
+				AsyncEntityProducers.create(body.toByteArray(), ContentType.parse(multipart.getContentType())),
+				null,
+				null
+		);
+
+		assertThat(logs.getLeft(), contains(EMPTY_REQUEST));
+		assertThat(logs.getMiddle(), hasSize(2));
+		assertThat(logs.getMiddle().get(0), allOf(containsString("name=\"text\""), containsString(message)));
+		assertThat(logs.getMiddle().get(1), equalTo(EMPTY_RESPONSE));
+		assertThat(logs.getRight(), hasSize(1));
+		assertThat(logs.getRight().get(0).getMessage(), containsString("filename=\"" + IMAGE + "\""));
+		assertThat(logs.getRight().get(0).getData().read(), equalTo(image));
+	}
+}
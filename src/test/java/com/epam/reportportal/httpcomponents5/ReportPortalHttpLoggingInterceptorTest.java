@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.httpcomponents5;
+
+import com.epam.reportportal.listeners.ItemStatus;
+import com.epam.reportportal.listeners.LogLevel;
+import com.epam.reportportal.message.ReportPortalMessage;
+import com.epam.reportportal.service.Launch;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.step.StepReporter;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.reportportal.utils.files.Utils;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.protocol.BasicHttpContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReportPortalHttpLoggingInterceptorTest {
+
+	private static final String IMAGE = "pug/lucky.jpg";
+	private static final HttpHost HOST = new HttpHost("http", "docker.local", 8080);
+	private static final String URI = "/app";
+	private static final String EMPTY_REQUEST = "**>>> REQUEST**\nPOST to " + HOST.toURI() + URI;
+	private static final String EMPTY_RESPONSE = "**<<< RESPONSE**\nHTTP/1.1 201 Created";
+
+	private static byte[] getResource(String path) throws IOException {
+		try (InputStream stream = Objects.requireNonNull(ReportPortalHttpLoggingInterceptorTest.class.getClassLoader()
+				.getResourceAsStream(path))) {
+			return Utils.readInputStreamToBytes(stream);
+		}
+	}
+
+	private static ClassicHttpRequest createRequest(HttpEntity body) {
+		ClassicHttpRequest request = new BasicClassicHttpRequest("POST", HOST, URI);
+		request.setEntity(body);
+		return request;
+	}
+
+	private static ClassicHttpResponse createResponse(HttpEntity body) {
+		ClassicHttpResponse response = new BasicClassicHttpResponse(201, "Created");
+		response.setEntity(body);
+		return response;
+	}
+
+	private static Triple<List<String>, List<String>, List<ReportPortalMessage>> runChain(ClassicHttpRequest request,
+			ClassicHttpResponse response) {
+		ArgumentCaptor<String> stepCaptor = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<ReportPortalMessage> messageCaptor = ArgumentCaptor.forClass(ReportPortalMessage.class);
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO);
+		try (MockedStatic<Launch> launchMock = Mockito.mockStatic(Launch.class);
+				MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			Launch launch = mock(Launch.class);
+			StepReporter reporter = mock(StepReporter.class);
+			launchMock.when(Launch::currentLaunch).thenReturn(launch);
+			when(launch.getStepReporter()).thenReturn(reporter);
+			when(reporter.sendStep(any(ItemStatus.class), stepCaptor.capture())).thenReturn(CommonUtils.createMaybeUuid());
+			reportPortalMock.when(() -> ReportPortal.emitLog(stringCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			reportPortalMock.when(() -> ReportPortal.emitLog(messageCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			BasicHttpContext context = new BasicHttpContext();
+			interceptor.process(request, request.getEntity(), context);
+			interceptor.process(response, response.getEntity(), context);
+		}
+		return Triple.of(stepCaptor.getAllValues(), stringCaptor.getAllValues(), messageCaptor.getAllValues());
+	}
+
+	@Test
+	public void test_bodyless_exchange_is_logged_with_heads() {
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChain(createRequest(null), createResponse(null));
+
+		assertThat(logs.getMiddle(), contains(EMPTY_REQUEST, EMPTY_RESPONSE));
+		assertThat(logs.getRight(), empty());
+	}
+
+	@Test
+	public void test_non_repeatable_text_bodies_are_logged_and_replayed() throws IOException, ParseException {
+		String requestBody = "{\"request\": \"value\"}";
+		String responseBody = "{\"response\": \"value\"}";
+		ClassicHttpRequest request = createRequest(new InputStreamEntity(
+				new ByteArrayInputStream(requestBody.getBytes(StandardCharsets.UTF_8)),
+				ContentType.APPLICATION_JSON
+		));
+		ClassicHttpResponse response = createResponse(new InputStreamEntity(
+				new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)),
+				ContentType.APPLICATION_JSON
+		));
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChain(request, response);
+
+		assertThat(logs.getMiddle(), hasSize(2));
+		assertThat(logs.getMiddle().get(0), allOf(startsWith(EMPTY_REQUEST), containsString("\"request\"")));
+		assertThat(logs.getMiddle().get(1), allOf(startsWith(EMPTY_RESPONSE), containsString("\"response\"")));
+		assertThat(EntityUtils.toString(request.getEntity()), equalTo(requestBody));
+		assertThat(EntityUtils.toString(response.getEntity()), equalTo(responseBody));
+	}
+
+	@Test
+	public void test_binary_response_is_attached() throws IOException {
+		byte[] image = getResource(IMAGE);
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChain(
+				createRequest(null),
+				createResponse(new ByteArrayEntity(image, ContentType.IMAGE_JPEG))
+		);
+
+		assertThat(logs.getMiddle(), contains(EMPTY_REQUEST));
+		assertThat(logs.getRight(), hasSize(1));
+		assertThat(logs.getRight().get(0).getMessage(), startsWith(EMPTY_RESPONSE));
+		assertThat(logs.getRight().get(0).getData().getMediaType(), equalTo(ContentType.IMAGE_JPEG.getMimeType()));
+		assertThat(logs.getRight().get(0).getData().read(), equalTo(image));
+	}
+
+	@Test
+	public void test_multipart_request_is_logged_as_nested_step() throws IOException {
+		byte[] image = getResource(IMAGE);
+		String message = "test_message";
+		HttpEntity body = MultipartEntityBuilder.create()
+				.addBinaryBody("file", image, ContentType.IMAGE_JPEG, IMAGE)
+				.addTextBody("text", message, ContentType.TEXT_PLAIN)
+				.build();
+
+		Triple<List<String>, List<String>, List<ReportPortalMessage>> logs = runChain(createRequest(body), createResponse(null));
+
+		assertThat(logs.getLeft(), contains(EMPTY_REQUEST));
+		assertThat(logs.getMiddle(), hasSize(2));
+		assertThat(logs.getMiddle().get(0), allOf(containsString("name=\"text\""), containsString(message)));
+		assertThat(logs.getMiddle().get(1), equalTo(EMPTY_RESPONSE));
+		assertThat(logs.getRight(), hasSize(1));
+		assertThat(logs.getRight().get(0).getMessage(), containsString("filename=\"" + IMAGE + "\""));
+		assertThat(logs.getRight().get(0).getData().read(), equalTo(image));
+	}
+
+	@Test
+	public void test_filtered_request_is_not_logged() {
+		ReportPortalHttpLoggingInterceptor interceptor = new ReportPortalHttpLoggingInterceptor(LogLevel.INFO).addRequestFilter(r -> true);
+		ArgumentCaptor<String> stringCaptor = ArgumentCaptor.forClass(String.class);
+		try (MockedStatic<ReportPortal> reportPortalMock = Mockito.mockStatic(ReportPortal.class)) {
+			reportPortalMock.when(() -> ReportPortal.emitLog(stringCaptor.capture(), anyString(), any(Instant.class)))
+					.thenReturn(Boolean.TRUE);
+			ClassicHttpRequest request = createRequest(new StringEntity("body"));
+			ClassicHttpResponse response = createResponse(null);
+			BasicHttpContext context = new BasicHttpContext();
+			interceptor.process(request, request.getEntity(), context);
+			interceptor.process(response, response.getEntity(), context);
+		}
+
+		assertThat(stringCaptor.getAllValues(), contains(EMPTY_RESPONSE));
+	}
+}